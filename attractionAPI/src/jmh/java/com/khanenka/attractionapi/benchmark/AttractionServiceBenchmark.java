@@ -0,0 +1,68 @@
+package com.khanenka.attractionapi.benchmark;
+
+import com.khanenka.attractionapi.entity.dto.AttractionFilter;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import com.khanenka.attractionapi.service.AttractionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк {@link AttractionService#getAttractions}: проверка параметров, выбор сортировки и сборка
+ * моделей чтения без базы данных. Репозиторий заменен заглушкой, возвращающей заранее построенные строки,
+ * поэтому измеряется только работа сервиса и маппера.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttractionServiceBenchmark {
+
+    @Param({"name", "id", "description", "date", "location", "service"})
+    private String sortBy;
+
+    @Param({"100"})
+    private int rows;
+
+    private AttractionService attractionService;
+    private AttractionFilter filter;
+
+    @Setup
+    public void setUp() {
+        List<AttractionRow> attractionRows = BenchmarkData.rows(rows);
+        List<ServiceRow> serviceRows = BenchmarkData.serviceRows(rows);
+        AttractionRepository repository = (AttractionRepository) Proxy.newProxyInstance(
+                AttractionRepository.class.getClassLoader(),
+                new Class<?>[]{AttractionRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findRowsByQuery" -> attractionRows;
+                    case "findServiceRowsByQuery" -> serviceRows;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        attractionService = new AttractionService(repository, null, null, null, null, null, null);
+        filter = new AttractionFilter(AttractionType.PARK, sortBy);
+    }
+
+    @Benchmark
+    public List<AttractionView> getAttractions() {
+        return attractionService.getAttractions(filter);
+    }
+
+    /**
+     * Поиск поля сортировки, выполняемый validateSortBy для каждого запроса.
+     */
+    @Benchmark
+    public Optional<AttractionSortField> validateSortBy() {
+        return AttractionSortField.fromParam(sortBy);
+    }
+}
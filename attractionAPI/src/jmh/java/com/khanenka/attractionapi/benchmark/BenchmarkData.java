@@ -0,0 +1,68 @@
+package com.khanenka.attractionapi.benchmark;
+
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.Service;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Детерминированные тестовые данные для бенчмарков: одна локация на каждые 100 достопримечательностей
+ * и по две услуги на каждую достопримечательность.
+ */
+final class BenchmarkData {
+
+    static final int SERVICES_PER_ATTRACTION = 2;
+
+    private BenchmarkData() {
+    }
+
+    static Attraction attraction(long id) {
+        Location location = new Location(id / 100, "Локация " + id / 100, 100000L + id, id % 2 == 0, null, null, null, null, null);
+        Attraction attraction = new Attraction(id, "Достопримечательность " + id, LocalDate.of(1970, 10, 10),
+                "Описание достопримечательности " + id, type(id), location, new ArrayList<>(), null, null, null, null);
+        for (int i = 0; i < SERVICES_PER_ATTRACTION; i++) {
+            attraction.getServices().add(new Service(id * SERVICES_PER_ATTRACTION + i,
+                    "Услуга " + i, "Описание услуги " + i, attraction));
+        }
+        return attraction;
+    }
+
+    static List<Attraction> attractions(int count) {
+        List<Attraction> attractions = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            attractions.add(attraction(id));
+        }
+        return attractions;
+    }
+
+    static List<AttractionRow> rows(int count) {
+        List<AttractionRow> rows = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            rows.add(new AttractionRow(id, "Достопримечательность " + id, LocalDate.of(1970, 10, 10),
+                    "Описание достопримечательности " + id, type(id),
+                    id / 100, "Локация " + id / 100, 100000L + id, id % 2 == 0));
+        }
+        return rows;
+    }
+
+    static List<ServiceRow> serviceRows(int count) {
+        List<ServiceRow> services = new ArrayList<>(count * SERVICES_PER_ATTRACTION);
+        for (long id = 1; id <= count; id++) {
+            for (int i = 0; i < SERVICES_PER_ATTRACTION; i++) {
+                services.add(new ServiceRow(id, id * SERVICES_PER_ATTRACTION + i, "Услуга " + i, "Описание услуги " + i));
+            }
+        }
+        return services;
+    }
+
+    private static AttractionType type(long id) {
+        AttractionType[] types = AttractionType.values();
+        return types[(int) (id % types.length)];
+    }
+}
@@ -0,0 +1,39 @@
+package com.khanenka.attractionapi.benchmark;
+
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.utility.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк преобразований {@link ModelMapper} между сущностью и DTO достопримечательности.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelMapperBenchmark {
+
+    private Attraction attraction;
+    private AttractionDTO attractionDTO;
+
+    @Setup
+    public void setUp() {
+        attraction = BenchmarkData.attraction(42);
+        attractionDTO = ModelMapper.INSTANCE.entityToAttractionDto(attraction);
+    }
+
+    @Benchmark
+    public AttractionDTO entityToAttractionDto() {
+        return ModelMapper.INSTANCE.entityToAttractionDto(attraction);
+    }
+
+    @Benchmark
+    public Attraction dtoToAttractionEntity() {
+        return ModelMapper.INSTANCE.dtoToAttractionEntity(attractionDTO);
+    }
+}
@@ -0,0 +1,47 @@
+package com.khanenka.attractionapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.utility.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк сериализации списков достопримечательностей в JSON: сущности {@link Attraction}
+ * (ответ создания и обновления) и модели чтения {@link AttractionView} (ответ списков).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int rows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Attraction> attractions;
+    private List<AttractionView> views;
+
+    @Setup
+    public void setUp() {
+        attractions = BenchmarkData.attractions(rows);
+        views = ModelMapper.INSTANCE.rowsToAttractionViews(BenchmarkData.rows(rows), BenchmarkData.serviceRows(rows));
+    }
+
+    @Benchmark
+    public byte[] serializeAttractions() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(attractions);
+    }
+
+    @Benchmark
+    public byte[] serializeAttractionViews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(views);
+    }
+}
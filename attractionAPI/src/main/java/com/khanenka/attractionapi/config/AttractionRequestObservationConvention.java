@@ -0,0 +1,51 @@
+package com.khanenka.attractionapi.config;
+
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.util.Arrays;
+
+/**
+ * Соглашение об именовании наблюдений HTTP-запросов, добавляющее теги <b>sortBy</b> и <b>type</b>.
+ * Значения тегов ограничены допустимыми значениями параметров: отсутствующий параметр
+ * помечается как none, недопустимый - как invalid, поэтому число временных рядов не растет
+ * от произвольных значений в запросах.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public class AttractionRequestObservationConvention extends DefaultServerRequestObservationConvention {
+    static final String NONE = "none";
+    static final String INVALID = "invalid";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(
+                sortBy(context.getCarrier().getParameter("sortBy")),
+                type(context.getCarrier().getParameter("type")));
+    }
+
+    private static KeyValue sortBy(String sortBy) {
+        if (sortBy == null) {
+            return KeyValue.of("sortBy", NONE);
+        }
+        return KeyValue.of("sortBy", AttractionSortField.fromParam(sortBy)
+                .map(AttractionSortField::getParam)
+                .orElse(INVALID));
+    }
+
+    private static KeyValue type(String type) {
+        if (type == null) {
+            return KeyValue.of("type", NONE);
+        }
+        return KeyValue.of("type", Arrays.stream(AttractionType.values())
+                .map(Enum::name)
+                .filter(name -> name.equals(type))
+                .findFirst()
+                .orElse(INVALID));
+    }
+}
@@ -0,0 +1,86 @@
+package com.khanenka.attractionapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Конфигурация кэша чтения достопримечательностей.
+ * Кэши ограничены по размеру и времени жизни (спецификации Caffeine в application.properties)
+ * и собирают статистику попаданий, которая публикуется actuator как метрики cache.gets.
+ * Изменения кэшей внутри транзакции (put, evict, clear, в том числе из {@code @CacheEvict})
+ * откладываются до ее коммита: иначе параллельное чтение между удалением ключа и коммитом
+ * снова положило бы в кэш старую строку до истечения времени жизни. Чтение, загрузившее строку до коммита
+ * и положившее ее в кэш уже после удаления, закрывается повторным удалением через second-eviction-delay
+ * ({@link DelayedEvictionCache}). Перехватчик кэша выполняется первым, до транзакции и ограничителя
+ * обращений к базе, поэтому попадание в кэш не открывает транзакцию.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+    /**
+     * кэш достопримечательностей по идентификатору
+     */
+    public static final String ATTRACTION_BY_ID = "attractionById";
+    /**
+     * кэш списков достопримечательностей по имени локации
+     */
+    public static final String ATTRACTIONS_BY_LOCATION = "attractionsByLocation";
+
+    private final ScheduledExecutorService evictionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-second-eviction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Создает менеджер кэшей с отдельными ограничениями размера и времени жизни,
+     * применяющий изменения кэшей после коммита текущей транзакции и повторяющий удаления через задержку.
+     *
+     * @param byIdSpec            спецификация Caffeine для кэша по идентификатору
+     * @param byLocationSpec      спецификация Caffeine для кэша по имени локации
+     * @param secondEvictionDelay задержка повторного удаления (0 - без повторного удаления)
+     * @return менеджер кэшей
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${attractions.cache.by-id.spec}") String byIdSpec,
+            @Value("${attractions.cache.by-location.spec}") String byLocationSpec,
+            @Value("${attractions.cache.second-eviction-delay:500ms}") Duration secondEvictionDelay) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                Cache adapted = super.adaptCaffeineCache(name, cache);
+                return secondEvictionDelay.isZero()
+                        ? adapted
+                        : new DelayedEvictionCache(adapted, evictionScheduler, secondEvictionDelay);
+            }
+        };
+        cacheManager.registerCustomCache(ATTRACTION_BY_ID, Caffeine.from(byIdSpec).build());
+        cacheManager.registerCustomCache(ATTRACTIONS_BY_LOCATION, Caffeine.from(byLocationSpec).build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Останавливает поток повторных удалений.
+     */
+    @PreDestroy
+    public void stop() {
+        evictionScheduler.shutdownNow();
+    }
+}
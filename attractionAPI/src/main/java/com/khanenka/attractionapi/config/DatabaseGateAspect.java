@@ -0,0 +1,106 @@
+package com.khanenka.attractionapi.config;
+
+import com.khanenka.attractionapi.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничитель одновременных обращений к базе данных.
+ * Число разрешений равно размеру пула соединений, поэтому при всплеске нагрузки запросы
+ * (в том числе на виртуальных потоках) ждут разрешение в очереди семафора, а не занимают
+ * поток Tomcat в ожидании соединения Hikari. Ожидание ограничено acquire-timeout;
+ * нулевое значение означает немедленный отказ. При отказе выбрасывается {@link DatabaseBusyException} (503).
+ * <p>
+ * Разрешение берется при входе в метод с {@code @Transactional} (на методе или классе) или в метод репозитория.
+ * Аспект выполняется раньше перехватчика транзакций, поэтому разрешение берется до того, как транзакция
+ * получит соединение из пула, и позже перехватчика кэша ({@link CacheConfig}), поэтому попадание в кэш
+ * разрешения не требует. Вложенные вызовы в том же потоке
+ * используют уже взятое разрешение; оно возвращается при выходе из внешнего вызова, после коммита.
+ * Транзакции {@code TransactionTemplate} берут разрешение при первом вызове репозитория.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "attractions.db-gate.enabled", havingValue = "true")
+public class DatabaseGateAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseGateAspect.class);
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    /**
+     * Конструктор ограничителя.
+     *
+     * @param maxConcurrent  число одновременных обращений к базе (по умолчанию размер пула Hikari)
+     * @param acquireTimeout максимальное ожидание разрешения; 0 - отказ без ожидания
+     * @param meterRegistry  реестр метрик для публикации свободных разрешений и длины очереди
+     */
+    @Autowired
+    public DatabaseGateAspect(
+            @Value("${attractions.db-gate.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${attractions.db-gate.acquire-timeout:2s}") Duration acquireTimeout,
+            MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeout = acquireTimeout;
+        Gauge.builder("attractions.db.gate.available", permits, Semaphore::availablePermits)
+                .description("Свободные разрешения на обращение к базе данных")
+                .register(meterRegistry);
+        Gauge.builder("attractions.db.gate.queued", permits, Semaphore::getQueueLength)
+                .description("Потоки, ожидающие разрешения на обращение к базе данных")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выполняет транзакционный метод или метод репозитория, удерживая разрешение.
+     *
+     * @param joinPoint вызов метода
+     * @return результат метода
+     * @throws Throwable исключение метода или {@link DatabaseBusyException}
+     */
+    @Around("@annotation(org.springframework.transaction.annotation.Transactional)"
+            + " || @within(org.springframework.transaction.annotation.Transactional)"
+            + " || execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (holding.get() != null) {
+            return joinPoint.proceed();
+        }
+        acquire(joinPoint);
+        holding.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            holding.remove();
+            permits.release();
+        }
+    }
+
+    private void acquire(ProceedingJoinPoint joinPoint) throws InterruptedException {
+        boolean acquired = acquireTimeout.isZero()
+                ? permits.tryAcquire()
+                : permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (!acquired) {
+            logger.warn("Нет свободных разрешений на обращение к базе данных: {}", joinPoint.getSignature().toShortString());
+            throw new DatabaseBusyException("База данных перегружена, повторите запрос позже");
+        }
+    }
+}
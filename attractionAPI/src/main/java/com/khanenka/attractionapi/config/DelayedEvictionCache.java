@@ -0,0 +1,125 @@
+package com.khanenka.attractionapi.config;
+
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Кэш, повторяющий удаление ключей через заданную задержку.
+ * Удаление после коммита не закрывает гонку cache-aside: чтение, загрузившее строку из базы до коммита,
+ * может положить ее в кэш уже после удаления, и старое значение жило бы до истечения времени жизни.
+ * Повторное удаление убирает такое значение, если чтение завершилось в пределах задержки.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public class DelayedEvictionCache implements Cache {
+
+    private final Cache target;
+    private final ScheduledExecutorService scheduler;
+    private final Duration delay;
+
+    /**
+     * Конструктор кэша.
+     *
+     * @param target    кэш, которому передаются все операции
+     * @param scheduler поток повторных удалений
+     * @param delay     задержка повторного удаления
+     */
+    public DelayedEvictionCache(Cache target, ScheduledExecutorService scheduler, Duration delay) {
+        this.target = target;
+        this.scheduler = scheduler;
+        this.delay = delay;
+    }
+
+    /**
+     * Возвращает кэш, которому передаются операции.
+     *
+     * @return исходный кэш
+     */
+    public Cache getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return target.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return target.get(key, valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return target.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return target.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+        repeatLater(() -> target.evict(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = target.evictIfPresent(key);
+        repeatLater(() -> target.evict(key));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        repeatLater(target::clear);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = target.invalidate();
+        repeatLater(target::invalidate);
+        return invalidated;
+    }
+
+    private void repeatLater(Runnable eviction) {
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(eviction, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.khanenka.attractionapi.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.CaffeineCacheMeterBinderProvider;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурация метрик приложения.
+ * HTTP-запросы, вызовы репозиториев, пул соединений Hikari, статистика Hibernate и кэши
+ * инструментируются actuator автоматически; здесь включается обработка {@code @Timed} на сервисах.
+ * Все метрики публикуются в формате Prometheus на /actuator/prometheus.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Configuration
+public class MetricsConfig {
+    /**
+     * имя таймера методов сервисов
+     */
+    public static final String SERVICE_TIMER = "attractions.service";
+
+    /**
+     * Включает аспект, измеряющий время методов, помеченных {@code @Timed}.
+     *
+     * @param meterRegistry реестр метрик
+     * @return аспект таймеров
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Публикует метрики кэшей Caffeine, обернутых в {@link DelayedEvictionCache}.
+     *
+     * @return поставщик метрик обернутых кэшей
+     */
+    @Bean
+    public CacheMeterBinderProvider<DelayedEvictionCache> delayedEvictionCacheMeterBinderProvider() {
+        CaffeineCacheMeterBinderProvider caffeine = new CaffeineCacheMeterBinderProvider();
+        return (cache, tags) -> cache.getTarget() instanceof CaffeineCache target
+                ? caffeine.getMeterBinder(target, tags)
+                : null;
+    }
+
+    /**
+     * Добавляет к метрике http.server.requests теги sortBy и type.
+     *
+     * @return соглашение об именовании наблюдений HTTP-запросов
+     */
+    @Bean
+    public AttractionRequestObservationConvention attractionRequestObservationConvention() {
+        return new AttractionRequestObservationConvention();
+    }
+}
@@ -0,0 +1,52 @@
+package com.khanenka.attractionapi.config;
+
+/**
+ * Требование читать с основной базы, а не с реплики, в пределах текущего потока.
+ * Используется там, где чтение должно видеть только что закоммиченные изменения:
+ * в запросах клиента сразу после его изменения ({@link ReadYourWritesFilter}) и при
+ * обновлении модели чтения после коммита. Учитывается {@link ReplicaRoutingDataSource}.
+ * <pre>
+ * try (PrimaryReads.Scope ignored = PrimaryReads.require()) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> REQUIRED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private PrimaryReads() {
+    }
+
+    /**
+     * Требует читать с основной базы до закрытия возвращенной области.
+     *
+     * @return область, при закрытии которой восстанавливается предыдущее требование
+     */
+    public static Scope require() {
+        boolean previous = REQUIRED.get();
+        REQUIRED.set(Boolean.TRUE);
+        return () -> REQUIRED.set(previous);
+    }
+
+    /**
+     * Проверяет, требуется ли в текущем потоке чтение с основной базы.
+     *
+     * @return true, если чтение с реплик запрещено
+     */
+    public static boolean isRequired() {
+        return REQUIRED.get();
+    }
+
+    /**
+     * Область действия требования.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
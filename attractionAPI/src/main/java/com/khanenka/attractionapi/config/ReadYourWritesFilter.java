@@ -0,0 +1,66 @@
+package com.khanenka.attractionapi.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Обеспечивает клиенту чтение собственных изменений при чтении с реплик.
+ * На изменяющий запрос (POST, PUT, PATCH, DELETE) ответ получает cookie {@link #COOKIE_NAME}
+ * со сроком жизни sticky-window; пока cookie присылается, запросы клиента читают с основной базы
+ * ({@link PrimaryReads}) на любом экземпляре приложения.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * имя cookie, закрепляющей чтение клиента за основной базой
+     */
+    public static final String COOKIE_NAME = "attractions-read-primary";
+    private static final Set<String> MUTATING_METHODS = Set.of(
+            HttpMethod.POST.name(), HttpMethod.PUT.name(), HttpMethod.PATCH.name(), HttpMethod.DELETE.name());
+
+    private final Duration stickyWindow;
+
+    /**
+     * Конструктор фильтра.
+     *
+     * @param stickyWindow время после изменения, в течение которого клиент читает с основной базы
+     */
+    public ReadYourWritesFilter(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean mutating = MUTATING_METHODS.contains(request.getMethod());
+        if (mutating) {
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, "1")
+                    .path("/")
+                    .httpOnly(true)
+                    .maxAge(stickyWindow)
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        if (!mutating && WebUtils.getCookie(request, COOKIE_NAME) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (PrimaryReads.Scope ignored = PrimaryReads.require()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.khanenka.attractionapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Конфигурация чтения с реплик базы данных.
+ * Включается свойством attractions.replicas.enabled. Основной пул настраивается обычными свойствами
+ * spring.datasource.*, реплики перечисляются в attractions.replicas.urls и используют те же учетные данные,
+ * если attractions.replicas.username/password не заданы. Приложение получает {@link LazyConnectionDataSourceProxy}
+ * над {@link ReplicaRoutingDataSource}: транзакции {@code @Transactional(readOnly = true)} читают с реплик,
+ * все остальные обращения, включая Liquibase, идут на основную базу.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Configuration
+@ConditionalOnProperty(name = "attractions.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    /**
+     * Создает пул соединений основной базы.
+     *
+     * @param properties свойства spring.datasource
+     * @return пул основной базы
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Создает источник данных, направляющий read-only транзакции на реплики.
+     *
+     * @param primary       пул основной базы
+     * @param properties    свойства spring.datasource
+     * @param urls          JDBC URL реплик
+     * @param username      пользователь реплик (пусто - как у основной базы)
+     * @param password      пароль реплик (пусто - как у основной базы)
+     * @param poolSize      размер пула каждой реплики
+     * @param maxLag        допустимое отставание реплики
+     * @param checkInterval интервал проверки реплик
+     * @param lagQuery      запрос, возвращающий отставание реплики в секундах
+     * @param meterRegistry реестр метрик для публикации числа здоровых реплик
+     * @return маршрутизирующий источник данных
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            DataSourceProperties properties,
+            @Value("${attractions.replicas.urls}") List<String> urls,
+            @Value("${attractions.replicas.username:}") String username,
+            @Value("${attractions.replicas.password:}") String password,
+            @Value("${attractions.replicas.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+            @Value("${attractions.replicas.max-lag:5s}") Duration maxLag,
+            @Value("${attractions.replicas.check-interval:1s}") Duration checkInterval,
+            @Value("${attractions.replicas.lag-query}") String lagQuery,
+            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(Math.max(250, checkInterval.toMillis()));
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, maxLag, checkInterval, lagQuery);
+        Gauge.builder("attractions.db.replicas.healthy", routing, dataSource -> dataSource.getHealthyReplicas().size())
+                .description("Реплики, получающие read-only запросы")
+                .register(meterRegistry);
+        return routing;
+    }
+
+    /**
+     * Источник данных приложения: соединение берется при первом запросе транзакции.
+     *
+     * @param routing маршрутизирующий источник данных
+     * @return источник данных для JPA и Liquibase
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Регистрирует фильтр чтения собственных изменений.
+     *
+     * @param stickyWindow время после изменения, в течение которого клиент читает с основной базы
+     * @return регистрация фильтра
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${attractions.replicas.sticky-window:${attractions.replicas.max-lag:5s}}") Duration stickyWindow) {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(stickyWindow));
+    }
+}
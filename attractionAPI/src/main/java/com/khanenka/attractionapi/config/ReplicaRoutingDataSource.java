@@ -0,0 +1,189 @@
+package com.khanenka.attractionapi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Источник данных, направляющий read-only транзакции на реплики, а остальные - на основную базу.
+ * Должен использоваться через {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * тогда соединение берется при первом запросе, когда признак readOnly транзакции уже установлен.
+ * <p>
+ * Реплика получает запросы, только если последняя проверка прошла успешно и отставание,
+ * возвращенное lag-query (в секундах, null - нет отставания), не больше max-lag. Проверка выполняется
+ * в фоновом потоке раз в check-interval; до первой проверки и если здоровых реплик нет,
+ * все запросы идут на основную базу. Если соединение с репликой получить не удалось,
+ * она исключается до следующей проверки, а запрос уходит на основную базу.
+ * <p>
+ * Реплика выбирается по идентификатору потока, поэтому несколько read-only транзакций одного запроса
+ * читают одну и ту же реплику. {@link PrimaryReads} запрещает чтение с реплик в текущем потоке.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    /**
+     * ключ основной базы
+     */
+    public static final String PRIMARY = "primary";
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final String lagQuery;
+    private final ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile List<String> healthy = List.of();
+
+    /**
+     * Конструктор источника данных.
+     *
+     * @param primary       основная база
+     * @param replicas      реплики по именам
+     * @param maxLag        допустимое отставание реплики
+     * @param checkInterval интервал проверки реплик
+     * @param lagQuery      запрос, возвращающий отставание реплики в секундах
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    Duration checkInterval, String lagQuery) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.lagQuery = lagQuery;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checker.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        checker.shutdownNow();
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Возвращает имена реплик, которые сейчас получают запросы.
+     *
+     * @return имена здоровых реплик
+     */
+    public List<String> getHealthyReplicas() {
+        return healthy;
+    }
+
+    /**
+     * Проверяет доступность и отставание всех реплик и обновляет список здоровых.
+     */
+    public void checkReplicas() {
+        List<String> checked = new ArrayList<>(replicas.size());
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            Duration lag = measureLag(replica.getKey(), replica.getValue());
+            if (lag != null && lag.compareTo(maxLag) <= 0) {
+                checked.add(replica.getKey());
+            } else if (lag != null) {
+                logger.warn("Реплика {} отстает на {} при допустимых {}", replica.getKey(), lag, maxLag);
+            }
+        }
+        if (!checked.equals(healthy)) {
+            logger.info("Здоровые реплики: {}", checked);
+        }
+        healthy = List.copyOf(checked);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PrimaryReads.isRequired()) {
+            return PRIMARY;
+        }
+        List<String> current = healthy;
+        if (current.isEmpty()) {
+            return PRIMARY;
+        }
+        return current.get((int) Math.floorMod(Thread.currentThread().getId(), (long) current.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            return replicas.get(key).getConnection();
+        } catch (SQLException e) {
+            exclude(key, e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection(username, password);
+        }
+        try {
+            return replicas.get(key).getConnection(username, password);
+        } catch (SQLException e) {
+            exclude(key, e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    private Duration measureLag(String name, DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                double seconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+                return Duration.ofMillis((long) (Math.max(0, seconds) * 1000));
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Реплика {} недоступна: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void exclude(Object key, SQLException e) {
+        logger.warn("Не удалось получить соединение с репликой {}, запрос выполняется на основной базе: {}",
+                key, e.getMessage());
+        List<String> remaining = new ArrayList<>(healthy);
+        remaining.remove(key);
+        healthy = List.copyOf(remaining);
+    }
+}
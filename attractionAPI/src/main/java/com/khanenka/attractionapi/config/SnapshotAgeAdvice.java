@@ -0,0 +1,45 @@
+package com.khanenka.attractionapi.config;
+
+import com.khanenka.attractionapi.service.CatalogueSnapshotService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Добавляет заголовок {@link CatalogueSnapshotService#SNAPSHOT_AGE_HEADER} с возрастом снимка в секундах
+ * к ответам, которые были полностью или частично обслужены из снимка каталога, а не из базы.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "attractions.snapshot.enabled", havingValue = "true")
+public class SnapshotAgeAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(
+                CatalogueSnapshotService.SNAPSHOT_TAKEN_AT_ATTRIBUTE) instanceof Instant takenAt) {
+            long age = Math.max(0, Duration.between(takenAt, Instant.now()).toSeconds());
+            response.getHeaders().set(CatalogueSnapshotService.SNAPSHOT_AGE_HEADER, Long.toString(age));
+        }
+        return body;
+    }
+}
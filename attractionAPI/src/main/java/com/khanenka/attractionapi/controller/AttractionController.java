@@ -1,16 +1,42 @@
 package com.khanenka.attractionapi.controller;
 
 import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.dto.AttractionBatchDTO;
 import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionFilter;
+import com.khanenka.attractionapi.entity.dto.AttractionImportReportDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionNearbyHit;
+import com.khanenka.attractionapi.entity.dto.AttractionPageDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionSearchHit;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.DescriptionUpdateView;
 import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.exception.AttractionConflictException;
+import com.khanenka.attractionapi.exception.AttractionNotFoundException;
+import com.khanenka.attractionapi.exception.AttractionValidationException;
+import com.khanenka.attractionapi.exception.DescriptionUpdateNotFoundException;
+import com.khanenka.attractionapi.service.AttractionBatchService;
+import com.khanenka.attractionapi.service.AttractionExportService;
+import com.khanenka.attractionapi.service.AttractionImportService;
 import com.khanenka.attractionapi.service.AttractionService;
+import com.khanenka.attractionapi.service.DescriptionUpdateService;
+import com.khanenka.attractionapi.utility.ModelMapper;
+import com.khanenka.attractionapi.utility.VersionTag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Контроллер для управления достопримечательностями в приложении.
@@ -26,15 +52,31 @@ public class AttractionController {
 
 
     private final AttractionService attractionService;
+    private final AttractionBatchService attractionBatchService;
+    private final AttractionImportService attractionImportService;
+    private final AttractionExportService attractionExportService;
+    private final DescriptionUpdateService descriptionUpdateService;
 
     /**
-     * Конструктор контроллера, который инжектит сервис достопримечательностей.
+     * Конструктор контроллера, который инжектит сервисы достопримечательностей.
      *
-     * @param attractionService сервис для взаимодействия с достопримечательностями.
+     * @param attractionService        сервис для взаимодействия с достопримечательностями.
+     * @param attractionBatchService   сервис получения достопримечательностей по списку идентификаторов.
+     * @param attractionImportService  сервис массового импорта достопримечательностей.
+     * @param attractionExportService  сервис выгрузки каталога достопримечательностей.
+     * @param descriptionUpdateService сервис асинхронного обновления описаний.
      */
     @Autowired
-    public AttractionController(AttractionService attractionService) {
+    public AttractionController(AttractionService attractionService,
+                                AttractionBatchService attractionBatchService,
+                                AttractionImportService attractionImportService,
+                                AttractionExportService attractionExportService,
+                                DescriptionUpdateService descriptionUpdateService) {
         this.attractionService = attractionService;
+        this.attractionBatchService = attractionBatchService;
+        this.attractionImportService = attractionImportService;
+        this.attractionExportService = attractionExportService;
+        this.descriptionUpdateService = descriptionUpdateService;
     }
 
     /**
@@ -49,44 +91,202 @@ public class AttractionController {
     }
 
     /**
-     * Получает список достопримечательностей с возможностью фильтрации по типу и сортировки.
+     * Импортирует достопримечательности пакетно. Тело запроса читается потоково.
      *
-     * @param type   тип достопримечательностей (может быть null для получения всех).
-     * @param sortBy поле для сортировки (по умолчанию 'name').
-     * @return ResponseEntity со списком достопримечательностей и статусом HTTP 200 (ОК).
+     * @param body JSON-массив достопримечательностей или NDJSON (application/x-ndjson).
+     * @return ResponseEntity с отчетом по каждому элементу и статусом HTTP 200 (ОК).
+     * @throws IOException если тело запроса не удалось прочитать.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<AttractionImportReportDTO> importAttractions(InputStream body) throws IOException {
+        return new ResponseEntity<>(attractionImportService.importAttractions(body), HttpStatus.OK);
+    }
+
+    /**
+     * Выгружает каталог достопримечательностей в формате NDJSON. Ответ пишется в сеть по мере чтения из базы.
+     *
+     * @param type тип достопримечательности (необязательно; без него выгружается весь каталог).
+     * @return ResponseEntity с потоковым телом application/x-ndjson и статусом HTTP 200 (ОК).
+     */
+    @GetMapping(value = "/catalogue/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAttractions(@RequestParam(required = false) AttractionType type) {
+        StreamingResponseBody body = out -> attractionExportService.exportAttractions(type, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Получает список достопримечательностей с возможностью фильтрации и сортировки.
+     *
+     * @param filter параметры запроса: type (может отсутствовать для получения всех), sortBy (по умолчанию 'name'),
+     *               direction (asc или desc, по умолчанию asc), location, service и диапазон дат создания
+     *               dateFrom/dateTo (yyyy-MM-dd, включительно).
+     * @param request текущий запрос для проверки If-None-Match.
+     * @return ResponseEntity со списком достопримечательностей и статусом HTTP 200 (ОК)
+     * или null, если ответ 304 (Not Modified) уже сформирован.
      */
     @GetMapping
-    public ResponseEntity<List<Attraction>> getAttractions(
+    public ResponseEntity<List<AttractionView>> getAttractions(AttractionFilter filter, WebRequest request) {
+        AttractionsVersion version = attractionService.getAttractionsVersion(filter);
+        if (request.checkNotModified(version.etag(filter.toString()))) {
+            return null;
+        }
+        return new ResponseEntity<>(attractionService.getAttractions(filter), HttpStatus.OK);
+    }
+
+    /**
+     * Получает страницу достопримечательностей с фильтрацией и сортировкой.
+     * Следующая страница запрашивается с курсором из поля nextCursor предыдущего ответа.
+     *
+     * @param filter параметры фильтрации и сортировки, как у списка достопримечательностей.
+     * @param cursor курсор следующей страницы (отсутствует для первой страницы).
+     * @param limit  размер страницы.
+     * @return ResponseEntity со страницей достопримечательностей и статусом HTTP 200 (ОК).
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<AttractionPageDTO> getAttractionsPage(
+            AttractionFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limit) {
+        return new ResponseEntity<>(attractionService.getAttractionsPage(filter, cursor, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Получает достопримечательности по списку идентификаторов одним вызовом.
+     *
+     * @param ids идентификаторы через запятую (не более {@link AttractionBatchService#MAX_IDS}).
+     * @return ResponseEntity с найденными достопримечательностями в порядке запроса, списком ненайденных
+     * идентификаторов и статусом HTTP 200 (ОК).
+     */
+    @GetMapping("/catalogue/batch")
+    public ResponseEntity<AttractionBatchDTO> getAttractionsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(attractionBatchService.getAttractionsByIds(ids));
+    }
+
+    /**
+     * Ищет достопримечательности по словам из имени и описания.
+     *
+     * @param q        поисковая строка.
+     * @param type     тип достопримечательности (необязательно).
+     * @param location имя локации (необязательно).
+     * @param page     номер страницы, начиная с 0.
+     * @param size     размер страницы.
+     * @return ResponseEntity с найденными достопримечательностями по убыванию релевантности и статусом HTTP 200 (ОК).
+     */
+    @GetMapping("/catalogue/search")
+    public ResponseEntity<List<AttractionSearchHit>> searchAttractions(
+            @RequestParam String q,
+            @RequestParam(required = false) AttractionType type,
+            @RequestParam(required = false) String location,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return new ResponseEntity<>(attractionService.searchAttractions(q, type, location, page, size), HttpStatus.OK);
+    }
+
+    /**
+     * Находит достопримечательности рядом с заданной точкой.
+     *
+     * @param lat    широта точки в градусах.
+     * @param lon    долгота точки в градусах.
+     * @param radius радиус поиска в метрах (необязательно; без него возвращаются limit ближайших).
+     * @param type   тип достопримечательности (необязательно).
+     * @param limit  максимальное количество результатов.
+     * @return ResponseEntity с достопримечательностями по возрастанию расстояния и статусом HTTP 200 (ОК).
+     */
+    @GetMapping("/catalogue/nearby")
+    public ResponseEntity<List<AttractionNearbyHit>> getNearbyAttractions(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double radius,
             @RequestParam(required = false) AttractionType type,
-            @RequestParam(defaultValue = "name") String sortBy) {
-        return new ResponseEntity<>(attractionService.getAttractions(type, sortBy), HttpStatus.OK);
+            @RequestParam(defaultValue = "20") int limit) {
+        return new ResponseEntity<>(attractionService.findNearbyAttractions(lat, lon, radius, type, limit), HttpStatus.OK);
     }
 
     /**
      * Получает список достопримечательностей по имени локации.
      *
      * @param locationName имя локации для поиска достопримечательностей.
-     * @return ResponseEntity со списком достопримечательностей и статусом HTTP 200 (ОК).
+     * @param request      текущий запрос для проверки If-None-Match.
+     * @return ResponseEntity со списком достопримечательностей и статусом HTTP 200 (ОК)
+     * или null, если ответ 304 (Not Modified) уже сформирован.
      */
     @GetMapping("/{locationName}")
-    public ResponseEntity<List<Attraction>> getAttractionsByLocation(@PathVariable String locationName) {
+    public ResponseEntity<List<AttractionView>> getAttractionsByLocation(@PathVariable String locationName,
+                                                                         WebRequest request) {
+        AttractionsVersion version = attractionService.getAttractionsByLocationVersion(locationName);
+        if (request.checkNotModified(version.etag(locationName))) {
+            return null;
+        }
         return new ResponseEntity<>(attractionService.findAllAttractionByLocationName(locationName), HttpStatus.OK);
     }
 
     /**
-     * Обновляет краткое описание достопримечательностей по его идентификатору.
+     * Обновляет краткое описание достопримечательностей по его идентификатору без чтения сущности.
+     * С заголовком If-Match обновление выполняется, только если версия достопримечательности не изменилась.
      *
      * @param id          идентификатор достопримечательностей, который нужно обновить.
      * @param description новое краткое описание.
-     * @return ResponseEntity с обновленной достопримечательностью и статусом HTTP 200 (ОК) или статусом 404 (Не найден)
-     * если аттракцион не найден.
+     * @param ifMatch     версия достопримечательности, которую видел клиент (необязательно).
+     * @return ResponseEntity с обновленной достопримечательностью, новой версией в заголовке ETag и статусом
+     * HTTP 200 (ОК), статусом 404 (Не найден), если аттракцион не найден, или 409 (Conflict), если версия не совпала.
      */
     @PutMapping("/{id}/description")
-    public ResponseEntity<Attraction> updateShortDescription(@PathVariable Long id, @RequestBody String description) {
-        Optional<Attraction> updatedAttraction = attractionService.updateAttraction(id, description);
-        return updatedAttraction
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<AttractionDTO> updateShortDescription(@PathVariable Long id, @RequestBody String description,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                       String ifMatch) {
+        Long expectedVersion;
+        try {
+            expectedVersion = VersionTag.parse(ifMatch);
+        } catch (IllegalArgumentException e) {
+            throw new AttractionValidationException(e.getMessage());
+        }
+        Attraction updated = attractionService.updateAttraction(id, description, expectedVersion);
+        return ResponseEntity.ok()
+                .eTag(VersionTag.format(updated.getVersion()))
+                .body(ModelMapper.INSTANCE.entityToDetachedAttractionDto(updated));
+    }
+
+    /**
+     * Принимает обновление краткого описания для записи в фоне (заголовок Prefer: respond-async).
+     * Несколько обновлений одной достопримечательности до записи объединяются: записывается сделанное
+     * по самой новой версии из заголовка If-Match, при равных версиях - последнее. Версия проверяется при записи.
+     *
+     * @param id          идентификатор достопримечательности, который нужно обновить.
+     * @param description новое краткое описание.
+     * @param ifMatch     версия достопримечательности, которую видел клиент (необязательно).
+     * @return ResponseEntity с состоянием обновления, заголовком Location на адрес состояния
+     * и статусом HTTP 202 (Accepted) или статусом 503, если очередь обновлений заполнена.
+     */
+    @PutMapping(value = "/{id}/description", headers = "Prefer=respond-async")
+    public ResponseEntity<DescriptionUpdateView> updateShortDescriptionAsync(@PathVariable Long id,
+                                                                             @RequestBody String description,
+                                                                             @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                                                     required = false)
+                                                                             String ifMatch) {
+        Long expectedVersion;
+        try {
+            expectedVersion = VersionTag.parse(ifMatch);
+        } catch (IllegalArgumentException e) {
+            throw new AttractionValidationException(e.getMessage());
+        }
+        DescriptionUpdateView accepted = descriptionUpdateService.submit(id, description, expectedVersion);
+        URI status = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/attractions/description-updates/{ticket}")
+                .buildAndExpand(accepted.ticket())
+                .toUri();
+        return ResponseEntity.accepted().location(status).body(accepted);
+    }
+
+    /**
+     * Получает состояние асинхронного обновления описания.
+     *
+     * @param ticket идентификатор обновления из ответа 202.
+     * @return ResponseEntity с состоянием обновления и статусом HTTP 200 (ОК) или статусом 404 (Не найден),
+     * если обновление неизвестно или его состояние уже удалено.
+     */
+    @GetMapping("/description-updates/{ticket}")
+    public ResponseEntity<DescriptionUpdateView> getDescriptionUpdate(@PathVariable String ticket) {
+        return ResponseEntity.ok(descriptionUpdateService.getStatus(ticket));
     }
 
     /**
@@ -98,4 +298,48 @@ public class AttractionController {
     public void deleteAttraction(@PathVariable Long id) {
         attractionService.deleteAttraction(id);
     }
+
+    /**
+     * Обрабатывает исключения, связанные с валидацией достопримечательностей и параметров запроса.
+     *
+     * @param ex Исключение валидации достопримечательности.
+     * @return Объект ResponseEntity с сообщением об ошибке и статусом 400 (Bad Request).
+     */
+    @ExceptionHandler(AttractionValidationException.class)
+    public ResponseEntity<String> handleAttractionValidationException(AttractionValidationException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    /**
+     * Обрабатывает исключения, если асинхронное обновление описания не найдено.
+     *
+     * @param ex Исключение отсутствующего обновления.
+     * @return Объект ResponseEntity с сообщением об ошибке и статусом 404 (Not Found).
+     */
+    @ExceptionHandler(DescriptionUpdateNotFoundException.class)
+    public ResponseEntity<String> handleDescriptionUpdateNotFoundException(DescriptionUpdateNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    /**
+     * Обрабатывает исключения, если достопримечательность не найдена.
+     *
+     * @param ex Исключение отсутствующей достопримечательности.
+     * @return Объект ResponseEntity с сообщением об ошибке и статусом 404 (Not Found).
+     */
+    @ExceptionHandler(AttractionNotFoundException.class)
+    public ResponseEntity<String> handleAttractionNotFoundException(AttractionNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    /**
+     * Обрабатывает исключения, если достопримечательность изменена после чтения клиентом.
+     *
+     * @param ex Исключение конфликта версий достопримечательности.
+     * @return Объект ResponseEntity с сообщением об ошибке и статусом 409 (Conflict).
+     */
+    @ExceptionHandler(AttractionConflictException.class)
+    public ResponseEntity<String> handleAttractionConflictException(AttractionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
 }
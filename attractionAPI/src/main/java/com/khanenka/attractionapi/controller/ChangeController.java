@@ -0,0 +1,53 @@
+package com.khanenka.attractionapi.controller;
+
+import com.khanenka.attractionapi.entity.dto.ChangePageDTO;
+import com.khanenka.attractionapi.exception.ChangeValidationException;
+import com.khanenka.attractionapi.service.ChangeLogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Контроллер журнала изменений.
+ * Позволяет клиентам синхронизироваться инкрементально, запрашивая только изменения после известной позиции.
+ */
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+    private final ChangeLogService changeLogService;
+
+    /**
+     * Конструктор контроллера.
+     *
+     * @param changeLogService Сервис журнала изменений.
+     */
+    @Autowired
+    public ChangeController(ChangeLogService changeLogService) {
+        this.changeLogService = changeLogService;
+    }
+
+    /**
+     * Получает изменения достопримечательностей и локаций после заданного номера записи.
+     * Клиент передает в следующий запрос значение nextSince из ответа.
+     *
+     * @param since номер последней полученной записи (0 - с начала журнала).
+     * @param limit максимальное количество записей в ответе.
+     * @return ResponseEntity со страницей журнала и статусом HTTP 200 (ОК).
+     */
+    @GetMapping
+    public ResponseEntity<ChangePageDTO> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(changeLogService.getChanges(since, limit));
+    }
+
+    /**
+     * Обрабатывает исключения, связанные с некорректными параметрами запроса журнала.
+     *
+     * @param ex Исключение валидации параметров.
+     * @return Объект ResponseEntity с сообщением об ошибке и статусом 400 (Bad Request).
+     */
+    @ExceptionHandler(ChangeValidationException.class)
+    public ResponseEntity<String> handleChangeValidationException(ChangeValidationException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
@@ -2,16 +2,17 @@ package com.khanenka.attractionapi.controller;
 
 import com.khanenka.attractionapi.entity.Location;
 import com.khanenka.attractionapi.entity.dto.LocationDTO;
+import com.khanenka.attractionapi.exception.LocationConflictException;
 import com.khanenka.attractionapi.exception.LocationNotFoundException;
 import com.khanenka.attractionapi.exception.LocationValidationException;
 import com.khanenka.attractionapi.service.LocationService;
+import com.khanenka.attractionapi.utility.VersionTag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Optional;
-
 /**
  * Контроллер для управления местоположениями.
  * Предоставляет REST API для добавления и обновления местоположений.
@@ -44,22 +45,30 @@ public class LocationController {
     }
 
     /**
-     * Обновляет информацию о местоположении.
+     * Обновляет информацию о местоположении без чтения сущности.
+     * С заголовком If-Match обновление выполняется, только если версия местоположения не изменилась.
      *
      * @param id         Идентификатор местоположения, которое нужно обновить.
      * @param population Новое значение населения.
      * @param hasMetro   Указывает наличие метро в местоположении.
-     * @return Объект ResponseEntity с обновленным местоположением и статусом 200 (OK),
-     * или статусом 404 (Not Found), если местоположение не найдено.
+     * @param ifMatch    Версия местоположения, которую видел клиент (необязательно).
+     * @return Объект ResponseEntity с обновленным местоположением, новой версией в заголовке ETag и статусом 200 (OK),
+     * статусом 404 (Not Found), если местоположение не найдено, или 409 (Conflict), если версия не совпала.
      */
     @PutMapping("/{id}/population/has_metro")
     public ResponseEntity<Location> updateLocation(@PathVariable Long id,
                                                    @RequestBody Long population,
-                                                   @RequestBody Boolean hasMetro) {
-        Optional<Location> updateLocation = locationService.updateLocation(id, population, hasMetro);
-        return updateLocation
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                                                   @RequestBody Boolean hasMetro,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                   String ifMatch) {
+        Long expectedVersion;
+        try {
+            expectedVersion = VersionTag.parse(ifMatch);
+        } catch (IllegalArgumentException e) {
+            throw new LocationValidationException(e.getMessage());
+        }
+        Location updated = locationService.updateLocation(id, population, hasMetro, expectedVersion);
+        return ResponseEntity.ok().eTag(VersionTag.format(updated.getVersion())).body(updated);
     }
 
     /**
@@ -83,4 +92,15 @@ public class LocationController {
     public ResponseEntity<String> handleLocationNotFoundException(LocationNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
+
+    /**
+     * Обрабатывает исключения, возникающие, когда местоположение изменено после чтения клиентом.
+     *
+     * @param ex Исключение конфликта версий местоположения.
+     * @return Объект ResponseEntity с сообщением об ошибке и статусом 409 (Conflict).
+     */
+    @ExceptionHandler(LocationConflictException.class)
+    public ResponseEntity<String> handleLocationConflictException(LocationConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
 }
@@ -0,0 +1,39 @@
+package com.khanenka.attractionapi.controller;
+
+import com.khanenka.attractionapi.entity.dto.AttractionStatisticsDTO;
+import com.khanenka.attractionapi.service.AttractionStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Контроллер статистики.
+ * Отдает заранее посчитанные счетчики достопримечательностей и услуг для дашбордов.
+ */
+@RestController
+@RequestMapping("/statistics")
+public class StatisticsController {
+    private final AttractionStatisticsService attractionStatisticsService;
+
+    /**
+     * Конструктор контроллера.
+     *
+     * @param attractionStatisticsService Сервис статистики достопримечательностей.
+     */
+    @Autowired
+    public StatisticsController(AttractionStatisticsService attractionStatisticsService) {
+        this.attractionStatisticsService = attractionStatisticsService;
+    }
+
+    /**
+     * Получает количество достопримечательностей и услуг по типу, наличию метро, населению и локации.
+     *
+     * @return ResponseEntity со статистикой и статусом HTTP 200 (ОК).
+     */
+    @GetMapping
+    public ResponseEntity<AttractionStatisticsDTO> getStatistics() {
+        return ResponseEntity.ok(attractionStatisticsService.getStatistics());
+    }
+}
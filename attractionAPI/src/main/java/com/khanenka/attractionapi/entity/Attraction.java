@@ -1,14 +1,19 @@
 package com.khanenka.attractionapi.entity;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.khanenka.attractionapi.entity.enums.AttractionType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * Класс Attraction со свойствами <b>idAttraction</b>,<b>name</b>,<b>creationDate</b>,<b>description</b>,<b>type</b>,
- * <b>location</b>,<b>services</b>
+ * <b>location</b>,<b>services</b>,<b>latitude</b>,<b>longitude</b>,
+ * <b>version</b>,<b>updatedAt</b>
  *
  * @author Khanenka
  * *
@@ -17,6 +22,10 @@ import java.util.List;
 
 @Entity
 @Table(name = "attractions")
+@NamedEntityGraph(name = Attraction.GRAPH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("location"),
+        @NamedAttributeNode("services")
+})
 @Data
 @Getter
 @Setter
@@ -25,11 +34,21 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 public class Attraction {
+    /**
+     * Имя графа загрузки достопримечательности вместе с локацией и услугами
+     */
+    public static final String GRAPH_DETAILS = "Attraction.details";
+    /**
+     * Формат даты создания в JSON
+     */
+    public static final String CREATION_DATE_PATTERN = "dd.MM.yyyy";
+
     /**
      * Поле idAttraction класса Attraction
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attractions_seq")
+    @SequenceGenerator(name = "attractions_seq", sequenceName = "attractions_seq", allocationSize = 50)
     private Long idAttraction;
     /**
      * Поле name класса Attraction
@@ -38,14 +57,17 @@ public class Attraction {
     /**
      * Поле creationDate класса Attraction
      */
-    private String creationDate;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = CREATION_DATE_PATTERN)
+    private LocalDate creationDate;
     /**
      * Поле description класса Attraction
      */
     private String description;
 
     /**
-     * Поле type класса Attraction
+     * Поле type класса Attraction.
+     * В PostgreSQL таблица attractions секционирована по этому столбцу: новому значению
+     * {@link AttractionType} нужна своя секция, иначе строки попадают в секцию по умолчанию.
      */
     @Enumerated(EnumType.STRING)
     private AttractionType type;
@@ -62,4 +84,22 @@ public class Attraction {
      */
     @OneToMany(mappedBy = "attraction", cascade = CascadeType.ALL)
     private List<Service> services;
+    /**
+     * Поле latitude класса Attraction - широта в градусах (WGS 84)
+     */
+    private Double latitude;
+    /**
+     * Поле longitude класса Attraction - долгота в градусах (WGS 84)
+     */
+    private Double longitude;
+    /**
+     * Поле version класса Attraction - номер версии, увеличивается при каждом изменении
+     */
+    @Version
+    private Long version;
+    /**
+     * Поле updatedAt класса Attraction - время последнего изменения
+     */
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
@@ -0,0 +1,58 @@
+package com.khanenka.attractionapi.entity;
+
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * Класс ChangeLogEntry - запись журнала изменений со свойствами <b>seq</b>,<b>entityType</b>,
+ * <b>entityId</b>,<b>operation</b>,<b>changedAt</b>.
+ * Записи добавляются в той же транзакции, что и изменение сущности, и никогда не изменяются.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Entity
+@Table(name = "change_log")
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeLogEntry {
+    /**
+     * Поле seq класса ChangeLogEntry - возрастающий номер записи, позиция клиента в журнале
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+    /**
+     * Поле entityType класса ChangeLogEntry
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeEntityType entityType;
+    /**
+     * Поле entityId класса ChangeLogEntry - идентификатор измененной сущности
+     */
+    @Column(nullable = false)
+    private Long entityId;
+    /**
+     * Поле operation класса ChangeLogEntry
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeOperation operation;
+    /**
+     * Поле changedAt класса ChangeLogEntry - время записи изменения по часам базы данных.
+     * Заполняется значением по умолчанию столбца (в PostgreSQL - clock_timestamp()) в момент вставки.
+     */
+    @ColumnDefault("current_timestamp")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Instant changedAt;
+}
@@ -3,12 +3,15 @@ package com.khanenka.attractionapi.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
  * Класс Location со свойствами <b>idLocation</b>,<b>nameLocation</b>,<b>populationLocation</b>,
- * <b>hasMetro</b>,<b>attractions</b>,
+ * <b>hasMetro</b>,<b>attractions</b>,<b>latitude</b>,<b>longitude</b>,
+ * <b>version</b>,<b>updatedAt</b>
  *
  * @author Khanenka
  * * @version 1.0
@@ -27,7 +30,8 @@ public class Location {
      * Поле idLocation класса Location
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "locations_seq")
+    @SequenceGenerator(name = "locations_seq", sequenceName = "locations_seq", allocationSize = 50)
     private Long idLocation;
     /**
      * Поле nameLocation класса Location
@@ -47,4 +51,22 @@ public class Location {
     @OneToMany(mappedBy = "location", cascade = CascadeType.ALL)
     @JsonIgnore
     private List<Attraction> attractions;
+    /**
+     * Поле latitude класса Location - широта в градусах (WGS 84)
+     */
+    private Double latitude;
+    /**
+     * Поле longitude класса Location - долгота в градусах (WGS 84)
+     */
+    private Double longitude;
+    /**
+     * Поле version класса Location - номер версии, увеличивается при каждом изменении
+     */
+    @Version
+    private Long version;
+    /**
+     * Поле updatedAt класса Location - время последнего изменения
+     */
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
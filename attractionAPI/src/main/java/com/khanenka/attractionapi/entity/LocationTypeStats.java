@@ -0,0 +1,70 @@
+package com.khanenka.attractionapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Класс LocationTypeStats - агрегированные счетчики достопримечательностей одной локации и одного типа
+ * со свойствами <b>idLocation</b>,<b>attractionType</b>,<b>attractions</b>,<b>services</b>.
+ * Строки не пересчитываются по таблицам, а увеличиваются и уменьшаются сервисами в транзакции изменения,
+ * поэтому чтение статистики не зависит от количества достопримечательностей и услуг.
+ * Отсутствие локации хранится как {@link #NO_LOCATION}, отсутствие типа - как {@link #NO_TYPE}.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Entity
+@Table(name = "location_type_stats")
+@IdClass(LocationTypeStats.Key.class)
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class LocationTypeStats {
+    /**
+     * Значение idLocation для достопримечательностей без локации
+     */
+    public static final long NO_LOCATION = 0L;
+    /**
+     * Значение attractionType для достопримечательностей без типа
+     */
+    public static final String NO_TYPE = "";
+
+    /**
+     * Поле idLocation класса LocationTypeStats
+     */
+    @Id
+    private Long idLocation;
+    /**
+     * Поле attractionType класса LocationTypeStats - имя {@link com.khanenka.attractionapi.entity.enums.AttractionType}
+     */
+    @Id
+    private String attractionType;
+    /**
+     * Поле attractions класса LocationTypeStats - количество достопримечательностей
+     */
+    @Column(nullable = false)
+    private Long attractions;
+    /**
+     * Поле services класса LocationTypeStats - количество услуг этих достопримечательностей
+     */
+    @Column(nullable = false)
+    private Long services;
+
+    /**
+     * Составной ключ строки статистики.
+     */
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long idLocation;
+        private String attractionType;
+    }
+}
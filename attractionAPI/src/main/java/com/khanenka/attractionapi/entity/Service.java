@@ -1,5 +1,6 @@
 package com.khanenka.attractionapi.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -24,7 +25,8 @@ public class Service {
      * Поле idService класса Service
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "services_seq")
+    @SequenceGenerator(name = "services_seq", sequenceName = "services_seq", allocationSize = 50)
     private Long idService;
     /**
      * Поле name класса Service
@@ -39,5 +41,8 @@ public class Service {
      */
     @ManyToOne
     @JoinColumn(name = "id_attraction")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Attraction attraction;
 }
@@ -0,0 +1,28 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Класс AttractionBatchDTO со свойствами <b>attractions</b>,<b>missing</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AttractionBatchDTO {
+    /**
+     * Поле attractions класса AttractionBatchDTO - найденные достопримечательности в порядке запроса
+     */
+    private List<AttractionDTO> attractions;
+    /**
+     * Поле missing класса AttractionBatchDTO - запрошенные идентификаторы, для которых достопримечательность не найдена
+     */
+    private List<Long> missing;
+}
@@ -0,0 +1,41 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Запись AttractionCatalogueRow - строка достопримечательности с локацией и версиями для загрузки
+ * каталога в память. Версии и время изменения нужны, чтобы считать ETag списка без запроса к базе.
+ *
+ * @param idAttraction       идентификатор достопримечательности
+ * @param name               имя достопримечательности
+ * @param creationDate       дата создания
+ * @param description        описание
+ * @param type               тип достопримечательности
+ * @param version            версия достопримечательности
+ * @param updatedAt          время последнего изменения достопримечательности
+ * @param idLocation         идентификатор локации (null, если не задана)
+ * @param nameLocation       имя локации
+ * @param populationLocation население локации
+ * @param hasMetro           наличие метро в локации
+ * @param locationVersion    версия локации
+ * @param locationUpdatedAt  время последнего изменения локации
+ * @author Khanenka
+ * @version 1.0
+ */
+public record AttractionCatalogueRow(Long idAttraction,
+                                     String name,
+                                     LocalDate creationDate,
+                                     String description,
+                                     AttractionType type,
+                                     Long version,
+                                     Instant updatedAt,
+                                     Long idLocation,
+                                     String nameLocation,
+                                     Long populationLocation,
+                                     Boolean hasMetro,
+                                     Long locationVersion,
+                                     Instant locationUpdatedAt) {
+}
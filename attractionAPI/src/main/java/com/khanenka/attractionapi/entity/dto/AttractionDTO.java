@@ -1,16 +1,19 @@
 package com.khanenka.attractionapi.entity.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.khanenka.attractionapi.entity.Attraction;
 import com.khanenka.attractionapi.entity.Location;
 import com.khanenka.attractionapi.entity.Service;
 import com.khanenka.attractionapi.entity.enums.AttractionType;
 import lombok.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 
 /**
  * Класс AttractionDTO со свойствами <b>idAttraction</b>,<b>name</b>,<b>creationDate</b>,<b>description</b>,<b>type</b>,
- * <b>location</b>,<b>services</b>
+ * <b>location</b>,<b>services</b>,<b>latitude</b>,<b>longitude</b>
  *
  * @author Khanenka
  * *
@@ -37,7 +40,8 @@ public class AttractionDTO {
     /**
      * Поле creationDate класса AttractionDTO
      */
-    private String creationDate;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = Attraction.CREATION_DATE_PATTERN)
+    private LocalDate creationDate;
     /**
      * Поле description класса AttractionDTO
      */
@@ -54,4 +58,12 @@ public class AttractionDTO {
      * Поле services класса AttractionDTO
      */
     private List<Service> services;
+    /**
+     * Поле latitude класса AttractionDTO - широта в градусах (WGS 84)
+     */
+    private Double latitude;
+    /**
+     * Поле longitude класса AttractionDTO - долгота в градусах (WGS 84)
+     */
+    private Double longitude;
 }
@@ -0,0 +1,62 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Класс AttractionFilter - параметры запроса списка достопримечательностей со свойствами
+ * <b>type</b>,<b>sortBy</b>,<b>direction</b>,<b>location</b>,<b>service</b>,<b>dateFrom</b>,<b>dateTo</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AttractionFilter {
+    /**
+     * Поле type класса AttractionFilter - тип достопримечательности (null - все типы)
+     */
+    private AttractionType type;
+    /**
+     * Поле sortBy класса AttractionFilter - поле сортировки
+     */
+    private String sortBy = "name";
+    /**
+     * Поле direction класса AttractionFilter - направление сортировки (asc или desc)
+     */
+    private String direction = "asc";
+    /**
+     * Поле location класса AttractionFilter - имя локации (null - любая локация)
+     */
+    private String location;
+    /**
+     * Поле service класса AttractionFilter - имя услуги, которая должна быть у достопримечательности
+     */
+    private String service;
+    /**
+     * Поле dateFrom класса AttractionFilter - наименьшая дата создания включительно (yyyy-MM-dd)
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateFrom;
+    /**
+     * Поле dateTo класса AttractionFilter - наибольшая дата создания включительно (yyyy-MM-dd)
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dateTo;
+
+    /**
+     * @param type   тип достопримечательности
+     * @param sortBy поле сортировки
+     */
+    public AttractionFilter(AttractionType type, String sortBy) {
+        this.type = type;
+        this.sortBy = sortBy;
+    }
+}
@@ -0,0 +1,33 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Класс AttractionImportReportDTO со свойствами <b>imported</b>,<b>failed</b>,<b>results</b> -
+ * отчет о массовом импорте достопримечательностей
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AttractionImportReportDTO {
+    /**
+     * Поле imported класса AttractionImportReportDTO - количество сохраненных элементов
+     */
+    private int imported;
+    /**
+     * Поле failed класса AttractionImportReportDTO - количество отклоненных элементов
+     */
+    private int failed;
+    /**
+     * Поле results класса AttractionImportReportDTO - результаты по каждому элементу в порядке входных данных
+     */
+    private List<AttractionImportResultDTO> results;
+}
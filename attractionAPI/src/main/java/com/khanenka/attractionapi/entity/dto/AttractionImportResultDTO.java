@@ -0,0 +1,31 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import lombok.*;
+
+/**
+ * Класс AttractionImportResultDTO со свойствами <b>index</b>,<b>idAttraction</b>,<b>error</b> -
+ * результат импорта одного элемента
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AttractionImportResultDTO {
+    /**
+     * Поле index класса AttractionImportResultDTO - порядковый номер элемента во входных данных (с нуля)
+     */
+    private int index;
+    /**
+     * Поле idAttraction класса AttractionImportResultDTO - идентификатор созданной достопримечательности
+     */
+    private Long idAttraction;
+    /**
+     * Поле error класса AttractionImportResultDTO - причина отказа или null, если элемент сохранен
+     */
+    private String error;
+}
@@ -0,0 +1,27 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+
+/**
+ * Запись AttractionNearbyHit - достопримечательность рядом с заданной точкой и расстояние до нее.
+ *
+ * @param idAttraction идентификатор достопримечательности
+ * @param name         имя достопримечательности
+ * @param type         тип достопримечательности
+ * @param latitude     широта в градусах
+ * @param longitude    долгота в градусах
+ * @param idLocation   идентификатор локации (null, если локация не задана)
+ * @param nameLocation имя локации
+ * @param distance     расстояние до точки запроса в метрах
+ * @author Khanenka
+ * @version 1.0
+ */
+public record AttractionNearbyHit(Long idAttraction,
+                                  String name,
+                                  AttractionType type,
+                                  Double latitude,
+                                  Double longitude,
+                                  Long idLocation,
+                                  String nameLocation,
+                                  double distance) {
+}
@@ -0,0 +1,28 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Класс AttractionPageDTO со свойствами <b>content</b>,<b>nextCursor</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AttractionPageDTO {
+    /**
+     * Поле content класса AttractionPageDTO - достопримечательности текущей страницы
+     */
+    private List<AttractionView> content;
+    /**
+     * Поле nextCursor класса AttractionPageDTO - курсор следующей страницы или null, если страница последняя
+     */
+    private String nextCursor;
+}
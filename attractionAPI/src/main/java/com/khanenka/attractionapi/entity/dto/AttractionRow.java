@@ -0,0 +1,32 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+
+import java.time.LocalDate;
+
+/**
+ * Запись AttractionRow - плоская строка выборки достопримечательности вместе с колонками ее локации.
+ * Заполняется конструкторным выражением запроса, поэтому не отслеживается контекстом персистентности.
+ *
+ * @param idAttraction       идентификатор достопримечательности
+ * @param name               имя достопримечательности
+ * @param creationDate       дата создания
+ * @param description        описание
+ * @param type               тип достопримечательности
+ * @param idLocation         идентификатор локации (null, если локация не задана)
+ * @param nameLocation       имя локации
+ * @param populationLocation население локации
+ * @param hasMetro           наличие метро в локации
+ * @author Khanenka
+ * @version 1.0
+ */
+public record AttractionRow(Long idAttraction,
+                            String name,
+                            LocalDate creationDate,
+                            String description,
+                            AttractionType type,
+                            Long idLocation,
+                            String nameLocation,
+                            Long populationLocation,
+                            Boolean hasMetro) {
+}
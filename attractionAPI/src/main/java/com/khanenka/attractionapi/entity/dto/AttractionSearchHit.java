@@ -0,0 +1,25 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+
+/**
+ * Запись AttractionSearchHit - найденная полнотекстовым поиском достопримечательность и ее релевантность.
+ *
+ * @param idAttraction идентификатор достопримечательности
+ * @param name         имя достопримечательности
+ * @param description  описание
+ * @param type         тип достопримечательности
+ * @param idLocation   идентификатор локации (null, если локация не задана)
+ * @param nameLocation имя локации
+ * @param rank         релевантность (ts_rank), чем больше, тем выше в выдаче
+ * @author Khanenka
+ * @version 1.0
+ */
+public record AttractionSearchHit(Long idAttraction,
+                                  String name,
+                                  String description,
+                                  AttractionType type,
+                                  Long idLocation,
+                                  String nameLocation,
+                                  float rank) {
+}
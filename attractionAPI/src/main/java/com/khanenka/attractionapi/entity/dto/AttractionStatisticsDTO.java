@@ -0,0 +1,45 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Класс AttractionStatisticsDTO со свойствами <b>attractions</b>,<b>services</b>,<b>byType</b>,
+ * <b>byMetro</b>,<b>byPopulation</b>,<b>byLocation</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AttractionStatisticsDTO {
+    /**
+     * Поле attractions класса AttractionStatisticsDTO - всего достопримечательностей
+     */
+    private long attractions;
+    /**
+     * Поле services класса AttractionStatisticsDTO - всего услуг
+     */
+    private long services;
+    /**
+     * Поле byType класса AttractionStatisticsDTO - счетчики по типу достопримечательности
+     */
+    private List<StatisticsCount> byType;
+    /**
+     * Поле byMetro класса AttractionStatisticsDTO - счетчики по наличию метро в локации
+     */
+    private List<StatisticsCount> byMetro;
+    /**
+     * Поле byPopulation класса AttractionStatisticsDTO - счетчики по диапазону населения локации
+     */
+    private List<StatisticsCount> byPopulation;
+    /**
+     * Поле byLocation класса AttractionStatisticsDTO - счетчики по локации и типу
+     */
+    private List<LocationTypeCount> byLocation;
+}
@@ -0,0 +1,40 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+
+/**
+ * Запись AttractionStatsDelta - изменение счетчиков статистики для пары (локация, тип).
+ *
+ * @param idLocation  идентификатор локации (null - без локации)
+ * @param type        тип достопримечательности (null - без типа)
+ * @param attractions изменение количества достопримечательностей
+ * @param services    изменение количества услуг
+ * @author Khanenka
+ * @version 1.0
+ */
+public record AttractionStatsDelta(Long idLocation,
+                                   AttractionType type,
+                                   long attractions,
+                                   long services) {
+    /**
+     * Строит изменение счетчиков для новой достопримечательности.
+     *
+     * @param attraction созданная достопримечательность
+     * @return +1 достопримечательность и +количество ее услуг
+     */
+    public static AttractionStatsDelta created(Attraction attraction) {
+        return new AttractionStatsDelta(
+                attraction.getLocation() == null ? null : attraction.getLocation().getIdLocation(),
+                attraction.getType(),
+                1,
+                attraction.getServices() == null ? 0 : attraction.getServices().size());
+    }
+
+    /**
+     * @return изменение с противоположным знаком (для удаления)
+     */
+    public AttractionStatsDelta negate() {
+        return new AttractionStatsDelta(idLocation, type, -attractions, -services);
+    }
+}
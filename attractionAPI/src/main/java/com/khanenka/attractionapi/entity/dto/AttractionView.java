@@ -0,0 +1,32 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Запись AttractionView - неизменяемая модель чтения достопримечательности, которую отдают списочные эндпоинты.
+ * Повторяет JSON-представление сущности Attraction, но собирается из проекций без загрузки сущностей.
+ *
+ * @param idAttraction идентификатор достопримечательности
+ * @param name         имя достопримечательности
+ * @param creationDate дата создания
+ * @param description  описание
+ * @param type         тип достопримечательности
+ * @param location     локация (null, если не задана)
+ * @param services     услуги достопримечательности
+ * @author Khanenka
+ * @version 1.0
+ */
+public record AttractionView(Long idAttraction,
+                             String name,
+                             @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = Attraction.CREATION_DATE_PATTERN)
+                             LocalDate creationDate,
+                             String description,
+                             AttractionType type,
+                             LocationView location,
+                             List<ServiceView> services) {
+}
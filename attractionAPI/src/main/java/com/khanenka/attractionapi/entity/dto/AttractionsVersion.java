@@ -0,0 +1,42 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Запись AttractionsVersion - агрегированная версия набора достопримечательностей для условного GET.
+ * Вычисляется одним агрегирующим запросом без загрузки строк: любое добавление, удаление или изменение
+ * достопримечательности (или ее локации) меняет количество, сумму идентификаторов или сумму версий.
+ * Время последнего изменения берется по существующим строкам и не сдвигается при удалении, поэтому
+ * оно входит только в ETag и не отдается в Last-Modified.
+ *
+ * @param count              количество достопримечательностей
+ * @param idSum              сумма идентификаторов достопримечательностей
+ * @param versionSum         сумма версий достопримечательностей
+ * @param updatedAt          время последнего изменения достопримечательности
+ * @param locationVersionSum сумма версий локаций по строкам набора
+ * @param locationUpdatedAt  время последнего изменения локации
+ * @author Khanenka
+ * @version 1.0
+ */
+public record AttractionsVersion(Long count,
+                                 Long idSum,
+                                 Long versionSum,
+                                 Instant updatedAt,
+                                 Long locationVersionSum,
+                                 Instant locationUpdatedAt) {
+
+    /**
+     * Строит строгий ETag представления набора.
+     *
+     * @param variant параметры, от которых зависит представление (фильтр, сортировка)
+     * @return значение ETag без кавычек
+     */
+    public String etag(String variant) {
+        String raw = variant + '|' + count + '|' + idSum + '|' + versionSum + '|' + updatedAt
+                + '|' + locationVersionSum + '|' + locationUpdatedAt;
+        return DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,32 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Класс ChangePageDTO со свойствами <b>changes</b>,<b>nextSince</b>,<b>hasMore</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ChangePageDTO {
+    /**
+     * Поле changes класса ChangePageDTO - записи журнала по возрастанию номера
+     */
+    private List<ChangeView> changes;
+    /**
+     * Поле nextSince класса ChangePageDTO - значение since для следующего запроса
+     */
+    private Long nextSince;
+    /**
+     * Поле hasMore класса ChangePageDTO - true, если за этой страницей уже есть записи
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,24 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+
+import java.time.Instant;
+
+/**
+ * Запись ChangeView - запись журнала изменений, отдаваемая клиенту.
+ *
+ * @param seq        номер записи в журнале
+ * @param entityType вид измененной сущности
+ * @param entityId   идентификатор измененной сущности
+ * @param operation  операция над сущностью
+ * @param changedAt  время изменения
+ * @author Khanenka
+ * @version 1.0
+ */
+public record ChangeView(Long seq,
+                         ChangeEntityType entityType,
+                         Long entityId,
+                         ChangeOperation operation,
+                         Instant changedAt) {
+}
@@ -0,0 +1,21 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.enums.DescriptionUpdateStatus;
+
+/**
+ * Запись DescriptionUpdateView - состояние асинхронного обновления описания, отдаваемое клиенту.
+ *
+ * @param ticket       идентификатор принятого обновления
+ * @param idAttraction идентификатор достопримечательности
+ * @param status       состояние обновления
+ * @param version      версия достопримечательности после записи (null, пока обновление не записано)
+ * @param message      причина отказа для NOT_FOUND и FAILED (иначе null)
+ * @author Khanenka
+ * @version 1.0
+ */
+public record DescriptionUpdateView(String ticket,
+                                    Long idAttraction,
+                                    DescriptionUpdateStatus status,
+                                    Long version,
+                                    String message) {
+}
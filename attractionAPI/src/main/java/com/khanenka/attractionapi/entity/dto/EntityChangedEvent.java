@@ -0,0 +1,18 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+
+/**
+ * Запись EntityChangedEvent - событие изменения сущности, публикуемое сервисами внутри транзакции изменения.
+ *
+ * @param entityType вид сущности
+ * @param entityId   идентификатор сущности
+ * @param operation  операция над сущностью
+ * @author Khanenka
+ * @version 1.0
+ */
+public record EntityChangedEvent(ChangeEntityType entityType,
+                                 Long entityId,
+                                 ChangeOperation operation) {
+}
@@ -7,7 +7,7 @@ import java.util.List;
 
 /**
  * Класс LocationDTO со свойствами <b>idLocation</b>,<b>nameLocation</b>,<b>populationLocation</b>,
- * <b>hasMetro</b>,<b>attractions</b>,
+ * <b>hasMetro</b>,<b>attractions</b>,<b>latitude</b>,<b>longitude</b>
  *
  * @author Khanenka
  * * @version 1.0
@@ -41,4 +41,12 @@ public class LocationDTO {
      * Поле attractions класса LocationDTO
      */
     private List<Attraction> attractions;
+    /**
+     * Поле latitude класса LocationDTO - широта в градусах (WGS 84)
+     */
+    private Double latitude;
+    /**
+     * Поле longitude класса LocationDTO - долгота в градусах (WGS 84)
+     */
+    private Double longitude;
 }
@@ -0,0 +1,21 @@
+package com.khanenka.attractionapi.entity.dto;
+
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+
+/**
+ * Запись LocationTypeCount - счетчики достопримечательностей одного типа в одной локации.
+ *
+ * @param idLocation   идентификатор локации (null - без локации)
+ * @param nameLocation имя локации
+ * @param type         тип достопримечательности (null - без типа)
+ * @param attractions  количество достопримечательностей
+ * @param services     количество услуг
+ * @author Khanenka
+ * @version 1.0
+ */
+public record LocationTypeCount(Long idLocation,
+                                String nameLocation,
+                                AttractionType type,
+                                long attractions,
+                                long services) {
+}
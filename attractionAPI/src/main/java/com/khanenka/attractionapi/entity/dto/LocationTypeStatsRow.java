@@ -0,0 +1,23 @@
+package com.khanenka.attractionapi.entity.dto;
+
+/**
+ * Запись LocationTypeStatsRow - строка статистики вместе с колонками ее локации.
+ *
+ * @param idLocation         идентификатор локации (0 - без локации)
+ * @param attractionType     имя типа достопримечательности (пустая строка - без типа)
+ * @param attractions        количество достопримечательностей
+ * @param services           количество услуг
+ * @param nameLocation       имя локации
+ * @param populationLocation население локации
+ * @param hasMetro           наличие метро в локации
+ * @author Khanenka
+ * @version 1.0
+ */
+public record LocationTypeStatsRow(Long idLocation,
+                                   String attractionType,
+                                   Long attractions,
+                                   Long services,
+                                   String nameLocation,
+                                   Long populationLocation,
+                                   Boolean hasMetro) {
+}
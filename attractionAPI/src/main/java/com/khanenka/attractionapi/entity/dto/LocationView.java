@@ -0,0 +1,17 @@
+package com.khanenka.attractionapi.entity.dto;
+
+/**
+ * Запись LocationView - неизменяемая модель чтения локации внутри {@link AttractionView}.
+ *
+ * @param idLocation         идентификатор локации
+ * @param nameLocation       имя локации
+ * @param populationLocation население локации
+ * @param hasMetro           наличие метро
+ * @author Khanenka
+ * @version 1.0
+ */
+public record LocationView(Long idLocation,
+                           String nameLocation,
+                           Long populationLocation,
+                           Boolean hasMetro) {
+}
@@ -0,0 +1,17 @@
+package com.khanenka.attractionapi.entity.dto;
+
+/**
+ * Запись ServiceRow - плоская строка выборки услуги с идентификатором ее достопримечательности.
+ *
+ * @param idAttraction идентификатор достопримечательности
+ * @param idService    идентификатор услуги
+ * @param name         имя услуги
+ * @param description  описание услуги
+ * @author Khanenka
+ * @version 1.0
+ */
+public record ServiceRow(Long idAttraction,
+                         Long idService,
+                         String name,
+                         String description) {
+}
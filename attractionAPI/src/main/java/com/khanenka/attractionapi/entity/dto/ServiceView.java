@@ -0,0 +1,15 @@
+package com.khanenka.attractionapi.entity.dto;
+
+/**
+ * Запись ServiceView - неизменяемая модель чтения услуги внутри {@link AttractionView}.
+ *
+ * @param idService   идентификатор услуги
+ * @param name        имя услуги
+ * @param description описание услуги
+ * @author Khanenka
+ * @version 1.0
+ */
+public record ServiceView(Long idService,
+                          String name,
+                          String description) {
+}
@@ -0,0 +1,15 @@
+package com.khanenka.attractionapi.entity.dto;
+
+/**
+ * Запись StatisticsCount - счетчики одной группы статистики.
+ *
+ * @param key         значение группы (тип, наличие метро или диапазон населения; null - не задано)
+ * @param attractions количество достопримечательностей
+ * @param services    количество услуг
+ * @author Khanenka
+ * @version 1.0
+ */
+public record StatisticsCount(String key,
+                              long attractions,
+                              long services) {
+}
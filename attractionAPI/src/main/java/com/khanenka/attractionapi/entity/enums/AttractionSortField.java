@@ -0,0 +1,69 @@
+package com.khanenka.attractionapi.entity.enums;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ENUM AttractionSortField - допустимые значения параметра <b>sortBy</b>:
+ * <b>name</b>,<b>id</b>,<b>description</b>,<b>date</b>,<b>location</b>,<b>service</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+public enum AttractionSortField {
+    /**
+     * сортировка по имени
+     */
+    NAME("name"),
+    /**
+     * сортировка по идентификатору
+     */
+    ID("id"),
+    /**
+     * сортировка по описанию
+     */
+    DESCRIPTION("description"),
+    /**
+     * сортировка по дате создания
+     */
+    DATE("date"),
+    /**
+     * сортировка по идентификатору локации
+     */
+    LOCATION("location"),
+    /**
+     * сортировка по наименьшему идентификатору услуги
+     */
+    SERVICE("service");
+
+    private static final Map<String, AttractionSortField> BY_PARAM = new HashMap<>();
+
+    static {
+        for (AttractionSortField field : values()) {
+            BY_PARAM.put(field.param, field);
+        }
+    }
+
+    /**
+     * значение параметра sortBy в запросе
+     */
+    private final String param;
+
+    AttractionSortField(String param) {
+        this.param = param;
+    }
+
+    /**
+     * Находит поле сортировки по значению параметра sortBy.
+     *
+     * @param param значение параметра sortBy
+     * @return поле сортировки или пустой Optional, если значение не поддерживается
+     */
+    public static Optional<AttractionSortField> fromParam(String param) {
+        return Optional.ofNullable(BY_PARAM.get(param));
+    }
+}
@@ -0,0 +1,19 @@
+package com.khanenka.attractionapi.entity.enums;
+
+/**
+ * ENUM ChangeEntityType - вид измененной сущности в журнале изменений:
+ * <b>ATTRACTION</b>,<b>LOCATION</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public enum ChangeEntityType {
+    /**
+     * достопримечательность
+     */
+    ATTRACTION,
+    /**
+     * локация
+     */
+    LOCATION
+}
@@ -0,0 +1,23 @@
+package com.khanenka.attractionapi.entity.enums;
+
+/**
+ * ENUM ChangeOperation - операция над сущностью в журнале изменений:
+ * <b>CREATE</b>,<b>UPDATE</b>,<b>DELETE</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public enum ChangeOperation {
+    /**
+     * сущность создана
+     */
+    CREATE,
+    /**
+     * сущность изменена
+     */
+    UPDATE,
+    /**
+     * сущность удалена
+     */
+    DELETE
+}
@@ -0,0 +1,35 @@
+package com.khanenka.attractionapi.entity.enums;
+
+/**
+ * ENUM DescriptionUpdateStatus - состояние асинхронного обновления описания достопримечательности:
+ * <b>PENDING</b>,<b>APPLIED</b>,<b>SUPERSEDED</b>,<b>CONFLICT</b>,<b>NOT_FOUND</b>,<b>FAILED</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public enum DescriptionUpdateStatus {
+    /**
+     * обновление принято и ожидает записи в базу
+     */
+    PENDING,
+    /**
+     * описание записано в базу
+     */
+    APPLIED,
+    /**
+     * до записи обновление заменено более поздним обновлением той же достопримечательности
+     */
+    SUPERSEDED,
+    /**
+     * версия достопримечательности к моменту записи не совпала с версией, по которой сделано обновление
+     */
+    CONFLICT,
+    /**
+     * достопримечательность не найдена к моменту записи
+     */
+    NOT_FOUND,
+    /**
+     * запись завершилась ошибкой
+     */
+    FAILED
+}
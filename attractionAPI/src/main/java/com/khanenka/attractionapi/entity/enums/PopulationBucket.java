@@ -0,0 +1,50 @@
+package com.khanenka.attractionapi.entity.enums;
+
+/**
+ * ENUM PopulationBucket - диапазоны населения локации для статистики:
+ * <b>UNKNOWN</b>,<b>UNDER_100K</b>,<b>FROM_100K_TO_500K</b>,<b>FROM_500K_TO_1M</b>,<b>OVER_1M</b>
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public enum PopulationBucket {
+    /**
+     * локация не задана или население неизвестно
+     */
+    UNKNOWN,
+    /**
+     * меньше 100 000
+     */
+    UNDER_100K,
+    /**
+     * от 100 000 до 500 000
+     */
+    FROM_100K_TO_500K,
+    /**
+     * от 500 000 до 1 000 000
+     */
+    FROM_500K_TO_1M,
+    /**
+     * 1 000 000 и больше
+     */
+    OVER_1M;
+
+    /**
+     * Определяет диапазон для населения локации.
+     *
+     * @param population население (может быть null)
+     * @return диапазон населения
+     */
+    public static PopulationBucket of(Long population) {
+        if (population == null) {
+            return UNKNOWN;
+        }
+        if (population < 100_000) {
+            return UNDER_100K;
+        }
+        if (population < 500_000) {
+            return FROM_100K_TO_500K;
+        }
+        return population < 1_000_000 ? FROM_500K_TO_1M : OVER_1M;
+    }
+}
@@ -0,0 +1,13 @@
+package com.khanenka.attractionapi.exception;
+
+/**
+ * обработка исключений, если достопримечательность изменена после чтения клиентом (версия не совпала с If-Match).
+ */
+public class AttractionConflictException extends RuntimeException {
+    /**
+     * @param message метод для вызова исключения с кастомным сообщением.
+     */
+    public AttractionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.khanenka.attractionapi.exception;
+
+/**
+ * исключение на некорректные параметры запроса журнала изменений.
+ */
+public class ChangeValidationException extends RuntimeException {
+    /**
+     * @param message метод для вызова исключения с кастомным сообщением.
+     */
+    public ChangeValidationException(String message) {
+        super(message);
+    }
+}
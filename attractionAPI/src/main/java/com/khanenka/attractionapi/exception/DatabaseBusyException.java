@@ -0,0 +1,17 @@
+package com.khanenka.attractionapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * обработка исключений, если все разрешения на обращение к базе данных заняты дольше допустимого.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DatabaseBusyException extends RuntimeException {
+    /**
+     * @param message метод для вызова исключения с кастомным сообщением.
+     */
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.khanenka.attractionapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * обработка исключений, если очередь асинхронных обновлений описаний заполнена.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DescriptionQueueFullException extends RuntimeException {
+    /**
+     * @param message метод для вызова исключения с кастомным сообщением.
+     */
+    public DescriptionQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.khanenka.attractionapi.exception;
+
+/**
+ * обработка исключений, если асинхронное обновление описания неизвестно или его состояние уже удалено.
+ */
+public class DescriptionUpdateNotFoundException extends RuntimeException {
+    /**
+     * @param message метод для вызова исключения с кастомным сообщением.
+     */
+    public DescriptionUpdateNotFoundException(String message) {
+        super(message);
+    }
+}
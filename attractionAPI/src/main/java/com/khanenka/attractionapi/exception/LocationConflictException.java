@@ -0,0 +1,13 @@
+package com.khanenka.attractionapi.exception;
+
+/**
+ * обработка исключений, если локация изменена после чтения клиентом (версия не совпала с If-Match).
+ */
+public class LocationConflictException extends RuntimeException {
+    /**
+     * @param message метод для вызова исключения с кастомным сообщением.
+     */
+    public LocationConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,67 @@
+package com.khanenka.attractionapi.repository;
+
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+
+/**
+ * Класс AttractionQuery - проверенные условия выборки достопримечательностей со свойствами
+ * <b>type</b>,<b>sortField</b>,<b>direction</b>,<b>locationName</b>,<b>serviceName</b>,
+ * <b>dateFrom</b>,<b>dateTo</b>.
+ * Значение null у фильтра означает отсутствие ограничения.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class AttractionQuery {
+    /**
+     * тип достопримечательности
+     */
+    private final AttractionType type;
+    /**
+     * поле сортировки
+     */
+    private final AttractionSortField sortField;
+    /**
+     * направление сортировки
+     */
+    private final Sort.Direction direction;
+    /**
+     * имя локации
+     */
+    private final String locationName;
+    /**
+     * имя услуги
+     */
+    private final String serviceName;
+    /**
+     * наименьшая дата создания включительно
+     */
+    private final LocalDate dateFrom;
+    /**
+     * наибольшая дата создания включительно
+     */
+    private final LocalDate dateTo;
+
+    /**
+     * @param type         тип достопримечательности
+     * @param sortField    поле сортировки
+     * @param direction    направление сортировки
+     * @param locationName имя локации
+     * @param serviceName  имя услуги
+     */
+    public AttractionQuery(AttractionType type, AttractionSortField sortField, Sort.Direction direction,
+                           String locationName, String serviceName) {
+        this(type, sortField, direction, locationName, serviceName, null, null);
+    }
+}
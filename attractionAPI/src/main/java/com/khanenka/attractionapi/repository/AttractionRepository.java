@@ -1,72 +1,227 @@
 package com.khanenka.attractionapi.repository;
 
 import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.dto.AttractionCatalogueRow;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.AttractionStatsDelta;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
 import com.khanenka.attractionapi.entity.enums.AttractionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с сущностями типа {@link Attraction}.
  * Этот интерфейс расширяет {@link JpaRepository} и предоставляет методы
  * для выполнения CRUD-операций и поиска объектов attractions по различным критериям.
+ * Выборка списков с фильтрацией и сортировкой описана в {@link AttractionRepositoryCustom}.
  */
 @Repository
-public interface AttractionRepository extends JpaRepository<Attraction, Long> {
+public interface AttractionRepository extends JpaRepository<Attraction, Long>, AttractionRepositoryCustom {
     /**
-     * находит все достопримечательности определенного типа и сортирует их по имени.
+     * количество строк, которое драйвер получает из базы за одно обращение при потоковой выборке
+     */
+    String STREAM_FETCH_SIZE = "500";
+    /**
+     * выборка строк каталога для модели чтения в памяти; условие и порядок дописываются в запросах
+     */
+    String CATALOGUE_ROW_SELECT = "select new com.khanenka.attractionapi.entity.dto.AttractionCatalogueRow("
+            + "a.idAttraction, a.name, a.creationDate, a.description, a.type, a.version, a.updatedAt, "
+            + "l.idLocation, l.nameLocation, l.populationLocation, l.hasMetro, l.version, l.updatedAt) "
+            + "from Attraction a left join a.location l ";
+
+    /**
+     * находит все достопримечательности определенного типа и сортирует их по locationName.
+     * Локация и услуги загружаются тем же запросом.
      *
-     * @param type поиск по типу достопримечательности
-     * @return список достопримечательностей определенного типа, отсортированный по имени
+     * @param locationName поиск по локации
+     * @return список достопримечательностей , отсортированный по location.
      */
-    List<Attraction> findAllByTypeOrderByName(AttractionType type);
+    @EntityGraph(Attraction.GRAPH_DETAILS)
+    List<Attraction> findByLocation_NameLocation(String locationName);
 
     /**
-     * находит все достопримечательности определенного типа и сортирует их по имени.
+     * находит достопримечательности по списку идентификаторов одним запросом.
+     * Локация и услуги загружаются тем же запросом.
      *
-     * @param type поиск по типу достопримечательности
-     * @return список достопримечательностей определенного типа, отсортированный по типу description
+     * @param ids идентификаторы достопримечательностей
+     * @return найденные достопримечательности в произвольном порядке
      */
-    List<Attraction> findAllByTypeOrderByDescription(AttractionType type);
+    @EntityGraph(Attraction.GRAPH_DETAILS)
+    List<Attraction> findByIdAttractionIn(Collection<Long> ids);
 
     /**
-     * находит все достопримечательности определенного типа и сортирует их по имени.
+     * находит строки достопримечательностей локации без загрузки сущностей.
      *
-     * @param type поиск по типу достопримечательности
-     * @return список достопримечательностей определенного типа, отсортированный по CreationDate
+     * @param locationName имя локации
+     * @return строки достопримечательностей, отсортированные по идентификатору
      */
-    List<Attraction> findAllByTypeOrderByCreationDate(AttractionType type);
+    @Query("select new com.khanenka.attractionapi.entity.dto.AttractionRow("
+            + "a.idAttraction, a.name, a.creationDate, a.description, a.type, "
+            + "l.idLocation, l.nameLocation, l.populationLocation, l.hasMetro) "
+            + "from Attraction a join a.location l "
+            + "where l.nameLocation = :locationName order by a.idAttraction")
+    List<AttractionRow> findRowsByLocationName(@Param("locationName") String locationName);
 
     /**
-     * находит все достопримечательности определенного типа и сортирует их по Location.
+     * находит строки услуг всех достопримечательностей локации.
      *
-     * @param type поиск по типу достопримечательности
-     * @return список достопримечательностей определенного типа, отсортированный по Location
+     * @param locationName имя локации
+     * @return строки услуг, отсортированные по идентификатору услуги
      */
-    List<Attraction> findAllByTypeOrderByLocation(AttractionType type);
+    @Query("select new com.khanenka.attractionapi.entity.dto.ServiceRow("
+            + "a.idAttraction, s.idService, s.name, s.description) "
+            + "from Service s join s.attraction a join a.location l "
+            + "where l.nameLocation = :locationName order by s.idService")
+    List<ServiceRow> findServiceRowsByLocationName(@Param("locationName") String locationName);
 
     /**
-     * находит все достопримечательности определенного типа и сортирует их по service.
+     * находит строки услуг переданных достопримечательностей.
      *
-     * @param type поиск по типу достопримечательности
-     * @return список достопримечательностей определенного типа, отсортированный по Services
+     * @param ids идентификаторы достопримечательностей
+     * @return строки услуг, отсортированные по идентификатору услуги
      */
-    List<Attraction> findAllByTypeOrderByServices(AttractionType type);
+    @Query("select new com.khanenka.attractionapi.entity.dto.ServiceRow("
+            + "s.attraction.idAttraction, s.idService, s.name, s.description) "
+            + "from Service s where s.attraction.idAttraction in :ids order by s.idService")
+    List<ServiceRow> findServiceRowsByAttractionIds(@Param("ids") Collection<Long> ids);
 
     /**
-     * находит все достопримечательности определенного типа и сортирует их по id.
+     * находит вклад достопримечательности в статистику: ее локацию, тип и количество услуг.
      *
-     * @param type поиск по типу достопримечательности
-     * @return список достопримечательностей определенного типа, отсортированный по id
+     * @param idAttraction идентификатор достопримечательности
+     * @return вклад в статистику или пустой Optional, если достопримечательность не найдена
      */
-    List<Attraction> findAllByTypeOrderByIdAttraction(AttractionType type);
+    @Query("select new com.khanenka.attractionapi.entity.dto.AttractionStatsDelta("
+            + "l.idLocation, a.type, 1L, count(s)) "
+            + "from Attraction a left join a.location l left join a.services s "
+            + "where a.idAttraction = :idAttraction group by a.idAttraction, l.idLocation, a.type")
+    Optional<AttractionStatsDelta> findStatsDeltaById(@Param("idAttraction") Long idAttraction);
 
     /**
-     * находит все достопримечательности определенного типа и сортирует их по locationName.
+     * выбирает строки всех достопримечательностей (или одного типа) потоком по возрастанию идентификатора.
+     * Драйвер читает результат порциями по {@link #STREAM_FETCH_SIZE} строк, поэтому вызов должен
+     * выполняться в транзакции, а поток - закрываться после чтения.
      *
-     * @param locationName поиск по локации
-     * @return список достопримечательностей , отсортированный по location.
+     * @param type тип достопримечательности (null - все типы)
+     * @return поток строк достопримечательностей
      */
-    List<Attraction> findByLocation_NameLocation(String locationName);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.khanenka.attractionapi.entity.dto.AttractionRow("
+            + "a.idAttraction, a.name, a.creationDate, a.description, a.type, "
+            + "l.idLocation, l.nameLocation, l.populationLocation, l.hasMetro) "
+            + "from Attraction a left join a.location l "
+            + "where :type is null or a.type = :type order by a.idAttraction")
+    Stream<AttractionRow> streamRows(@Param("type") AttractionType type);
+
+    /**
+     * обновляет описание одним UPDATE без чтения сущности и увеличивает версию.
+     * Если версия передана, строка обновляется только при ее совпадении (оптимистическая блокировка).
+     *
+     * @param idAttraction идентификатор достопримечательности
+     * @param description  новое описание
+     * @param version      ожидаемая текущая версия (null - без проверки версии)
+     * @param updatedAt    время изменения
+     * @return количество обновленных строк: 0, если достопримечательность не найдена или версия не совпала
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Attraction a set a.description = :description, a.version = a.version + 1, a.updatedAt = :updatedAt "
+            + "where a.idAttraction = :idAttraction and (:version is null or a.version = :version)")
+    int updateDescription(@Param("idAttraction") Long idAttraction,
+                          @Param("description") String description,
+                          @Param("version") Long version,
+                          @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * находит достопримечательность вместе с локацией и услугами одним запросом.
+     *
+     * @param idAttraction идентификатор достопримечательности
+     * @return достопримечательность или пустой Optional, если она не найдена
+     */
+    @EntityGraph(Attraction.GRAPH_DETAILS)
+    Optional<Attraction> findWithDetailsByIdAttraction(Long idAttraction);
+
+    /**
+     * находит текущую версию достопримечательности без загрузки сущности.
+     *
+     * @param idAttraction идентификатор достопримечательности
+     * @return версия или пустой Optional, если достопримечательность не найдена
+     */
+    @Query("select a.version from Attraction a where a.idAttraction = :idAttraction")
+    Optional<Long> findVersionById(@Param("idAttraction") Long idAttraction);
+
+    /**
+     * выбирает строки каталога всех достопримечательностей потоком по возрастанию идентификатора.
+     * Вызов должен выполняться в транзакции, а поток - закрываться после чтения.
+     *
+     * @return поток строк каталога
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(CATALOGUE_ROW_SELECT + "order by a.idAttraction")
+    Stream<AttractionCatalogueRow> streamCatalogueRows();
+
+    /**
+     * выбирает услуги всех достопримечательностей потоком.
+     * Вызов должен выполняться в транзакции, а поток - закрываться после чтения.
+     *
+     * @return поток строк услуг по возрастанию идентификатора услуги
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.khanenka.attractionapi.entity.dto.ServiceRow("
+            + "s.attraction.idAttraction, s.idService, s.name, s.description) "
+            + "from Service s order by s.idService")
+    Stream<ServiceRow> streamServiceRows();
+
+    /**
+     * находит строки каталога переданных достопримечательностей.
+     *
+     * @param ids идентификаторы достопримечательностей
+     * @return строки каталога существующих достопримечательностей
+     */
+    @Query(CATALOGUE_ROW_SELECT + "where a.idAttraction in :ids")
+    List<AttractionCatalogueRow> findCatalogueRowsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * находит строки каталога всех достопримечательностей переданных локаций.
+     *
+     * @param locationIds идентификаторы локаций
+     * @return строки каталога достопримечательностей этих локаций
+     */
+    @Query(CATALOGUE_ROW_SELECT + "where l.idLocation in :locationIds")
+    List<AttractionCatalogueRow> findCatalogueRowsByLocationIds(@Param("locationIds") Collection<Long> locationIds);
+
+    /**
+     * находит правила сравнения строк столбцов имени и описания достопримечательностей (только PostgreSQL 15+).
+     * Для столбца без собственного правила возвращается правило базы данных, если его задает libc;
+     * для базы с правилами ICU или builtin возвращается пустая строка.
+     *
+     * @return правила сравнения строк столбцов name и description
+     */
+    @Query(value = "select distinct cast(coalesce(c.collation_name, "
+            + "case when d.datlocprovider = 'c' then d.datcollate end, '') as text) "
+            + "from information_schema.columns c join pg_database d on d.datname = current_database() "
+            + "where c.table_schema = current_schema() and c.table_name = 'attractions' "
+            + "and c.column_name in ('name', 'description')", nativeQuery = true)
+    List<String> findTextCollations();
 }
@@ -0,0 +1,80 @@
+package com.khanenka.attractionapi.repository;
+
+import com.khanenka.attractionapi.entity.dto.AttractionNearbyHit;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.AttractionSearchHit;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.utility.AttractionCursor;
+
+import java.util.List;
+
+/**
+ * Дополнительные методы {@link AttractionRepository}, которые не выражаются через derived queries.
+ * Методы только читают данные и возвращают проекции, а не управляемые сущности.
+ */
+public interface AttractionRepositoryCustom {
+    /**
+     * находит все достопримечательности, удовлетворяющие условиям выборки.
+     *
+     * @param attractionQuery условия фильтрации и сортировки
+     * @return строки достопримечательностей, отсортированные по полю сортировки и идентификатору
+     */
+    List<AttractionRow> findRowsByQuery(AttractionQuery attractionQuery);
+
+    /**
+     * находит страницу достопримечательностей, следующих за курсором, без использования OFFSET.
+     *
+     * @param attractionQuery условия фильтрации и сортировки
+     * @param after           курсор последней выданной записи (null - первая страница)
+     * @param limit           максимальное количество записей
+     * @return строки достопримечательностей, отсортированные по полю сортировки и идентификатору
+     */
+    List<AttractionRow> findRowPageByQuery(AttractionQuery attractionQuery, AttractionCursor after, int limit);
+
+    /**
+     * вычисляет агрегированную версию достопримечательностей, удовлетворяющих условиям выборки,
+     * одним агрегирующим запросом. Сортировка условий не влияет на результат.
+     *
+     * @param attractionQuery условия фильтрации
+     * @return количество, суммы идентификаторов и версий, время последнего изменения
+     */
+    AttractionsVersion findVersionByQuery(AttractionQuery attractionQuery);
+
+    /**
+     * находит услуги всех достопримечательностей, удовлетворяющих условиям выборки.
+     * Сортировка и курсор условий не влияют на результат.
+     *
+     * @param attractionQuery условия фильтрации
+     * @return строки услуг, отсортированные по идентификатору услуги
+     */
+    List<ServiceRow> findServiceRowsByQuery(AttractionQuery attractionQuery);
+
+    /**
+     * выполняет полнотекстовый поиск по имени и описанию достопримечательностей (PostgreSQL).
+     *
+     * @param text         поисковая строка в синтаксисе websearch_to_tsquery
+     * @param type         тип достопримечательности (null - любой)
+     * @param locationName имя локации (null - любая)
+     * @param offset       количество пропускаемых результатов
+     * @param limit        максимальное количество результатов
+     * @return найденные достопримечательности по убыванию релевантности, затем по идентификатору
+     */
+    List<AttractionSearchHit> searchByText(String text, AttractionType type, String locationName, int offset, int limit);
+
+    /**
+     * находит ближайшие к точке достопримечательности с заданными координатами.
+     * В PostgreSQL запрос обслуживается GiST-индексом earthdistance, в остальных базах
+     * (H2 в тестах) кандидаты отбираются прямоугольником координат и сортируются в памяти.
+     *
+     * @param latitude     широта точки в градусах
+     * @param longitude    долгота точки в градусах
+     * @param radiusMeters радиус поиска в метрах (null - без ограничения, k ближайших)
+     * @param type         тип достопримечательности (null - любой)
+     * @param limit        максимальное количество результатов
+     * @return достопримечательности по возрастанию расстояния, затем по идентификатору
+     */
+    List<AttractionNearbyHit> findNearby(double latitude, double longitude, Double radiusMeters,
+                                         AttractionType type, int limit);
+}
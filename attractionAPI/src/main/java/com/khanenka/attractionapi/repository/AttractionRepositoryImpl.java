@@ -0,0 +1,386 @@
+package com.khanenka.attractionapi.repository;
+
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.Service;
+import com.khanenka.attractionapi.entity.dto.AttractionNearbyHit;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.AttractionSearchHit;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.utility.AttractionCursor;
+import com.khanenka.attractionapi.utility.GeoDistance;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Реализация {@link AttractionRepositoryCustom} на Criteria API.
+ * Все варианты выборки списка строятся одним запросом из {@link AttractionQuery}:
+ * фильтры по типу, диапазону дат создания, локации и услуге, затем сортировка (ключ, idAttraction).
+ * Фильтр по типу и датам обслуживается индексом (type, creation_date, id_attraction).
+ * Постраничная выборка добавляет seek-предикат по этой паре, поэтому стоимость запроса
+ * не зависит от номера страницы. Значения null в ключе сортировки считаются наибольшими
+ * (NULLS LAST при ASC, NULLS FIRST при DESC), что совпадает с порядком индексов PostgreSQL.
+ * Запросы выбирают только колонки моделей чтения ({@link AttractionRow}, {@link ServiceRow}),
+ * поэтому сущности не загружаются в контекст персистентности.
+ * Полнотекстовый поиск выполняется нативным запросом по колонке search_vector (GIN-индекс PostgreSQL),
+ * поиск ближайших - нативным запросом earthdistance (GiST-индекс) или, вне PostgreSQL, в памяти.
+ */
+@Transactional(readOnly = true)
+public class AttractionRepositoryImpl implements AttractionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AttractionRow> findRowsByQuery(AttractionQuery attractionQuery) {
+        return createRowQuery(attractionQuery, null).getResultList();
+    }
+
+    @Override
+    public List<AttractionRow> findRowPageByQuery(AttractionQuery attractionQuery, AttractionCursor after, int limit) {
+        return createRowQuery(attractionQuery, after)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public AttractionsVersion findVersionByQuery(AttractionQuery attractionQuery) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<AttractionsVersion> query = cb.createQuery(AttractionsVersion.class);
+        Root<Attraction> root = query.from(Attraction.class);
+        Join<Attraction, Location> location = root.join("location", JoinType.LEFT);
+        Path<Instant> updatedAt = root.get("updatedAt");
+        Path<Instant> locationUpdatedAt = location.get("updatedAt");
+        query.select(cb.construct(AttractionsVersion.class,
+                        cb.count(root),
+                        cb.sum(root.<Long>get("idAttraction")),
+                        cb.sum(root.<Long>get("version")),
+                        cb.greatest(updatedAt),
+                        cb.sum(location.<Long>get("version")),
+                        cb.greatest(locationUpdatedAt)))
+                .where(filterPredicates(cb, query, root, location, attractionQuery).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<ServiceRow> findServiceRowsByQuery(AttractionQuery attractionQuery) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<ServiceRow> query = cb.createQuery(ServiceRow.class);
+        Root<Service> service = query.from(Service.class);
+        Join<Service, Attraction> attraction = service.join("attraction");
+        Join<Attraction, Location> location = attractionQuery.getLocationName() == null
+                ? null
+                : attraction.join("location");
+        query.select(cb.construct(ServiceRow.class,
+                        attraction.get("idAttraction"),
+                        service.get("idService"),
+                        service.get("name"),
+                        service.get("description")))
+                .where(filterPredicates(cb, query, attraction, location, attractionQuery).toArray(new Predicate[0]))
+                .orderBy(cb.asc(service.get("idService")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<AttractionSearchHit> searchByText(String text, AttractionType type, String locationName,
+                                                  int offset, int limit) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT a.id_attraction, a.name, a.description, a.type, l.id_location, l.name_location,
+                       ts_rank(a.search_vector, q) AS rank
+                FROM attractions a
+                LEFT JOIN locations l ON l.id_location = a.id_location
+                CROSS JOIN websearch_to_tsquery('simple', :text) q
+                WHERE a.search_vector @@ q
+                """);
+        if (type != null) {
+            sql.append(" AND a.type = :type");
+        }
+        if (locationName != null) {
+            sql.append(" AND l.name_location = :locationName");
+        }
+        sql.append(" ORDER BY rank DESC, a.id_attraction LIMIT :limit OFFSET :offset");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("text", text)
+                .setParameter("limit", limit)
+                .setParameter("offset", offset);
+        if (type != null) {
+            query.setParameter("type", type.name());
+        }
+        if (locationName != null) {
+            query.setParameter("locationName", locationName);
+        }
+        List<Object[]> rows = query.getResultList();
+        List<AttractionSearchHit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            hits.add(new AttractionSearchHit(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    (String) row[2],
+                    row[3] == null ? null : AttractionType.valueOf((String) row[3]),
+                    row[4] == null ? null : ((Number) row[4]).longValue(),
+                    (String) row[5],
+                    ((Number) row[6]).floatValue()));
+        }
+        return hits;
+    }
+
+    @Override
+    public List<AttractionNearbyHit> findNearby(double latitude, double longitude, Double radiusMeters,
+                                                AttractionType type, int limit) {
+        Object dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        return dialect instanceof PostgreSQLDialect
+                ? findNearbyByEarthIndex(latitude, longitude, radiusMeters, type, limit)
+                : findNearbyInMemory(latitude, longitude, radiusMeters, type, limit);
+    }
+
+    /**
+     * Радиус отбирается через earth_box (использует GiST-индекс) с точной проверкой earth_distance,
+     * порядок - KNN-оператор куба {@code <->}, монотонный относительно расстояния по поверхности.
+     */
+    @SuppressWarnings("unchecked")
+    private List<AttractionNearbyHit> findNearbyByEarthIndex(double latitude, double longitude, Double radiusMeters,
+                                                             AttractionType type, int limit) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT a.id_attraction, a.name, a.type, a.latitude, a.longitude, l.id_location, l.name_location,
+                       earth_distance(ll_to_earth(:latitude, :longitude), ll_to_earth(a.latitude, a.longitude))
+                FROM attractions a
+                LEFT JOIN locations l ON l.id_location = a.id_location
+                WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL
+                """);
+        if (radiusMeters != null) {
+            sql.append(" AND earth_box(ll_to_earth(:latitude, :longitude), :radius) @> ll_to_earth(a.latitude, a.longitude)")
+                    .append(" AND earth_distance(ll_to_earth(:latitude, :longitude), ll_to_earth(a.latitude, a.longitude)) <= :radius");
+        }
+        if (type != null) {
+            sql.append(" AND a.type = :type");
+        }
+        sql.append(" ORDER BY ll_to_earth(a.latitude, a.longitude) <-> ll_to_earth(:latitude, :longitude), a.id_attraction")
+                .append(" LIMIT :limit");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("latitude", latitude)
+                .setParameter("longitude", longitude)
+                .setParameter("limit", limit);
+        if (radiusMeters != null) {
+            query.setParameter("radius", radiusMeters);
+        }
+        if (type != null) {
+            query.setParameter("type", type.name());
+        }
+        List<Object[]> rows = query.getResultList();
+        List<AttractionNearbyHit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            hits.add(new AttractionNearbyHit(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    row[2] == null ? null : AttractionType.valueOf((String) row[2]),
+                    ((Number) row[3]).doubleValue(),
+                    ((Number) row[4]).doubleValue(),
+                    row[5] == null ? null : ((Number) row[5]).longValue(),
+                    (String) row[6],
+                    ((Number) row[7]).doubleValue()));
+        }
+        return hits;
+    }
+
+    /**
+     * Запасной вариант для баз без earthdistance: кандидаты внутри прямоугольника координат
+     * выбираются запросом, точное расстояние и порядок считаются в памяти.
+     */
+    private List<AttractionNearbyHit> findNearbyInMemory(double latitude, double longitude, Double radiusMeters,
+                                                         AttractionType type, int limit) {
+        CriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Attraction> root = query.from(Attraction.class);
+        Join<Attraction, Location> location = root.join("location", JoinType.LEFT);
+        Path<Double> lat = root.get("latitude");
+        Path<Double> lon = root.get("longitude");
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isNotNull(lat));
+        predicates.add(cb.isNotNull(lon));
+        if (radiusMeters != null) {
+            double[] box = GeoDistance.boundingBox(latitude, longitude, radiusMeters);
+            predicates.add(cb.between(lat, box[0], box[1]));
+            predicates.add(cb.between(lon, box[2], box[3]));
+        }
+        if (type != null) {
+            predicates.add(cb.equal(root.get("type"), type));
+        }
+        query.multiselect(root.get("idAttraction"), root.get("name"), root.get("type"), lat, lon,
+                        location.get("idLocation"), location.get("nameLocation"))
+                .where(predicates.toArray(new Predicate[0]));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new AttractionNearbyHit((Long) row[0], (String) row[1], (AttractionType) row[2],
+                        (Double) row[3], (Double) row[4], (Long) row[5], (String) row[6],
+                        GeoDistance.distance(latitude, longitude, (Double) row[3], (Double) row[4])))
+                .filter(hit -> radiusMeters == null || hit.distance() <= radiusMeters)
+                .sorted(Comparator.comparingDouble(AttractionNearbyHit::distance)
+                        .thenComparing(AttractionNearbyHit::idAttraction))
+                .limit(limit)
+                .toList();
+    }
+
+    private TypedQuery<AttractionRow> createRowQuery(AttractionQuery attractionQuery, AttractionCursor after) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<AttractionRow> query = cb.createQuery(AttractionRow.class);
+        Root<Attraction> root = query.from(Attraction.class);
+        Join<Attraction, Location> location = root.join("location", JoinType.LEFT);
+        query.select(cb.construct(AttractionRow.class,
+                root.get("idAttraction"),
+                root.get("name"),
+                root.get("creationDate"),
+                root.get("description"),
+                root.get("type"),
+                location.get("idLocation"),
+                location.get("nameLocation"),
+                location.get("populationLocation"),
+                location.get("hasMetro")));
+        applyQuery(cb, query, root, location, attractionQuery, after);
+        return entityManager.createQuery(query);
+    }
+
+    private HibernateCriteriaBuilder criteriaBuilder() {
+        return entityManager.unwrap(Session.class).getCriteriaBuilder();
+    }
+
+    /**
+     * Добавляет к запросу фильтры, seek-предикат курсора и сортировку.
+     */
+    private void applyQuery(HibernateCriteriaBuilder cb, CriteriaQuery<?> query, Root<Attraction> root,
+                            Join<Attraction, Location> location, AttractionQuery attractionQuery,
+                            AttractionCursor after) {
+        Path<Long> id = root.get("idAttraction");
+        Expression<Comparable<Object>> key = sortKey(cb, query, root, attractionQuery.getSortField());
+        boolean descending = attractionQuery.getDirection() == Sort.Direction.DESC;
+
+        List<Predicate> predicates = filterPredicates(cb, query, root, location, attractionQuery);
+        if (after != null) {
+            predicates.add(descending
+                    ? seekDescending(cb, key, id, after)
+                    : seekAscending(cb, key, id, after));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        if (key == null) {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else if (descending) {
+            query.orderBy(cb.desc(key, true), cb.desc(id));
+        } else {
+            query.orderBy(cb.asc(key, false), cb.asc(id));
+        }
+    }
+
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, CriteriaQuery<?> query,
+                                             From<?, Attraction> attraction, Join<Attraction, Location> location,
+                                             AttractionQuery attractionQuery) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (attractionQuery.getType() != null) {
+            predicates.add(cb.equal(attraction.get("type"), attractionQuery.getType()));
+        }
+        if (attractionQuery.getDateFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(attraction.get("creationDate"), attractionQuery.getDateFrom()));
+        }
+        if (attractionQuery.getDateTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(attraction.get("creationDate"), attractionQuery.getDateTo()));
+        }
+        if (attractionQuery.getLocationName() != null) {
+            predicates.add(cb.equal(location.get("nameLocation"), attractionQuery.getLocationName()));
+        }
+        if (attractionQuery.getServiceName() != null) {
+            Subquery<Long> withService = query.subquery(Long.class);
+            Root<Service> service = withService.from(Service.class);
+            withService.select(service.get("idService"))
+                    .where(cb.equal(service.get("attraction"), attraction),
+                            cb.equal(service.get("name"), attractionQuery.getServiceName()));
+            predicates.add(cb.exists(withService));
+        }
+        return predicates;
+    }
+
+    /**
+     * Строит условие "строго после курсора" для порядка (key ASC NULLS LAST, id ASC).
+     */
+    @SuppressWarnings("unchecked")
+    private Predicate seekAscending(CriteriaBuilder cb, Expression<Comparable<Object>> key,
+                                    Path<Long> id, AttractionCursor after) {
+        Long lastId = after.getLastId();
+        if (key == null) {
+            return cb.greaterThan(id, lastId);
+        }
+        if (after.getLastKey() == null) {
+            return cb.and(cb.isNull(key), cb.greaterThan(id, lastId));
+        }
+        Comparable<Object> lastKey = (Comparable<Object>) after.getLastKey();
+        return cb.or(
+                cb.greaterThan(key, lastKey),
+                cb.and(cb.equal(key, lastKey), cb.greaterThan(id, lastId)),
+                cb.isNull(key));
+    }
+
+    /**
+     * Строит условие "строго после курсора" для порядка (key DESC NULLS FIRST, id DESC).
+     */
+    @SuppressWarnings("unchecked")
+    private Predicate seekDescending(CriteriaBuilder cb, Expression<Comparable<Object>> key,
+                                     Path<Long> id, AttractionCursor after) {
+        Long lastId = after.getLastId();
+        if (key == null) {
+            return cb.lessThan(id, lastId);
+        }
+        if (after.getLastKey() == null) {
+            return cb.or(
+                    cb.and(cb.isNull(key), cb.lessThan(id, lastId)),
+                    cb.isNotNull(key));
+        }
+        Comparable<Object> lastKey = (Comparable<Object>) after.getLastKey();
+        return cb.or(
+                cb.lessThan(key, lastKey),
+                cb.and(cb.equal(key, lastKey), cb.lessThan(id, lastId)));
+    }
+
+    /**
+     * Возвращает выражение ключа сортировки или null, если сортировка идет только по idAttraction.
+     */
+    @SuppressWarnings("unchecked")
+    private Expression<Comparable<Object>> sortKey(CriteriaBuilder cb, CriteriaQuery<?> query,
+                                                   Root<Attraction> root, AttractionSortField sortField) {
+        switch (sortField) {
+            case NAME:
+                return root.get("name");
+            case DESCRIPTION:
+                return root.get("description");
+            case DATE:
+                return root.get("creationDate");
+            case LOCATION:
+                return root.get("location").get("idLocation");
+            case SERVICE:
+                Subquery<Long> minService = query.subquery(Long.class);
+                Root<Service> service = minService.from(Service.class);
+                minService.select(cb.min(service.get("idService")))
+                        .where(cb.equal(service.get("attraction"), root));
+                return (Expression<Comparable<Object>>) (Expression<?>) minService;
+            default:
+                return null;
+        }
+    }
+}
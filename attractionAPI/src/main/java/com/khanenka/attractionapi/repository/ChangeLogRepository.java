@@ -0,0 +1,33 @@
+package com.khanenka.attractionapi.repository;
+
+import com.khanenka.attractionapi.entity.ChangeLogEntry;
+import com.khanenka.attractionapi.entity.dto.ChangeView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Репозиторий для работы с журналом изменений {@link ChangeLogEntry}.
+ */
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+    /**
+     * находит записи журнала после заданного номера.
+     *
+     * @param seq   номер последней полученной клиентом записи
+     * @param limit максимальное количество записей
+     * @return записи по возрастанию номера
+     */
+    List<ChangeView> findBySeqGreaterThanOrderBySeqAsc(Long seq, Limit limit);
+
+    /**
+     * находит номер последней записи журнала.
+     *
+     * @return номер записи (0, если журнал пуст)
+     */
+    @Query("select coalesce(max(c.seq), 0) from ChangeLogEntry c")
+    long findLastSeq();
+}
@@ -2,8 +2,14 @@ package com.khanenka.attractionapi.repository;
 
 import com.khanenka.attractionapi.entity.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Optional;
+
 /**
  * Репозиторий для работы с сущностями типа {@link Location}.
  * Этот интерфейс расширяет {@link JpaRepository} и предоставляет методы
@@ -11,4 +17,33 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface LocationRepository extends JpaRepository<Location, Long> {
+    /**
+     * обновляет население и наличие метро одним UPDATE без чтения сущности и увеличивает версию.
+     * Если версия передана, строка обновляется только при ее совпадении (оптимистическая блокировка).
+     *
+     * @param idLocation идентификатор локации
+     * @param population новое население
+     * @param hasMetro   новое наличие метро
+     * @param version    ожидаемая текущая версия (null - без проверки версии)
+     * @param updatedAt  время изменения
+     * @return количество обновленных строк: 0, если локация не найдена или версия не совпала
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Location l set l.populationLocation = :population, l.hasMetro = :hasMetro, "
+            + "l.version = l.version + 1, l.updatedAt = :updatedAt "
+            + "where l.idLocation = :idLocation and (:version is null or l.version = :version)")
+    int updatePopulationAndMetro(@Param("idLocation") Long idLocation,
+                                 @Param("population") Long population,
+                                 @Param("hasMetro") boolean hasMetro,
+                                 @Param("version") Long version,
+                                 @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * находит текущую версию локации без загрузки сущности.
+     *
+     * @param idLocation идентификатор локации
+     * @return версия или пустой Optional, если локация не найдена
+     */
+    @Query("select l.version from Location l where l.idLocation = :idLocation")
+    Optional<Long> findVersionById(@Param("idLocation") Long idLocation);
 }
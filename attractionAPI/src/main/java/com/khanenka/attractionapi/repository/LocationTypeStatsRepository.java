@@ -0,0 +1,29 @@
+package com.khanenka.attractionapi.repository;
+
+import com.khanenka.attractionapi.entity.LocationTypeStats;
+import com.khanenka.attractionapi.entity.dto.LocationTypeStatsRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Репозиторий агрегированной статистики {@link LocationTypeStats}.
+ * Изменение счетчиков описано в {@link LocationTypeStatsRepositoryCustom}.
+ */
+@Repository
+public interface LocationTypeStatsRepository
+        extends JpaRepository<LocationTypeStats, LocationTypeStats.Key>, LocationTypeStatsRepositoryCustom {
+    /**
+     * находит все непустые строки статистики вместе с колонками их локаций.
+     *
+     * @return строки статистики, отсортированные по локации и типу
+     */
+    @Query("select new com.khanenka.attractionapi.entity.dto.LocationTypeStatsRow("
+            + "s.idLocation, s.attractionType, s.attractions, s.services, "
+            + "l.nameLocation, l.populationLocation, l.hasMetro) "
+            + "from LocationTypeStats s left join Location l on l.idLocation = s.idLocation "
+            + "where s.attractions > 0 order by s.idLocation, s.attractionType")
+    List<LocationTypeStatsRow> findAllRows();
+}
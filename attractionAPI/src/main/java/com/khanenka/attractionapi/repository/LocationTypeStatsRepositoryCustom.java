@@ -0,0 +1,19 @@
+package com.khanenka.attractionapi.repository;
+
+import com.khanenka.attractionapi.entity.dto.AttractionStatsDelta;
+
+import java.util.Collection;
+
+/**
+ * Дополнительные методы {@link LocationTypeStatsRepository}.
+ */
+public interface LocationTypeStatsRepositoryCustom {
+    /**
+     * прибавляет изменения к счетчикам статистики, создавая недостающие строки.
+     * Изменения одной пары (локация, тип) складываются и применяются одной командой.
+     * Выполняется в текущей транзакции, поэтому счетчики меняются вместе с данными.
+     *
+     * @param deltas изменения счетчиков
+     */
+    void increment(Collection<AttractionStatsDelta> deltas);
+}
@@ -0,0 +1,79 @@
+package com.khanenka.attractionapi.repository;
+
+import com.khanenka.attractionapi.entity.LocationTypeStats;
+import com.khanenka.attractionapi.entity.dto.AttractionStatsDelta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Реализация {@link LocationTypeStatsRepositoryCustom}.
+ * Счетчики меняются атомарным upsert с прибавлением, без чтения строки в приложение,
+ * поэтому параллельные транзакции не теряют изменения друг друга.
+ * В PostgreSQL используется INSERT ... ON CONFLICT, в остальных базах (H2 в тестах) - MERGE.
+ */
+public class LocationTypeStatsRepositoryImpl implements LocationTypeStatsRepositoryCustom {
+
+    private static final String POSTGRESQL_UPSERT = """
+            INSERT INTO location_type_stats (id_location, attraction_type, attractions, services)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (id_location, attraction_type) DO UPDATE
+            SET attractions = location_type_stats.attractions + EXCLUDED.attractions,
+                services = location_type_stats.services + EXCLUDED.services
+            """;
+    private static final String MERGE_UPSERT = """
+            MERGE INTO location_type_stats t
+            USING (SELECT CAST(? AS BIGINT) AS id_location, CAST(? AS VARCHAR(32)) AS attraction_type,
+                          CAST(? AS BIGINT) AS attractions, CAST(? AS BIGINT) AS services) d
+            ON t.id_location = d.id_location AND t.attraction_type = d.attraction_type
+            WHEN MATCHED THEN UPDATE SET attractions = t.attractions + d.attractions,
+                                         services = t.services + d.services
+            WHEN NOT MATCHED THEN INSERT (id_location, attraction_type, attractions, services)
+                                  VALUES (d.id_location, d.attraction_type, d.attractions, d.services)
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void increment(Collection<AttractionStatsDelta> deltas) {
+        Map<LocationTypeStats.Key, long[]> totals = new LinkedHashMap<>();
+        for (AttractionStatsDelta delta : deltas) {
+            long[] total = totals.computeIfAbsent(new LocationTypeStats.Key(
+                    delta.idLocation() == null ? LocationTypeStats.NO_LOCATION : delta.idLocation(),
+                    delta.type() == null ? LocationTypeStats.NO_TYPE : delta.type().name()), key -> new long[2]);
+            total[0] += delta.attractions();
+            total[1] += delta.services();
+        }
+        totals.values().removeIf(total -> total[0] == 0 && total[1] == 0);
+        if (totals.isEmpty()) {
+            return;
+        }
+        String sql = dialect() instanceof PostgreSQLDialect ? POSTGRESQL_UPSERT : MERGE_UPSERT;
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Map.Entry<LocationTypeStats.Key, long[]> entry : totals.entrySet()) {
+                    statement.setLong(1, entry.getKey().getIdLocation());
+                    statement.setString(2, entry.getKey().getAttractionType());
+                    statement.setLong(3, entry.getValue()[0]);
+                    statement.setLong(4, entry.getValue()[1]);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private Dialect dialect() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+    }
+}
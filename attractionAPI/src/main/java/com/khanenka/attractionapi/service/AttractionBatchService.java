@@ -0,0 +1,118 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.config.CacheConfig;
+import com.khanenka.attractionapi.config.MetricsConfig;
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.dto.AttractionBatchDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.exception.AttractionValidationException;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import com.khanenka.attractionapi.utility.ModelMapper;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Сервис получения достопримечательностей по списку идентификаторов.
+ * Сначала идентификаторы ищутся в кэше {@link CacheConfig#ATTRACTION_BY_ID}, который заполняет и
+ * {@link AttractionService#getAttractionById}; остальные загружаются запросами WHERE id IN (...)
+ * порциями по {@link #IN_CHUNK_SIZE} вместе с локацией и услугами и кладутся в тот же кэш
+ * копиями, не связанными с сущностями JPA.
+ * Отсутствующие идентификаторы перечисляются в ответе, а не прерывают выборку исключением.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.99, 0.999}, histogram = true)
+public class AttractionBatchService {
+
+    /**
+     * максимальное количество идентификаторов в одном запросе
+     */
+    public static final int MAX_IDS = 200;
+    /**
+     * максимальное количество идентификаторов в одном условии IN
+     */
+    public static final int IN_CHUNK_SIZE = 100;
+    private static final Logger logger = LoggerFactory.getLogger(AttractionBatchService.class);
+
+    private final AttractionRepository attractionRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * Конструктор для инициализации сервиса.
+     *
+     * @param attractionRepository репозиторий достопримечательностей
+     * @param cacheManager         менеджер кэшей чтения достопримечательностей
+     */
+    @Autowired
+    public AttractionBatchService(AttractionRepository attractionRepository, CacheManager cacheManager) {
+        this.attractionRepository = attractionRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Получает достопримечательности по списку идентификаторов.
+     * Повторяющиеся идентификаторы учитываются один раз, в позиции первого вхождения.
+     *
+     * @param ids идентификаторы достопримечательностей
+     * @return найденные достопримечательности в порядке запроса и ненайденные идентификаторы
+     * @throws AttractionValidationException если список пуст, длиннее {@link #MAX_IDS} или содержит null
+     */
+    @Transactional(readOnly = true)
+    public AttractionBatchDTO getAttractionsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new AttractionValidationException("Параметр ids должен содержать от 1 до " + MAX_IDS + " идентификаторов");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new AttractionValidationException("Параметр ids не может содержать пустые значения");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        logger.info("Получение достопримечательностей по {} идентификаторам", requested.size());
+        Cache cache = cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID);
+        Map<Long, AttractionDTO> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : requested) {
+            AttractionDTO cached = cache != null ? cache.get(id, AttractionDTO.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        for (int from = 0; from < misses.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = misses.subList(from, Math.min(from + IN_CHUNK_SIZE, misses.size()));
+            for (Attraction attraction : attractionRepository.findByIdAttractionIn(chunk)) {
+                AttractionDTO dto = ModelMapper.INSTANCE.entityToDetachedAttractionDto(attraction);
+                found.put(attraction.getIdAttraction(), dto);
+                if (cache != null) {
+                    cache.put(attraction.getIdAttraction(), dto);
+                }
+            }
+        }
+        List<AttractionDTO> attractions = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            AttractionDTO dto = found.get(id);
+            if (dto != null) {
+                attractions.add(dto);
+            } else {
+                missing.add(id);
+            }
+        }
+        logger.info("Найдено достопримечательностей: {} (из кэша {}), не найдено: {}",
+                attractions.size(), requested.size() - misses.size(), missing.size());
+        return new AttractionBatchDTO(attractions, missing);
+    }
+}
@@ -0,0 +1,129 @@
+package com.khanenka.attractionapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.khanenka.attractionapi.config.MetricsConfig;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import com.khanenka.attractionapi.utility.ModelMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Сервис выгрузки каталога достопримечательностей в NDJSON (одна достопримечательность на строку).
+ * Строки читаются из базы потоком с fetch size в одной read-only транзакции и записываются
+ * в ответ порциями: для каждой порции услуги загружаются одним запросом, порция сериализуется
+ * и сбрасывается в сеть, после чего контекст персистентности очищается. Память не зависит от размера каталога.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.99, 0.999}, histogram = true)
+public class AttractionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttractionExportService.class);
+
+    private final AttractionRepository attractionRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter viewWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Конструктор для инициализации сервиса выгрузки.
+     *
+     * @param attractionRepository репозиторий достопримечательностей
+     * @param objectMapper         настроенный ObjectMapper приложения
+     * @param transactionManager   менеджер транзакций для read-only транзакции выгрузки
+     * @param chunkSize            количество достопримечательностей в одной порции записи
+     */
+    @Autowired
+    public AttractionExportService(AttractionRepository attractionRepository,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${attractions.export.chunk-size:500}") int chunkSize) {
+        this.attractionRepository = attractionRepository;
+        this.objectMapper = objectMapper;
+        this.viewWriter = objectMapper.writerFor(AttractionView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Выгружает достопримечательности в поток в формате NDJSON по возрастанию идентификатора.
+     *
+     * @param type тип достопримечательности (null - весь каталог)
+     * @param out  поток ответа; не закрывается
+     * @return количество выгруженных достопримечательностей
+     * @throws IOException если запись в поток не удалась (например, клиент отключился)
+     */
+    public long exportAttractions(AttractionType type, OutputStream out) throws IOException {
+        logger.info("Выгрузка достопримечательностей, type: {}", type);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Long exported = transactionTemplate.execute(status -> {
+                try (Stream<AttractionRow> rows = attractionRepository.streamRows(type)) {
+                    return writeChunks(rows.iterator(), generator);
+                }
+            });
+            logger.info("Выгружено достопримечательностей: {}", exported);
+            return exported;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeChunks(Iterator<AttractionRow> rows, JsonGenerator generator) {
+        List<AttractionRow> chunk = new ArrayList<>(chunkSize);
+        long exported = 0;
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == chunkSize || !rows.hasNext()) {
+                writeChunk(chunk, generator);
+                exported += chunk.size();
+                chunk.clear();
+            }
+        }
+        return exported;
+    }
+
+    private void writeChunk(List<AttractionRow> chunk, JsonGenerator generator) {
+        List<Long> ids = chunk.stream().map(AttractionRow::idAttraction).toList();
+        List<AttractionView> views = ModelMapper.INSTANCE.rowsToAttractionViews(
+                chunk, attractionRepository.findServiceRowsByAttractionIds(ids));
+        try {
+            for (AttractionView view : views) {
+                viewWriter.writeValue(generator, view);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        entityManager.clear();
+    }
+}
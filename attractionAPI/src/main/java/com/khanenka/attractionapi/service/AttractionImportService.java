@@ -0,0 +1,163 @@
+package com.khanenka.attractionapi.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.khanenka.attractionapi.config.CacheConfig;
+import com.khanenka.attractionapi.config.MetricsConfig;
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionImportReportDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionImportResultDTO;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.exception.AttractionValidationException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Сервис массового импорта достопримечательностей.
+ * Входные данные (JSON-массив или NDJSON) читаются потоково, без загрузки всего тела в память,
+ * и сохраняются пакетами: каждый пакет - отдельная транзакция с flush и очисткой контекста
+ * персистентности, поэтому вставки уходят в базу JDBC-батчами, а память не растет с размером импорта.
+ * Если пакет не удалось сохранить, его элементы повторяются по одному, чтобы отчет указал виновные записи.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.99, 0.999}, histogram = true)
+public class AttractionImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttractionImportService.class);
+
+    private final AttractionService attractionService;
+    private final ObjectReader attractionReader;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Конструктор для инициализации сервиса импорта.
+     *
+     * @param attractionService  сервис достопримечательностей, выполняющий проверку данных
+     * @param objectMapper       настроенный ObjectMapper приложения
+     * @param transactionManager менеджер транзакций для пакетов
+     * @param batchSize          количество элементов в одной транзакции
+     */
+    @Autowired
+    public AttractionImportService(AttractionService attractionService,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${attractions.import.batch-size:500}") int batchSize) {
+        this.attractionService = attractionService;
+        this.attractionReader = objectMapper.readerFor(AttractionDTO.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Импортирует достопримечательности из потока.
+     * Некорректные элементы не прерывают импорт и попадают в отчет с причиной отказа;
+     * синтаксическая ошибка JSON прекращает чтение, уже прочитанные элементы сохраняются.
+     *
+     * @param input JSON-массив достопримечательностей или NDJSON (по одной достопримечательности на строку)
+     * @return отчет с результатом по каждому элементу
+     * @throws IOException если поток не удалось прочитать
+     */
+    @CacheEvict(value = CacheConfig.ATTRACTIONS_BY_LOCATION, allEntries = true)
+    public AttractionImportReportDTO importAttractions(InputStream input) throws IOException {
+        List<AttractionImportResultDTO> results = new ArrayList<>();
+        List<PendingAttraction> batch = new ArrayList<>(batchSize);
+        int index = 0;
+        try (MappingIterator<AttractionDTO> iterator = attractionReader.readValues(input)) {
+            while (iterator.hasNextValue()) {
+                try {
+                    batch.add(new PendingAttraction(index, iterator.nextValue()));
+                } catch (JsonMappingException e) {
+                    results.add(failed(index, "Некорректные данные: " + e.getOriginalMessage()));
+                }
+                index++;
+                if (batch.size() >= batchSize) {
+                    saveBatch(batch, results);
+                }
+            }
+        } catch (JsonParseException e) {
+            results.add(failed(index, "Некорректный JSON: " + e.getOriginalMessage()));
+        }
+        saveBatch(batch, results);
+        results.sort(Comparator.comparingInt(AttractionImportResultDTO::getIndex));
+        int failed = (int) results.stream().filter(result -> result.getError() != null).count();
+        logger.info("Импортировано достопримечательностей: {}, отклонено: {}", results.size() - failed, failed);
+        return new AttractionImportReportDTO(results.size() - failed, failed, results);
+    }
+
+    /**
+     * Сохраняет пакет одной транзакцией, а при ошибке базы данных - каждый элемент отдельно.
+     */
+    private void saveBatch(List<PendingAttraction> batch, List<AttractionImportResultDTO> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            results.addAll(transactionTemplate.execute(status -> persistAll(batch)));
+        } catch (RuntimeException e) {
+            logger.warn("Пакет из {} достопримечательностей не сохранен, повтор по одной: {}",
+                    batch.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (PendingAttraction pending : batch) {
+                try {
+                    results.addAll(transactionTemplate.execute(status -> persistAll(List.of(pending))));
+                } catch (RuntimeException ex) {
+                    results.add(failed(pending.index(), NestedExceptionUtils.getMostSpecificCause(ex).getMessage()));
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private List<AttractionImportResultDTO> persistAll(List<PendingAttraction> batch) {
+        List<AttractionImportResultDTO> results = new ArrayList<>(batch.size());
+        List<Attraction> created = new ArrayList<>(batch.size());
+        for (PendingAttraction pending : batch) {
+            try {
+                Attraction attraction = attractionService.toNewAttraction(pending.attraction());
+                entityManager.persist(attraction);
+                created.add(attraction);
+                attractionService.publishChange(attraction.getIdAttraction(), ChangeOperation.CREATE);
+                results.add(new AttractionImportResultDTO(pending.index(), attraction.getIdAttraction(), null));
+            } catch (AttractionValidationException e) {
+                results.add(failed(pending.index(), e.getMessage()));
+            }
+        }
+        attractionService.countCreated(created);
+        entityManager.flush();
+        entityManager.clear();
+        return results;
+    }
+
+    private static AttractionImportResultDTO failed(int index, String error) {
+        return new AttractionImportResultDTO(index, null, error);
+    }
+
+    /**
+     * Прочитанный, но еще не сохраненный элемент импорта.
+     */
+    private record PendingAttraction(int index, AttractionDTO attraction) {
+    }
+}
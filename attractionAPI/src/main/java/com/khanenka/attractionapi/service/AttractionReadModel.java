@@ -0,0 +1,339 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.config.PrimaryReads;
+import com.khanenka.attractionapi.entity.dto.AttractionCatalogueRow;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.EntityChangedEvent;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.repository.AttractionQuery;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import com.khanenka.attractionapi.utility.AttractionCatalogue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Модель чтения каталога достопримечательностей в памяти ({@link AttractionCatalogue}).
+ * Включается свойством attractions.read-model.enabled. Каталог загружается целиком после старта
+ * приложения, а затем обновляется по событиям {@link EntityChangedEvent}, которые публикуют все пути
+ * изменения: идентификаторы, измененные в транзакции, собираются до коммита, после коммита
+ * их актуальные строки перечитываются и подменяются в новом снимке. Изменение локации перечитывает
+ * все ее достопримечательности.
+ * <p>
+ * Загрузка и обновления выполняются по очереди в одном фоновом потоке, поэтому каждое обновление
+ * читает базу не раньше предыдущего и более старое состояние не может затереть более новое.
+ * Читатели работают с неизменяемым снимком без блокировок; изменение становится видно в списках
+ * через несколько миллисекунд после коммита. Пока каталог не загружен, {@link #isLoaded()} возвращает false
+ * и сервисы читают из базы. Каталог всегда читается с основной базы ({@link PrimaryReads}), чтобы обновление
+ * после коммита не прочитало отстающую реплику.
+ * <p>
+ * Каталог сравнивает строки по кодам символов. При загрузке правила сравнения строк столбцов имени и описания
+ * проверяются по базе ({@link AttractionCatalogue#isCodePointCollation}); если они другие или не определены,
+ * списки с сортировкой по имени и описанию читаются из базы ({@link #sortsLikeDatabase}).
+ */
+@Service
+@ConditionalOnProperty(name = "attractions.read-model.enabled", havingValue = "true")
+public class AttractionReadModel {
+
+    private static final int IN_CHUNK_SIZE = 500;
+    private static final Logger logger = LoggerFactory.getLogger(AttractionReadModel.class);
+
+    private final AttractionRepository attractionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attraction-read-model");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile AttractionCatalogue catalogue;
+    private volatile boolean textSortsLikeDatabase;
+
+    /**
+     * Конструктор модели чтения.
+     *
+     * @param attractionRepository репозиторий достопримечательностей
+     * @param transactionManager   менеджер транзакций чтения каталога
+     * @param meterRegistry        реестр метрик для публикации размера каталога
+     */
+    @Autowired
+    public AttractionReadModel(AttractionRepository attractionRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.attractionRepository = attractionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        Gauge.builder("attractions.read-model.size", this, model -> model.catalogue == null ? 0 : model.catalogue.size())
+                .description("Достопримечательности в каталоге модели чтения")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ставит загрузку каталога в очередь фонового потока после старта приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresher.execute(this::load);
+    }
+
+    /**
+     * Останавливает фоновый поток.
+     */
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Запоминает измененную сущность до коммита текущей транзакции.
+     * После коммита обновление каталога ставится в очередь фонового потока.
+     *
+     * @param event событие изменения
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresher.execute(() -> refresh(entityIds(event, ChangeEntityType.ATTRACTION),
+                    entityIds(event, ChangeEntityType.LOCATION)));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingChanges changes = new PendingChanges(new HashSet<>(), new HashSet<>());
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresher.execute(() -> refresh(changes.attractionIds(), changes.locationIds()));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AttractionReadModel.this);
+                }
+            });
+            pending = changes;
+        }
+        if (event.entityType() == ChangeEntityType.ATTRACTION) {
+            pending.attractionIds().add(event.entityId());
+        } else {
+            pending.locationIds().add(event.entityId());
+        }
+    }
+
+    /**
+     * Ставит в очередь фонового потока обновление по изменениям, закоммиченным другим экземпляром приложения.
+     *
+     * @param attractionIds идентификаторы измененных достопримечательностей
+     * @param locationIds   идентификаторы измененных локаций
+     */
+    public void refreshLater(Set<Long> attractionIds, Set<Long> locationIds) {
+        refresher.execute(() -> refresh(attractionIds, locationIds));
+    }
+
+    /**
+     * Ставит в очередь фонового потока полную перезагрузку каталога,
+     * например после пропуска уведомлений об изменениях.
+     */
+    public void reloadLater() {
+        refresher.execute(this::load);
+    }
+
+    /**
+     * Проверяет, загружен ли каталог.
+     *
+     * @return true, если запросы можно обслуживать из памяти
+     */
+    public boolean isLoaded() {
+        return catalogue != null;
+    }
+
+    /**
+     * Проверяет, сортирует ли каталог по полю так же, как база.
+     *
+     * @param sortField поле сортировки
+     * @return false для имени и описания, если база сравнивает строки не по кодам символов или это не проверено
+     */
+    public boolean sortsLikeDatabase(AttractionSortField sortField) {
+        return textSortsLikeDatabase
+                || (sortField != AttractionSortField.NAME && sortField != AttractionSortField.DESCRIPTION);
+    }
+
+    /**
+     * Находит достопримечательности в каталоге.
+     *
+     * @param query условия фильтрации и сортировки
+     * @return модели чтения достопримечательностей в порядке сортировки
+     * @throws IllegalStateException если каталог еще не загружен
+     */
+    public List<AttractionView> find(AttractionQuery query) {
+        return current().find(query);
+    }
+
+    /**
+     * Вычисляет версию набора достопримечательностей по каталогу.
+     *
+     * @param query условия фильтрации
+     * @return агрегированная версия набора
+     * @throws IllegalStateException если каталог еще не загружен
+     */
+    public AttractionsVersion version(AttractionQuery query) {
+        return current().version(query);
+    }
+
+    /**
+     * Загружает каталог целиком.
+     */
+    public void load() {
+        long started = System.nanoTime();
+        try (PrimaryReads.Scope ignored = PrimaryReads.require()) {
+            textSortsLikeDatabase = Boolean.TRUE.equals(textSortsLikeCatalogue(attractionRepository, transactionTemplate));
+            catalogue = transactionTemplate.execute(status -> {
+                List<AttractionCatalogueRow> rows;
+                try (Stream<AttractionCatalogueRow> stream = attractionRepository.streamCatalogueRows()) {
+                    rows = stream.toList();
+                }
+                List<ServiceRow> services;
+                try (Stream<ServiceRow> stream = attractionRepository.streamServiceRows()) {
+                    services = stream.toList();
+                }
+                return AttractionCatalogue.of(rows, services);
+            });
+            logger.info("Каталог достопримечательностей загружен в память: {} строк за {} мс",
+                    catalogue.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            logger.error("Не удалось загрузить каталог достопримечательностей, списки читаются из базы", e);
+        }
+    }
+
+    /**
+     * Перечитывает измененные достопримечательности и достопримечательности измененных локаций.
+     *
+     * @param attractionIds идентификаторы измененных достопримечательностей
+     * @param locationIds   идентификаторы измененных локаций
+     */
+    public void refresh(Set<Long> attractionIds, Set<Long> locationIds) {
+        AttractionCatalogue current = catalogue;
+        if (current == null || (attractionIds.isEmpty() && locationIds.isEmpty())) {
+            return;
+        }
+        try (PrimaryReads.Scope ignored = PrimaryReads.require()) {
+            catalogue = transactionTemplate.execute(status ->
+                    reread(attractionRepository, current, attractionIds, locationIds));
+            logger.debug("Каталог обновлен: {} достопримечательностей, {} локаций",
+                    attractionIds.size(), locationIds.size());
+        } catch (RuntimeException e) {
+            logger.error("Не удалось обновить каталог, полная перезагрузка", e);
+            load();
+        }
+    }
+
+    /**
+     * Строит новый каталог, перечитывая из базы измененные достопримечательности
+     * и достопримечательности измененных локаций в текущей транзакции.
+     *
+     * @param attractionRepository репозиторий достопримечательностей
+     * @param current              текущий каталог
+     * @param attractionIds        идентификаторы измененных достопримечательностей
+     * @param locationIds          идентификаторы измененных локаций
+     * @return новый каталог
+     */
+    static AttractionCatalogue reread(AttractionRepository attractionRepository, AttractionCatalogue current,
+                                      Set<Long> attractionIds, Set<Long> locationIds) {
+        List<AttractionCatalogueRow> rows = new ArrayList<>();
+        for (List<Long> chunk : chunks(attractionIds)) {
+            rows.addAll(attractionRepository.findCatalogueRowsByIds(chunk));
+        }
+        for (List<Long> chunk : chunks(locationIds)) {
+            rows.addAll(attractionRepository.findCatalogueRowsByLocationIds(chunk));
+        }
+        Set<Long> loaded = new HashSet<>();
+        for (AttractionCatalogueRow row : rows) {
+            loaded.add(row.idAttraction());
+        }
+        List<ServiceRow> services = new ArrayList<>();
+        for (List<Long> chunk : chunks(loaded)) {
+            services.addAll(attractionRepository.findServiceRowsByAttractionIds(chunk));
+        }
+        return current.withReplaced(attractionIds, rows, services);
+    }
+
+    /**
+     * Проверяет по базе, сравнивает ли она имена и описания достопримечательностей по кодам символов,
+     * то есть так же, как каталог.
+     *
+     * @param attractionRepository репозиторий достопримечательностей
+     * @param transactionTemplate  шаблон транзакции чтения
+     * @return true или false; null, если правило сравнения строк базы прочитать не удалось
+     */
+    static Boolean textSortsLikeCatalogue(AttractionRepository attractionRepository,
+                                          TransactionTemplate transactionTemplate) {
+        List<String> collations;
+        try {
+            collations = transactionTemplate.execute(status -> attractionRepository.findTextCollations());
+        } catch (RuntimeException e) {
+            logger.info("Правило сравнения строк базы не определено: {}", e.getMessage());
+            return null;
+        }
+        boolean codePoint = collations != null && AttractionCatalogue.isCodePointCollation(collations);
+        if (!codePoint) {
+            logger.info("Правила сравнения строк базы {} не сравнивают по кодам символов, "
+                    + "порядок по имени и описанию в памяти отличается от базы", collations);
+        }
+        return codePoint;
+    }
+
+    private AttractionCatalogue current() {
+        AttractionCatalogue snapshot = catalogue;
+        if (snapshot == null) {
+            throw new IllegalStateException("Каталог достопримечательностей еще не загружен");
+        }
+        return snapshot;
+    }
+
+    private static Set<Long> entityIds(EntityChangedEvent event, ChangeEntityType type) {
+        return event.entityType() == type ? Set.of(event.entityId()) : Set.of();
+    }
+
+    private static List<List<Long>> chunks(Set<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + IN_CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Идентификаторы, измененные в текущей транзакции.
+     *
+     * @param attractionIds измененные достопримечательности
+     * @param locationIds   измененные локации
+     */
+    private record PendingChanges(Set<Long> attractionIds, Set<Long> locationIds) {
+    }
+}
@@ -1,18 +1,52 @@
 package com.khanenka.attractionapi.service;
 
+import com.khanenka.attractionapi.config.CacheConfig;
+import com.khanenka.attractionapi.config.MetricsConfig;
 import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
 import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionFilter;
+import com.khanenka.attractionapi.entity.dto.AttractionNearbyHit;
+import com.khanenka.attractionapi.entity.dto.AttractionPageDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.AttractionSearchHit;
+import com.khanenka.attractionapi.entity.dto.AttractionStatsDelta;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.EntityChangedEvent;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
 import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.exception.AttractionConflictException;
 import com.khanenka.attractionapi.exception.AttractionNotFoundException;
 import com.khanenka.attractionapi.exception.AttractionValidationException;
+import com.khanenka.attractionapi.repository.AttractionQuery;
 import com.khanenka.attractionapi.repository.AttractionRepository;
+import com.khanenka.attractionapi.repository.LocationRepository;
+import com.khanenka.attractionapi.repository.LocationTypeStatsRepository;
+import com.khanenka.attractionapi.utility.AttractionCursor;
+import com.khanenka.attractionapi.utility.GeoDistance;
 import com.khanenka.attractionapi.utility.ModelMapper;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Arrays;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,46 +55,119 @@ import java.util.Optional;
  * Предоставляет методы для создания, обновления, получения и удаления достопремичательностей.
  */
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.99, 0.999}, histogram = true)
 public class AttractionService {
 
     private AttractionRepository attractionRepository;
+    private LocationRepository locationRepository;
+    private LocationTypeStatsRepository locationTypeStatsRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private CacheManager cacheManager;
+    private AttractionReadModel readModel;
+    private CatalogueSnapshotService snapshotService;
     private String messageException = "Достопримечательность не найдена с id: {}";
+    private static final int MAX_PAGE_LIMIT = 1000;
+    private static final int MAX_SEARCH_SIZE = 100;
+    private static final int MAX_SEARCH_OFFSET = 10000;
+    private static final int MAX_NEARBY_LIMIT = 100;
+    private static final double MAX_NEARBY_RADIUS_METERS = 1_000_000;
     private static final Logger logger = LoggerFactory.getLogger(AttractionService.class);
 
     /**
      * Конструктор для инициализации сервиса достопремичательностей.
      *
-     * @param attractionRepository репозиторий для доступа к данным достопремичательностей
+     * @param attractionRepository        репозиторий для доступа к данным достопремичательностей
+     * @param locationRepository          репозиторий локаций, на которые ссылаются новые достопремичательности
+     * @param locationTypeStatsRepository репозиторий статистики, которая обновляется при каждом изменении
+     * @param eventPublisher              публикатор событий изменения для журнала изменений
+     * @param cacheManager                менеджер кэшей списков достопремичательностей по локации; null, если кэши выключены
+     * @param readModel                   каталог в памяти для списков; null, если модель чтения выключена
+     * @param snapshotService             снимок каталога на диске для прогрева и отказа базы; null, если выключен
      */
     @Autowired
-    public AttractionService(AttractionRepository attractionRepository) {
+    public AttractionService(AttractionRepository attractionRepository, LocationRepository locationRepository,
+                             LocationTypeStatsRepository locationTypeStatsRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             @Nullable CacheManager cacheManager,
+                             @Nullable AttractionReadModel readModel,
+                             @Nullable CatalogueSnapshotService snapshotService) {
         this.attractionRepository = attractionRepository;
+        this.locationRepository = locationRepository;
+        this.locationTypeStatsRepository = locationTypeStatsRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.readModel = readModel;
+        this.snapshotService = snapshotService;
     }
 
     /**
      * Сохраняет новую достопремичательность.
+     * Сущность и ее услуги вставляются в одной транзакции одним flush при коммите:
+     * одна вставка достопремичательности и один пакет вставок услуг.
      *
      * @param attractionDTO данные достопремичательностей для сохранения
      * @return сохраненная достопремичательность
      * @throws AttractionValidationException если имя или описание достопремичательности равно null
      */
+    @Transactional
+    @CacheEvict(value = CacheConfig.ATTRACTIONS_BY_LOCATION, allEntries = true)
     public Attraction saveAttraction(AttractionDTO attractionDTO) {
+        Attraction savedAttraction = attractionRepository.save(toNewAttraction(attractionDTO));
+        publishChange(savedAttraction.getIdAttraction(), ChangeOperation.CREATE);
+        countCreated(List.of(savedAttraction));
+        logger.info("Сохранена достопримечательность с id: {}", savedAttraction.getIdAttraction());
+        return savedAttraction;
+    }
+
+    /**
+     * Проверяет данные новой достопремичательности и строит по ним сущность, готовую к persist:
+     * идентификаторы от клиента сбрасываются, услуги получают обратную ссылку на достопремичательность,
+     * локация подставляется ссылкой по идентификатору без загрузки из базы.
+     *
+     * @param attractionDTO данные достопремичательности
+     * @return новая (transient) сущность достопремичательности
+     * @throws AttractionValidationException если имя или описание равно null, координаты некорректны
+     *                                       или локация задана без идентификатора
+     */
+    public Attraction toNewAttraction(AttractionDTO attractionDTO) {
         if (attractionDTO.getName() == null || attractionDTO.getDescription() == null) {
             logger.error("Имя или описание достопремичательности равно null");
             throw new AttractionValidationException("Имя и описание не могут быть null");
         }
+        if (!GeoDistance.isValid(attractionDTO.getLatitude(), attractionDTO.getLongitude())) {
+            logger.error("Некорректные координаты достопремичательности: {}, {}",
+                    attractionDTO.getLatitude(), attractionDTO.getLongitude());
+            throw new AttractionValidationException("Координаты должны быть заданы вместе: широта от -90 до 90, долгота от -180 до 180");
+        }
+        Location location = attractionDTO.getLocation();
+        if (location != null && location.getIdLocation() == null) {
+            logger.error("Локация достопремичательности задана без идентификатора");
+            throw new AttractionValidationException("Локация должна быть задана идентификатором");
+        }
         Attraction attraction = ModelMapper.INSTANCE.dtoToAttractionEntity(attractionDTO);
-        logger.info("Сохранена достопримечательность: {}", attractionRepository.save(attraction));
-        return attractionRepository.save(attraction);
+        attraction.setIdAttraction(null);
+        if (location != null) {
+            attraction.setLocation(locationRepository.getReferenceById(location.getIdLocation()));
+        }
+        if (attraction.getServices() != null) {
+            attraction.getServices().forEach(service -> {
+                service.setIdService(null);
+                service.setAttraction(attraction);
+            });
+        }
+        return attraction;
     }
 
     /**
      * Получает достопремичательность по заданному идентификатору.
+     * Результат кэшируется копией, не связанной с сущностями JPA, до изменения или удаления достопремичательности.
      *
      * @param id идентификатор достопремичательности
      * @return достопремичательность с заданным идентификатором
      * @throws AttractionNotFoundException если достопремичательность не найдена
      */
+    @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfig.ATTRACTION_BY_ID, sync = true)
     public AttractionDTO getAttractionById(Long id) {
         logger.info("Получение достопремичательности по id: {}", id);
         Attraction attraction = attractionRepository.findById(id)
@@ -68,74 +175,369 @@ public class AttractionService {
                     logger.error(messageException, id);
                     return new AttractionNotFoundException(messageException + id);
                 });
-        return ModelMapper.INSTANCE.entityToAttractionDto(attraction);
+        return ModelMapper.INSTANCE.entityToDetachedAttractionDto(attraction);
     }
 
     /**
-     * Получает список достопремичательностей по типу и с возможной сортировкой.
+     * Получает список достопремичательностей с фильтрацией и сортировкой.
+     * Если модель чтения включена и загружена, список строится по каталогу в памяти без обращения к базе,
+     * кроме сортировки по строкам при неизвестном правиле сравнения строк базы. Во время прогрева
+     * и при ошибке базы список строится по снимку каталога, если он включен, загружен и сортирует так же, как база.
      *
-     * @param type   тип достопремичательности
-     * @param sortBy параметр сортировки
+     * @param filter параметры фильтрации и сортировки; тип null означает все типы
      * @return отсортированный список достопремичательностей
-     * @throws AttractionValidationException если передан неверный параметр сортировки
+     * @throws AttractionValidationException если передан неверный параметр сортировки или направления
+     */
+    public List<AttractionView> getAttractions(AttractionFilter filter) {
+        logger.info("Получение достопремичательностей по фильтру: {}", filter);
+        AttractionQuery query = toQuery(filter);
+        if (isReadModelLoaded() && readModel.sortsLikeDatabase(query.getSortField())) {
+            return readModel.find(query);
+        }
+        if (isSnapshotWarming() && snapshotService.sortsLikeDatabase(query.getSortField())) {
+            return snapshotService.find(query);
+        }
+        try {
+            List<AttractionRow> rows = attractionRepository.findRowsByQuery(query);
+            if (rows.isEmpty()) {
+                return List.of();
+            }
+            return ModelMapper.INSTANCE.rowsToAttractionViews(rows, attractionRepository.findServiceRowsByQuery(query));
+        } catch (DataAccessException | TransactionException e) {
+            return fallBackToSnapshot(e, query).find(query);
+        }
+    }
+
+    /**
+     * Вычисляет версию списка достопремичательностей для условного GET без загрузки строк.
+     *
+     * @param filter параметры фильтрации и сортировки
+     * @return агрегированная версия достопремичательностей, попадающих под фильтр
+     * @throws AttractionValidationException если передан неверный параметр сортировки или направления
+     */
+    public AttractionsVersion getAttractionsVersion(AttractionFilter filter) {
+        AttractionQuery query = toQuery(filter);
+        if (isReadModelLoaded()) {
+            return readModel.version(query);
+        }
+        if (isSnapshotWarming()) {
+            return snapshotService.version(query);
+        }
+        try {
+            return attractionRepository.findVersionByQuery(query);
+        } catch (DataAccessException | TransactionException e) {
+            return fallBackToSnapshot(e).version(query);
+        }
+    }
+
+    /**
+     * Вычисляет версию списка достопремичательностей локации для условного GET без загрузки строк.
+     * Во время прогрева и при ошибке базы версия вычисляется по снимку каталога, если он включен и загружен.
+     *
+     * @param locationName имя локации
+     * @return агрегированная версия достопремичательностей локации
+     */
+    public AttractionsVersion getAttractionsByLocationVersion(String locationName) {
+        AttractionQuery query = byLocationQuery(locationName);
+        if (isSnapshotWarming()) {
+            return snapshotService.version(query);
+        }
+        try {
+            return attractionRepository.findVersionByQuery(query);
+        } catch (DataAccessException | TransactionException e) {
+            return fallBackToSnapshot(e).version(query);
+        }
+    }
+
+    /**
+     * Получает страницу достопремичательностей с фильтрацией и сортировкой, следующую за курсором.
+     * Во время прогрева и при ошибке базы страница строится по снимку каталога, если он включен, загружен
+     * и сортирует так же, как база: только тогда курсор снимка продолжается в базе без пропусков и повторов.
+     *
+     * @param filter параметры фильтрации и сортировки; тип null означает все типы
+     * @param cursor курсор, полученный с предыдущей страницей (null или пустой - первая страница)
+     * @param limit  размер страницы
+     * @return страница достопремичательностей и курсор следующей страницы
+     * @throws AttractionValidationException если передан неверный параметр сортировки, limit или курсор
      */
-    public List<Attraction> getAttractions(AttractionType type, String sortBy) {
-        logger.info("Получение достопремичательностей с типом: {} и сортировкой по: {}", type, sortBy);
-        validateSortBy(sortBy);
-        return fetchAttractionsBySort(type, sortBy);
+    public AttractionPageDTO getAttractionsPage(AttractionFilter filter, String cursor, int limit) {
+        logger.info("Получение страницы достопремичательностей по фильтру: {}, limit: {}", filter, limit);
+        AttractionQuery query = toQuery(filter);
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            logger.error("Некорректный параметр limit: {}", limit);
+            throw new AttractionValidationException("Параметр limit должен быть от 1 до " + MAX_PAGE_LIMIT);
+        }
+        AttractionCursor after = cursor == null || cursor.isEmpty()
+                ? null
+                : AttractionCursor.decode(cursor, query.getSortField());
+        if (isSnapshotWarming() && snapshotService.sortsLikeDatabase(query.getSortField())) {
+            return toPage(snapshotService.findPage(query, after, limit + 1), query, limit);
+        }
+        try {
+            List<AttractionRow> rows = attractionRepository.findRowPageByQuery(query, after, limit + 1);
+            boolean hasNext = rows.size() > limit;
+            return toPage(toViews(hasNext ? rows.subList(0, limit) : rows), hasNext, query);
+        } catch (DataAccessException | TransactionException e) {
+            return toPage(fallBackToSnapshot(e, query).findPage(query, after, limit + 1), query, limit);
+        }
+    }
+
+    /**
+     * Ищет достопремичательности по словам из имени и описания.
+     *
+     * @param text         поисковая строка (поддерживаются кавычки, OR и минус перед словом)
+     * @param type         тип достопремичательности (null - любой)
+     * @param locationName имя локации (null - любая)
+     * @param page         номер страницы, начиная с 0
+     * @param size         размер страницы
+     * @return найденные достопремичательности по убыванию релевантности
+     * @throws AttractionValidationException если строка поиска пустая или параметры страницы некорректны
+     */
+    public List<AttractionSearchHit> searchAttractions(String text, AttractionType type, String locationName,
+                                                       int page, int size) {
+        logger.info("Поиск достопремичательностей по строке: {}, type: {}, location: {}", text, type, locationName);
+        if (text == null || text.isBlank()) {
+            logger.error("Пустая строка поиска");
+            throw new AttractionValidationException("Строка поиска не может быть пустой");
+        }
+        if (page < 0 || size < 1 || size > MAX_SEARCH_SIZE || (long) page * size > MAX_SEARCH_OFFSET) {
+            logger.error("Некорректные параметры страницы поиска: page {}, size {}", page, size);
+            throw new AttractionValidationException("Параметр size должен быть от 1 до " + MAX_SEARCH_SIZE
+                    + ", page - не меньше 0, а page * size - не больше " + MAX_SEARCH_OFFSET);
+        }
+        return attractionRepository.searchByText(text.trim(), type, locationName, page * size, size);
+    }
+
+    /**
+     * Находит достопремичательности, ближайшие к заданной точке.
+     *
+     * @param latitude     широта точки в градусах
+     * @param longitude    долгота точки в градусах
+     * @param radiusMeters радиус поиска в метрах (null - k ближайших без ограничения радиуса)
+     * @param type         тип достопремичательности (null - любой)
+     * @param limit        максимальное количество результатов
+     * @return достопремичательности по возрастанию расстояния
+     * @throws AttractionValidationException если координаты, радиус или limit некорректны
+     */
+    public List<AttractionNearbyHit> findNearbyAttractions(double latitude, double longitude, Double radiusMeters,
+                                                           AttractionType type, int limit) {
+        logger.info("Поиск достопремичательностей рядом с точкой: {}, {}, радиус: {}", latitude, longitude, radiusMeters);
+        if (!GeoDistance.isValid(latitude, longitude)) {
+            logger.error("Некорректные координаты точки: {}, {}", latitude, longitude);
+            throw new AttractionValidationException("Широта должна быть от -90 до 90, долгота - от -180 до 180");
+        }
+        if (radiusMeters != null && (radiusMeters <= 0 || radiusMeters > MAX_NEARBY_RADIUS_METERS)) {
+            logger.error("Некорректный радиус поиска: {}", radiusMeters);
+            throw new AttractionValidationException("Радиус должен быть больше 0 и не больше " + MAX_NEARBY_RADIUS_METERS + " м");
+        }
+        if (limit < 1 || limit > MAX_NEARBY_LIMIT) {
+            logger.error("Некорректный параметр limit: {}", limit);
+            throw new AttractionValidationException("Параметр limit должен быть от 1 до " + MAX_NEARBY_LIMIT);
+        }
+        return attractionRepository.findNearby(latitude, longitude, radiusMeters, type, limit);
+    }
+
+    /**
+     * Собирает страницу из limit + 1 моделей чтения: последняя лишь показывает, что есть следующая страница.
+     *
+     * @param views модели чтения, следующие за курсором
+     * @param query условия выборки страницы
+     * @param limit размер страницы
+     * @return страница достопремичательностей и курсор следующей страницы
+     */
+    private AttractionPageDTO toPage(List<AttractionView> views, AttractionQuery query, int limit) {
+        boolean hasNext = views.size() > limit;
+        return toPage(hasNext ? views.subList(0, limit) : views, hasNext, query);
+    }
+
+    /**
+     * Собирает страницу из моделей чтения.
+     *
+     * @param content модели чтения страницы
+     * @param hasNext true, если за страницей есть записи
+     * @param query   условия выборки страницы
+     * @return страница достопремичательностей и курсор следующей страницы
+     */
+    private AttractionPageDTO toPage(List<AttractionView> content, boolean hasNext, AttractionQuery query) {
+        String nextCursor = hasNext
+                ? AttractionCursor.after(query.getSortField(), content.get(content.size() - 1)).encode()
+                : null;
+        return new AttractionPageDTO(content, nextCursor);
+    }
+
+    /**
+     * Собирает модели чтения из строк достопремичательностей, загружая их услуги одним запросом.
+     *
+     * @param rows строки достопремичательностей
+     * @return модели чтения в порядке строк
+     */
+    private List<AttractionView> toViews(List<AttractionRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = rows.stream().map(AttractionRow::idAttraction).toList();
+        return ModelMapper.INSTANCE.rowsToAttractionViews(rows, attractionRepository.findServiceRowsByAttractionIds(ids));
+    }
+
+    /**
+     * Проверяет, можно ли обслужить список из модели чтения.
+     *
+     * @return true, если модель чтения включена и каталог загружен
+     */
+    private boolean isReadModelLoaded() {
+        return readModel != null && readModel.isLoaded();
+    }
+
+    /**
+     * Проверяет, нужно ли обслужить список из снимка каталога, пока база прогревается после старта.
+     *
+     * @return true, если снимок включен, загружен и каталог еще не прочитан из базы
+     */
+    private boolean isSnapshotWarming() {
+        return snapshotService != null && snapshotService.isWarming();
+    }
+
+    /**
+     * Возвращает снимок каталога вместо недоступной базы.
+     *
+     * @param e ошибка обращения к базе
+     * @return сервис снимка каталога
+     * @throws RuntimeException исходная ошибка, если снимок выключен или не загружен
+     */
+    private CatalogueSnapshotService fallBackToSnapshot(RuntimeException e) {
+        if (snapshotService == null || !snapshotService.isLoaded()) {
+            throw e;
+        }
+        logger.warn("Ошибка обращения к базе, список достопремичательностей читается из снимка: {}", e.getMessage());
+        return snapshotService;
+    }
+
+    /**
+     * Возвращает снимок каталога вместо недоступной базы для списка, порядок которого должен совпадать с базой.
+     *
+     * @param e     ошибка обращения к базе
+     * @param query условия фильтрации и сортировки списка
+     * @return сервис снимка каталога
+     * @throws RuntimeException исходная ошибка, если снимок выключен, не загружен или сортирует иначе, чем база
+     */
+    private CatalogueSnapshotService fallBackToSnapshot(RuntimeException e, AttractionQuery query) {
+        if (snapshotService != null && !snapshotService.sortsLikeDatabase(query.getSortField())) {
+            throw e;
+        }
+        return fallBackToSnapshot(e);
+    }
+
+    /**
+     * Строит условия выборки всех достопремичательностей локации.
+     *
+     * @param locationName имя локации
+     * @return условия выборки по локации в порядке идентификаторов
+     */
+    private AttractionQuery byLocationQuery(String locationName) {
+        return new AttractionQuery(null, AttractionSortField.ID, Sort.Direction.ASC, locationName, null);
+    }
+
+    /**
+     * Проверяет параметры фильтра и преобразует их в условия выборки.
+     *
+     * @param filter параметры фильтрации и сортировки
+     * @return условия выборки для репозитория
+     * @throws AttractionValidationException если параметр сортировки, направления или диапазон дат некорректен
+     */
+    private AttractionQuery toQuery(AttractionFilter filter) {
+        if (filter.getDateFrom() != null && filter.getDateTo() != null
+                && filter.getDateFrom().isAfter(filter.getDateTo())) {
+            logger.error("Некорректный диапазон дат: {} - {}", filter.getDateFrom(), filter.getDateTo());
+            throw new AttractionValidationException("Параметр dateFrom не может быть позже dateTo");
+        }
+        return new AttractionQuery(filter.getType(), validateSortBy(filter.getSortBy()),
+                validateDirection(filter.getDirection()), filter.getLocation(), filter.getService(),
+                filter.getDateFrom(), filter.getDateTo());
     }
 
     /**
      * Проверяет корректность параметра сортировки.
      *
      * @param sortBy параметр сортировки
+     * @return поле сортировки
      * @throws AttractionValidationException если параметр сортировки некорректен
      */
-    private void validateSortBy(String sortBy) {
-        List<String> validSortOptions = Arrays.asList("name", "id", "description", "date", "location", "service");
-        if (!validSortOptions.contains(sortBy)) {
+    private AttractionSortField validateSortBy(String sortBy) {
+        return AttractionSortField.fromParam(sortBy).orElseThrow(() -> {
             logger.error("Некорректный параметр sortBy: {}", sortBy);
-            throw new AttractionValidationException("Некорректный параметр sortBy: " + sortBy);
-        }
+            return new AttractionValidationException("Некорректный параметр sortBy: " + sortBy);
+        });
     }
 
     /**
-     * Получает достопремичательности с сортировкой по заданному параметру.
+     * Проверяет корректность направления сортировки.
      *
-     * @param type   тип достопремичательности
-     * @param sortBy параметр сортировки
-     * @return список достопремичательностей, отсортированных по заданному параметру
+     * @param direction направление сортировки (asc или desc)
+     * @return направление сортировки
+     * @throws AttractionValidationException если направление сортировки некорректно
      */
-    private List<Attraction> fetchAttractionsBySort(AttractionType type, String sortBy) {
-        logger.info("Получение достопремичательностей с сортировкой по: {}", sortBy);
-        switch (sortBy) {
-            case "name":
-                return attractionRepository.findAllByTypeOrderByName(type);
-            case "id":
-                return attractionRepository.findAllByTypeOrderByIdAttraction(type);
-            case "description":
-                return attractionRepository.findAllByTypeOrderByDescription(type);
-            case "date":
-                return attractionRepository.findAllByTypeOrderByCreationDate(type);
-            case "location":
-                return attractionRepository.findAllByTypeOrderByLocation(type);
-            case "service":
-                return attractionRepository.findAllByTypeOrderByServices(type);
-            default:
-                return attractionRepository.findAllByTypeOrderByName(type);
-        }
+    private Sort.Direction validateDirection(String direction) {
+        return Sort.Direction.fromOptionalString(direction).orElseThrow(() -> {
+            logger.error("Некорректный параметр direction: {}", direction);
+            return new AttractionValidationException("Некорректный параметр direction: " + direction);
+        });
     }
 
     /**
      * Находит все достопремичательности по имени локации.
+     * Результат кэшируется до любого изменения достопремичательностей или локаций. Во время прогрева
+     * и при ошибке базы список строится по снимку каталога, если он включен и загружен, и не кэшируется,
+     * поэтому после восстановления базы устаревший список не отдается.
      *
      * @param locationName имя локации
      * @return список достопремичательностей, относящихся к указанной локации
      * @throws AttractionNotFoundException если достопремичательность не найдены для указанной локации
      */
-    public List<Attraction> findAllAttractionByLocationName(String locationName) {
+    public List<AttractionView> findAllAttractionByLocationName(String locationName) {
         logger.info("Поиск достопремичательностей по имени локации: {}", locationName);
-        List<Attraction> attractions = attractionRepository.findByLocation_NameLocation(locationName);
+        if (isSnapshotWarming()) {
+            return requireFound(snapshotService.find(byLocationQuery(locationName)), locationName);
+        }
+        Cache cache = cacheManager == null ? null : cacheManager.getCache(CacheConfig.ATTRACTIONS_BY_LOCATION);
+        if (cache == null) {
+            cache = new NoOpCache(CacheConfig.ATTRACTIONS_BY_LOCATION);
+        }
+        try {
+            return cache.get(locationName, () -> loadAttractionsByLocationName(locationName));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof DataAccessException || e.getCause() instanceof TransactionException) {
+                RuntimeException failure = (RuntimeException) e.getCause();
+                return requireFound(fallBackToSnapshot(failure).find(byLocationQuery(locationName)), locationName);
+            }
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Загружает из базы все достопремичательности локации.
+     *
+     * @param locationName имя локации
+     * @return список достопремичательностей локации
+     * @throws AttractionNotFoundException если достопремичательности не найдены для указанной локации
+     */
+    private List<AttractionView> loadAttractionsByLocationName(String locationName) {
+        List<AttractionRow> rows = attractionRepository.findRowsByLocationName(locationName);
+        return requireFound(rows.isEmpty() ? List.of() : ModelMapper.INSTANCE.rowsToAttractionViews(rows,
+                attractionRepository.findServiceRowsByLocationName(locationName)), locationName);
+    }
+
+    /**
+     * Проверяет, что у локации найдены достопремичательности.
+     *
+     * @param attractions  достопремичательности локации
+     * @param locationName имя локации
+     * @return те же достопремичательности
+     * @throws AttractionNotFoundException если список пуст
+     */
+    private List<AttractionView> requireFound(List<AttractionView> attractions, String locationName) {
         if (attractions.isEmpty()) {
             logger.error("Не найдены достопремичательности для локации: {}", locationName);
             throw new AttractionNotFoundException("Не найдены достопремичательности для локации: " + locationName);
@@ -144,30 +546,46 @@ public class AttractionService {
     }
 
     /**
-     * Обновляет описание достопремичательноси по заданному идентификатору.
+     * Обновляет описание достопремичательноси по заданному идентификатору одним UPDATE без чтения сущности
+     * перед записью. Если передана ожидаемая версия, описание обновляется только при ее совпадении с текущей.
+     * Обновленная достопремичательность читается после UPDATE в той же транзакции.
      *
-     * @param idAttraction идентификатор достопремичательности
-     * @param description  новое описание достопремичательности
-     * @return обновленная аттракция
+     * @param idAttraction    идентификатор достопремичательности
+     * @param description     новое описание достопремичательности
+     * @param expectedVersion версия, которую видел клиент (null - без проверки версии)
+     * @return обновленная достопремичательность с локацией, услугами и новой версией
      * @throws AttractionNotFoundException   если достопремичательность не найдена
+     * @throws AttractionConflictException   если достопремичательность изменена после чтения клиентом
      * @throws AttractionValidationException если описание равно null или пустое
      */
-    public Optional<Attraction> updateAttraction(Long idAttraction, String description) {
-        logger.info("Обновление достопремичательности с id: {} с новым описанием", idAttraction);
-        Optional<Attraction> referenceById = attractionRepository.findById(idAttraction);
-        if (!referenceById.isPresent()) {
-            logger.error(messageException, idAttraction);
-            throw new AttractionNotFoundException(messageException + idAttraction);
-        }
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.ATTRACTION_BY_ID, key = "#idAttraction"),
+            @CacheEvict(value = CacheConfig.ATTRACTIONS_BY_LOCATION, allEntries = true)
+    })
+    public Attraction updateAttraction(Long idAttraction, String description, Long expectedVersion) {
+        logger.info("Обновление достопремичательности с id: {} с новым описанием, версия: {}",
+                idAttraction, expectedVersion);
         if (description == null || description.isEmpty()) {
             logger.error("Описание не может быть null или пустым");
             throw new AttractionValidationException("Описание не может быть null или пустым");
         }
-        Attraction attraction = referenceById.get();
-        attraction.setDescription(description);
-        Attraction updatedAttraction = attractionRepository.save(attraction);
-        logger.info("Достопремичательность  : {} обновлена", updatedAttraction);
-        return Optional.of(updatedAttraction);
+        int updated = attractionRepository.updateDescription(idAttraction, description, expectedVersion, Instant.now());
+        if (updated == 0) {
+            Optional<Long> currentVersion = attractionRepository.findVersionById(idAttraction);
+            if (currentVersion.isEmpty()) {
+                logger.error(messageException, idAttraction);
+                throw new AttractionNotFoundException(messageException + idAttraction);
+            }
+            logger.warn("Конфликт версий достопремичательности с id: {}, ожидалась {}, текущая {}",
+                    idAttraction, expectedVersion, currentVersion.get());
+            throw new AttractionConflictException("Достопримечательность с id: " + idAttraction
+                    + " изменена, текущая версия: " + currentVersion.get());
+        }
+        Attraction attraction = attractionRepository.findWithDetailsByIdAttraction(idAttraction).orElseThrow();
+        publishChange(idAttraction, ChangeOperation.UPDATE);
+        logger.info("Достопремичательность с id: {} обновлена, версия: {}", idAttraction, attraction.getVersion());
+        return attraction;
     }
 
     /**
@@ -176,13 +594,39 @@ public class AttractionService {
      * @param id идентификатор достопремичательности
      * @throws AttractionNotFoundException если достопремичательность не найдена
      */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.ATTRACTION_BY_ID, key = "#id"),
+            @CacheEvict(value = CacheConfig.ATTRACTIONS_BY_LOCATION, allEntries = true)
+    })
     public void deleteAttraction(Long id) {
         logger.info("Удаление достопремичательности с id: {}", id);
-        if (!attractionRepository.existsById(id)) {
+        AttractionStatsDelta contribution = attractionRepository.findStatsDeltaById(id).orElseThrow(() -> {
             logger.error(messageException, id);
-            throw new AttractionNotFoundException(messageException + id);
-        }
+            return new AttractionNotFoundException(messageException + id);
+        });
         attractionRepository.deleteById(id);
+        locationTypeStatsRepository.increment(List.of(contribution.negate()));
+        publishChange(id, ChangeOperation.DELETE);
         logger.info("Достопремичательность с id: {} удалена", id);
     }
+
+    /**
+     * Прибавляет новые достопремичательности и их услуги к статистике в текущей транзакции.
+     *
+     * @param attractions созданные достопремичательности
+     */
+    public void countCreated(List<Attraction> attractions) {
+        locationTypeStatsRepository.increment(attractions.stream().map(AttractionStatsDelta::created).toList());
+    }
+
+    /**
+     * Публикует изменение достопремичательности в журнал изменений текущей транзакции.
+     *
+     * @param idAttraction идентификатор достопремичательности
+     * @param operation    операция над достопремичательностью
+     */
+    public void publishChange(Long idAttraction, ChangeOperation operation) {
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangeEntityType.ATTRACTION, idAttraction, operation));
+    }
 }
@@ -0,0 +1,92 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.config.MetricsConfig;
+import com.khanenka.attractionapi.entity.LocationTypeStats;
+import com.khanenka.attractionapi.entity.dto.AttractionStatisticsDTO;
+import com.khanenka.attractionapi.entity.dto.LocationTypeCount;
+import com.khanenka.attractionapi.entity.dto.LocationTypeStatsRow;
+import com.khanenka.attractionapi.entity.dto.StatisticsCount;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.entity.enums.PopulationBucket;
+import com.khanenka.attractionapi.repository.LocationTypeStatsRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Сервис статистики достопримечательностей.
+ * Читает заранее посчитанные счетчики по парам (локация, тип), которые сервисы изменения
+ * поддерживают в актуальном состоянии, и группирует их по типу, наличию метро и населению.
+ * Стоимость запроса зависит от количества пар (локация, тип), а не от количества достопримечательностей и услуг.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.99, 0.999}, histogram = true)
+public class AttractionStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttractionStatisticsService.class);
+
+    private final LocationTypeStatsRepository locationTypeStatsRepository;
+
+    /**
+     * Конструктор для инициализации сервиса статистики.
+     *
+     * @param locationTypeStatsRepository репозиторий агрегированной статистики
+     */
+    @Autowired
+    public AttractionStatisticsService(LocationTypeStatsRepository locationTypeStatsRepository) {
+        this.locationTypeStatsRepository = locationTypeStatsRepository;
+    }
+
+    /**
+     * Получает статистику достопримечательностей и услуг.
+     *
+     * @return общие счетчики и счетчики по типу, наличию метро, диапазону населения и по локации
+     */
+    public AttractionStatisticsDTO getStatistics() {
+        logger.info("Получение статистики достопримечательностей");
+        List<LocationTypeStatsRow> rows = locationTypeStatsRepository.findAllRows();
+        long attractions = 0;
+        long services = 0;
+        List<LocationTypeCount> byLocation = new ArrayList<>(rows.size());
+        for (LocationTypeStatsRow row : rows) {
+            attractions += row.attractions();
+            services += row.services();
+            byLocation.add(new LocationTypeCount(idLocation(row), row.nameLocation(), type(row),
+                    row.attractions(), row.services()));
+        }
+        return new AttractionStatisticsDTO(attractions, services,
+                group(rows, row -> type(row) == null ? null : type(row).name()),
+                group(rows, row -> row.hasMetro() == null ? null : row.hasMetro().toString()),
+                group(rows, row -> PopulationBucket.of(row.populationLocation()).name()),
+                byLocation);
+    }
+
+    private static List<StatisticsCount> group(List<LocationTypeStatsRow> rows,
+                                               Function<LocationTypeStatsRow, String> key) {
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        for (LocationTypeStatsRow row : rows) {
+            long[] total = totals.computeIfAbsent(key.apply(row), k -> new long[2]);
+            total[0] += row.attractions();
+            total[1] += row.services();
+        }
+        List<StatisticsCount> counts = new ArrayList<>(totals.size());
+        totals.forEach((k, total) -> counts.add(new StatisticsCount(k, total[0], total[1])));
+        return counts;
+    }
+
+    private static Long idLocation(LocationTypeStatsRow row) {
+        return row.idLocation() == LocationTypeStats.NO_LOCATION ? null : row.idLocation();
+    }
+
+    private static AttractionType type(LocationTypeStatsRow row) {
+        return LocationTypeStats.NO_TYPE.equals(row.attractionType()) ? null : AttractionType.valueOf(row.attractionType());
+    }
+}
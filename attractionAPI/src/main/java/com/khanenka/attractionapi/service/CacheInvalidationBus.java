@@ -0,0 +1,340 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.config.CacheConfig;
+import com.khanenka.attractionapi.entity.dto.EntityChangedEvent;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Шина межузловой инвалидации кэшей через PostgreSQL LISTEN/NOTIFY.
+ * Включается свойством attractions.cache.invalidation.enabled.
+ * <p>
+ * Публикация: измененные в транзакции достопримечательности и локации ({@link EntityChangedEvent})
+ * собираются до коммита и отправляются через pg_notify в той же транзакции, поэтому другие узлы
+ * получают уведомление только после коммита и только если он состоялся. Изменения одной транзакции
+ * упаковываются в как можно меньшее число уведомлений не длиннее {@link #MAX_PAYLOAD_BYTES}.
+ * <p>
+ * Получение: отдельный поток держит собственное соединение с основной базой вне пула и слушает канал.
+ * Уведомления собственного узла пропускаются - его кэши уже очищены при изменении. Чужие изменения
+ * накапливаются в течение coalesce-window и применяются разом по тем же правилам, что и локальные
+ * {@code @CacheEvict}: изменение достопримечательности удаляет ее ключ из {@link CacheConfig#ATTRACTION_BY_ID}
+ * и очищает {@link CacheConfig#ATTRACTIONS_BY_LOCATION}, изменение локации очищает оба кэша.
+ * Если накопилось больше max-keys достопримечательностей (массовая запись), кэши очищаются целиком.
+ * Модель чтения, если она включена, перечитывает те же сущности. После потери соединения уведомления
+ * могли быть пропущены, поэтому при каждом подключении кэши очищаются, а модель чтения перезагружается.
+ */
+@Service
+@ConditionalOnProperty(name = "attractions.cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationBus {
+
+    /**
+     * максимальная длина уведомления в байтах (ограничение PostgreSQL - 8000)
+     */
+    public static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final String NODE_SEPARATOR = ";";
+    private static final String KEY_SEPARATOR = ",";
+    private static final char ATTRACTION = 'A';
+    private static final char LOCATION = 'L';
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheManager cacheManager;
+    private final AttractionReadModel readModel;
+    private final String channel;
+    private final Duration coalesceWindow;
+    private final int maxKeys;
+    private final Set<Long> pendingAttractions = new HashSet<>();
+    private final Set<Long> pendingLocations = new HashSet<>();
+    private long pendingSince;
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listener;
+
+    /**
+     * Конструктор шины инвалидации.
+     *
+     * @param dataSource           источник данных; уведомления отправляются через соединение текущей транзакции
+     * @param dataSourceProperties свойства spring.datasource для отдельного соединения слушателя
+     * @param cacheManager         менеджер кэшей чтения достопримечательностей
+     * @param readModel            модель чтения; null, если выключена
+     * @param channel              имя канала LISTEN/NOTIFY
+     * @param coalesceWindow       время накопления чужих изменений перед инвалидацией
+     * @param maxKeys              число достопримечательностей, начиная с которого кэши очищаются целиком
+     * @throws IllegalArgumentException если имя канала не является простым идентификатором
+     */
+    @Autowired
+    public CacheInvalidationBus(DataSource dataSource,
+                                DataSourceProperties dataSourceProperties,
+                                CacheManager cacheManager,
+                                @Nullable AttractionReadModel readModel,
+                                @Value("${attractions.cache.invalidation.channel:attraction_changes}") String channel,
+                                @Value("${attractions.cache.invalidation.coalesce-window:100ms}") Duration coalesceWindow,
+                                @Value("${attractions.cache.invalidation.max-keys:1000}") int maxKeys) {
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Некорректное имя канала: " + channel);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.dataSourceProperties = dataSourceProperties;
+        this.cacheManager = cacheManager;
+        this.readModel = readModel;
+        this.channel = channel;
+        this.coalesceWindow = coalesceWindow;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Запускает поток слушателя после старта приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * Останавливает поток слушателя и закрывает его соединение.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        closeQuietly(listenConnection);
+    }
+
+    /**
+     * Запоминает изменение до коммита текущей транзакции; перед коммитом изменения отправляются в канал.
+     *
+     * @param event событие изменения
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(List.of(key(event)));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> keys = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    publish(keys);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+                }
+            });
+            pending = keys;
+        }
+        pending.add(key(event));
+    }
+
+    /**
+     * Разбирает уведомление и накапливает чужие изменения до {@link #applyPending()}.
+     *
+     * @param payload содержимое уведомления
+     */
+    public synchronized void onNotification(String payload) {
+        int separator = payload.indexOf(NODE_SEPARATOR);
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        if (pendingAttractions.isEmpty() && pendingLocations.isEmpty()) {
+            pendingSince = System.nanoTime();
+        }
+        for (String key : payload.substring(separator + 1).split(KEY_SEPARATOR)) {
+            if (key.length() < 2) {
+                continue;
+            }
+            try {
+                long id = Long.parseLong(key.substring(1));
+                if (key.charAt(0) == ATTRACTION) {
+                    pendingAttractions.add(id);
+                } else if (key.charAt(0) == LOCATION) {
+                    pendingLocations.add(id);
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Некорректный ключ в уведомлении об изменении: {}", key);
+            }
+        }
+    }
+
+    /**
+     * Применяет накопленные чужие изменения к локальным кэшам и модели чтения.
+     */
+    public synchronized void applyPending() {
+        if (pendingAttractions.isEmpty() && pendingLocations.isEmpty()) {
+            return;
+        }
+        Cache byId = cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID);
+        Cache byLocation = cacheManager.getCache(CacheConfig.ATTRACTIONS_BY_LOCATION);
+        if (byId != null) {
+            if (!pendingLocations.isEmpty() || pendingAttractions.size() > maxKeys) {
+                byId.clear();
+            } else {
+                pendingAttractions.forEach(byId::evict);
+            }
+        }
+        if (byLocation != null) {
+            byLocation.clear();
+        }
+        if (readModel != null) {
+            readModel.refreshLater(Set.copyOf(pendingAttractions), Set.copyOf(pendingLocations));
+        }
+        logger.debug("Инвалидация по изменениям других узлов: {} достопримечательностей, {} локаций",
+                pendingAttractions.size(), pendingLocations.size());
+        pendingAttractions.clear();
+        pendingLocations.clear();
+    }
+
+    /**
+     * Очищает локальные кэши и перезагружает модель чтения целиком.
+     */
+    public synchronized void invalidateAll() {
+        Cache byId = cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID);
+        Cache byLocation = cacheManager.getCache(CacheConfig.ATTRACTIONS_BY_LOCATION);
+        if (byId != null) {
+            byId.clear();
+        }
+        if (byLocation != null) {
+            byLocation.clear();
+        }
+        if (readModel != null) {
+            readModel.reloadLater();
+        }
+        pendingAttractions.clear();
+        pendingLocations.clear();
+    }
+
+    private void publish(Iterable<String> keys) {
+        for (String payload : payloads(keys)) {
+            jdbcTemplate.queryForList("select pg_notify(?, ?)", channel, payload);
+        }
+    }
+
+    private List<String> payloads(Iterable<String> keys) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId).append(NODE_SEPARATOR);
+        int header = payload.length();
+        for (String key : keys) {
+            if (payload.length() > header
+                    && payload.length() + KEY_SEPARATOR.length() + key.length() > MAX_PAYLOAD_BYTES) {
+                payloads.add(payload.toString());
+                payload.setLength(header);
+            }
+            if (payload.length() > header) {
+                payload.append(KEY_SEPARATOR);
+            }
+            payload.append(key);
+        }
+        if (payload.length() > header) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                logger.info("Подписка на канал инвалидации кэшей {}", channel);
+                invalidateAll();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int timeout = (int) Math.max(1, coalesceWindow.toMillis());
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(timeout);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification.getParameter());
+                        }
+                    }
+                    if (isPendingDue()) {
+                        applyPending();
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.error("Соединение слушателя инвалидации кэшей потеряно, переподключение", e);
+                sleep(Duration.ofSeconds(1));
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private synchronized boolean isPendingDue() {
+        return (!pendingAttractions.isEmpty() || !pendingLocations.isEmpty())
+                && System.nanoTime() - pendingSince >= coalesceWindow.toNanos();
+    }
+
+    private static String key(EntityChangedEvent event) {
+        return (event.entityType() == ChangeEntityType.ATTRACTION ? ATTRACTION : LOCATION) + Long.toString(event.entityId());
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Ошибка закрытия соединения слушателя", e);
+        }
+    }
+}
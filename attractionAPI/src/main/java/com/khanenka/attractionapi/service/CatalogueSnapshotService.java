@@ -0,0 +1,337 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.config.PrimaryReads;
+import com.khanenka.attractionapi.entity.dto.AttractionCatalogueRow;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.ChangePageDTO;
+import com.khanenka.attractionapi.entity.dto.ChangeView;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.repository.AttractionQuery;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import com.khanenka.attractionapi.utility.AttractionCatalogue;
+import com.khanenka.attractionapi.utility.AttractionCursor;
+import com.khanenka.attractionapi.utility.CatalogueSnapshotFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Сервис снимка каталога на диске ({@link CatalogueSnapshotFile}).
+ * Включается свойством attractions.snapshot.enabled. При создании бина файл снимка, оставшийся
+ * от предыдущего запуска, отображается в память и собирается в {@link AttractionCatalogue}, а затем
+ * фоновый поток сразу после старта и далее раз в write-interval обновляет снимок, записывает его в файл
+ * и заменяет им снимок в памяти.
+ * <p>
+ * Каталог целиком читается из базы, только если снимка еще нет. Снимок хранит номер последней учтенной
+ * записи журнала изменений ({@link ChangeLogService}), и обновление читает журнал после этого номера
+ * и перечитывает только измененные достопримечательности и достопримечательности измененных локаций,
+ * поэтому видит и изменения, сделанные другими экземплярами приложения. Каталог и журнал читаются
+ * с основной базы ({@link PrimaryReads}).
+ * <p>
+ * Снимок используется в двух случаях: пока после старта не завершилось первое обновление из базы
+ * (см. {@link #isWarming()}), и как устаревший запасной вариант, когда обращение к базе завершилось ошибкой.
+ * Из снимка обслуживаются списки, страницы и версии списков достопримечательностей, в том числе по локации;
+ * выборка по идентификаторам, поиск, поиск рядом с точкой и эндпоинты локаций снимком не покрыты:
+ * в нем нет координат, и при отказе базы они завершаются ошибкой. Строки снимок сравнивает по кодам символов,
+ * поэтому списки и страницы с сортировкой по имени и описанию обслуживаются из снимка, только если
+ * при последнем обращении к базе ее правило сравнения строк оказалось таким же ({@link #sortsLikeDatabase});
+ * иначе курсоры страниц снимка и базы указывали бы на разные места. Момент снимка, с которого был
+ * обслужен запрос, сохраняется в атрибуте запроса {@link #SNAPSHOT_TAKEN_AT_ATTRIBUTE} и выводится
+ * в заголовок {@link #SNAPSHOT_AGE_HEADER}.
+ */
+@Service
+@ConditionalOnProperty(name = "attractions.snapshot.enabled", havingValue = "true")
+public class CatalogueSnapshotService {
+
+    /**
+     * заголовок ответа с возрастом снимка в секундах
+     */
+    public static final String SNAPSHOT_AGE_HEADER = "X-Snapshot-Age";
+    /**
+     * атрибут запроса с моментом снимка, которым обслужен запрос
+     */
+    public static final String SNAPSHOT_TAKEN_AT_ATTRIBUTE = CatalogueSnapshotService.class.getName() + ".takenAt";
+    private static final Logger logger = LoggerFactory.getLogger(CatalogueSnapshotService.class);
+
+    private final AttractionRepository attractionRepository;
+    private final ChangeLogService changeLogService;
+    private final TransactionTemplate transactionTemplate;
+    private final Path path;
+    private final Duration writeInterval;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalogue-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Snapshot snapshot;
+    private volatile boolean warming = true;
+    private volatile boolean textSortsLikeDatabase;
+
+    /**
+     * Конструктор сервиса снимка.
+     *
+     * @param attractionRepository репозиторий достопримечательностей
+     * @param changeLogService     журнал изменений, по которому обновляется снимок
+     * @param transactionManager   менеджер транзакций чтения каталога
+     * @param path                 путь к файлу снимка
+     * @param writeInterval        интервал между записями снимка
+     * @param meterRegistry        реестр метрик для публикации возраста снимка
+     */
+    @Autowired
+    public CatalogueSnapshotService(AttractionRepository attractionRepository,
+                                    ChangeLogService changeLogService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${attractions.snapshot.path:catalogue.snapshot}") Path path,
+                                    @Value("${attractions.snapshot.write-interval:5m}") Duration writeInterval,
+                                    MeterRegistry meterRegistry) {
+        this.attractionRepository = attractionRepository;
+        this.changeLogService = changeLogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.path = path;
+        this.writeInterval = writeInterval;
+        Gauge.builder("attractions.snapshot.age", this, service -> service.snapshot == null
+                        ? Double.NaN
+                        : Duration.between(service.snapshot.takenAt(), Instant.now()).toSeconds())
+                .description("Возраст снимка каталога в секундах")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Отображает в память файл снимка, оставшийся от предыдущего запуска.
+     * Отсутствующий или поврежденный файл не мешает старту: до первой записи снимка запросы идут в базу.
+     */
+    @PostConstruct
+    public void start() {
+        if (!Files.exists(path)) {
+            logger.info("Файл снимка каталога {} не найден", path);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            CatalogueSnapshotFile file = CatalogueSnapshotFile.read(path);
+            snapshot = new Snapshot(file.getTakenAt(), AttractionCatalogue.of(file.getRows(), file.getServices()),
+                    file.getChangeSeq());
+            logger.info("Снимок каталога от {} загружен из {}: {} строк, журнал изменений до {}, за {} мс",
+                    file.getTakenAt(), path, file.getRows().size(), file.getChangeSeq(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Не удалось прочитать снимок каталога {}", path, e);
+        }
+    }
+
+    /**
+     * Запускает запись снимка сразу после старта приложения и далее раз в write-interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        writer.scheduleWithFixedDelay(this::writeSnapshot, 0, writeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Останавливает фоновый поток записи.
+     */
+    @PreDestroy
+    public void stop() {
+        writer.shutdownNow();
+    }
+
+    /**
+     * Обновляет снимок по журналу изменений (или читает каталог целиком, если снимка еще нет),
+     * заменяет им снимок в памяти и записывает его в файл снимка.
+     * Ошибка только журналируется: если база недоступна, предыдущий снимок остается в силе.
+     */
+    public void writeSnapshot() {
+        long started = System.nanoTime();
+        try {
+            Boolean textOrderChecked = AttractionReadModel.textSortsLikeCatalogue(attractionRepository, transactionTemplate);
+            if (textOrderChecked != null) {
+                textSortsLikeDatabase = textOrderChecked;
+            }
+            Snapshot current = snapshot;
+            Snapshot next = current == null ? readCatalogue() : applyChanges(current);
+            snapshot = next;
+            warming = false;
+            new CatalogueSnapshotFile(next.takenAt(), next.changeSeq(), next.catalogue().rows(),
+                    next.catalogue().serviceRows()).write(path);
+            logger.info("Снимок каталога записан в {}: {} строк, журнал изменений до {}, за {} мс", path,
+                    next.catalogue().size(), next.changeSeq(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Не удалось записать снимок каталога {}", path, e);
+        }
+    }
+
+    /**
+     * Проверяет, идет ли прогрев: снимок загружен, а после старта еще ни разу не обновлен из базы.
+     *
+     * @return true, если запросы следует обслуживать из снимка
+     */
+    public boolean isWarming() {
+        return warming && snapshot != null;
+    }
+
+    /**
+     * Проверяет, загружен ли снимок.
+     *
+     * @return true, если снимок может служить запасным вариантом
+     */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Проверяет, сортирует ли снимок по полю так же, как база.
+     *
+     * @param sortField поле сортировки
+     * @return false для имени и описания, если база сравнивает строки не по кодам символов или это не проверено
+     */
+    public boolean sortsLikeDatabase(AttractionSortField sortField) {
+        return textSortsLikeDatabase
+                || (sortField != AttractionSortField.NAME && sortField != AttractionSortField.DESCRIPTION);
+    }
+
+    /**
+     * Находит достопримечательности в снимке и отмечает запрос как обслуженный из снимка.
+     *
+     * @param query условия фильтрации и сортировки
+     * @return модели чтения достопримечательностей в порядке сортировки
+     * @throws IllegalStateException если снимок не загружен
+     */
+    public List<AttractionView> find(AttractionQuery query) {
+        return serve(catalogue -> catalogue.find(query));
+    }
+
+    /**
+     * Находит страницу достопримечательностей в снимке и отмечает запрос как обслуженный из снимка.
+     *
+     * @param query условия фильтрации и сортировки
+     * @param after курсор последней выданной записи (null - первая страница)
+     * @param limit максимальное количество записей
+     * @return модели чтения достопримечательностей в порядке сортировки
+     * @throws IllegalStateException если снимок не загружен
+     */
+    public List<AttractionView> findPage(AttractionQuery query, AttractionCursor after, int limit) {
+        return serve(catalogue -> catalogue.findPage(query, after, limit));
+    }
+
+    /**
+     * Вычисляет версию набора достопримечательностей по снимку и отмечает запрос как обслуженный из снимка.
+     *
+     * @param query условия фильтрации
+     * @return агрегированная версия набора
+     * @throws IllegalStateException если снимок не загружен
+     */
+    public AttractionsVersion version(AttractionQuery query) {
+        return serve(catalogue -> catalogue.version(query));
+    }
+
+    private <T> T serve(Function<AttractionCatalogue, T> read) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Снимок каталога не загружен");
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(SNAPSHOT_TAKEN_AT_ATTRIBUTE, current.takenAt(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return read.apply(current.catalogue());
+    }
+
+    /**
+     * Читает каталог из базы целиком вместе с номером журнала изменений, который он уже учитывает.
+     *
+     * @return новый снимок
+     */
+    private Snapshot readCatalogue() {
+        try (PrimaryReads.Scope ignored = PrimaryReads.require()) {
+            return transactionTemplate.execute(status -> {
+                Instant takenAt = Instant.now();
+                long changeSeq = changeLogService.getLastSeq();
+                List<AttractionCatalogueRow> rows;
+                try (Stream<AttractionCatalogueRow> stream = attractionRepository.streamCatalogueRows()) {
+                    rows = stream.toList();
+                }
+                List<ServiceRow> services;
+                try (Stream<ServiceRow> stream = attractionRepository.streamServiceRows()) {
+                    services = stream.toList();
+                }
+                return new Snapshot(takenAt, AttractionCatalogue.of(rows, services), changeSeq);
+            });
+        }
+    }
+
+    /**
+     * Применяет к снимку записи журнала изменений, сделанные после него.
+     *
+     * @param current текущий снимок
+     * @return новый снимок
+     */
+    private Snapshot applyChanges(Snapshot current) {
+        Instant takenAt = Instant.now();
+        Set<Long> attractionIds = new HashSet<>();
+        Set<Long> locationIds = new HashSet<>();
+        long changeSeq = current.changeSeq();
+        ChangePageDTO page;
+        do {
+            page = changeLogService.getChanges(changeSeq, ChangeLogService.MAX_CHANGES_LIMIT);
+            for (ChangeView change : page.getChanges()) {
+                if (change.entityType() == ChangeEntityType.ATTRACTION) {
+                    attractionIds.add(change.entityId());
+                } else {
+                    locationIds.add(change.entityId());
+                }
+            }
+            changeSeq = page.getNextSince();
+        } while (page.isHasMore());
+        if (attractionIds.isEmpty() && locationIds.isEmpty()) {
+            return new Snapshot(takenAt, current.catalogue(), changeSeq);
+        }
+        try (PrimaryReads.Scope ignored = PrimaryReads.require()) {
+            AttractionCatalogue catalogue = transactionTemplate.execute(status ->
+                    AttractionReadModel.reread(attractionRepository, current.catalogue(), attractionIds, locationIds));
+            return new Snapshot(takenAt, catalogue, changeSeq);
+        }
+    }
+
+    /**
+     * Снимок каталога в памяти.
+     *
+     * @param takenAt   момент чтения данных снимка из базы
+     * @param catalogue каталог снимка
+     * @param changeSeq номер последней записи журнала изменений, учтенной в снимке
+     */
+    private record Snapshot(Instant takenAt, AttractionCatalogue catalogue, long changeSeq) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.config.MetricsConfig;
+import com.khanenka.attractionapi.config.PrimaryReads;
+import com.khanenka.attractionapi.entity.dto.ChangePageDTO;
+import com.khanenka.attractionapi.entity.dto.ChangeView;
+import com.khanenka.attractionapi.entity.dto.EntityChangedEvent;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.exception.ChangeValidationException;
+import com.khanenka.attractionapi.repository.ChangeLogRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сервис журнала изменений (transactional outbox) достопримечательностей и локаций.
+ * Сервисы публикуют {@link EntityChangedEvent} внутри транзакции изменения; события копятся
+ * до коммита и записываются в таблицу change_log одним пакетом в той же транзакции,
+ * поэтому запись журнала существует тогда и только тогда, когда закоммичено само изменение.
+ * Номера записей выдаются в порядке коммитов: перед вставкой транзакция берет блокировку журнала,
+ * которая держится до коммита, поэтому запись с меньшим номером всегда видна раньше записи с большим.
+ * Клиенты читают журнал по номеру последней полученной записи и догружают только измененные сущности.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.99, 0.999}, histogram = true)
+public class ChangeLogService {
+
+    private static final String INSERT_SQL =
+            "insert into change_log (entity_type, entity_id, operation) values (?, ?, ?)";
+    /**
+     * блокировка до конца транзакции (PostgreSQL), упорядочивающая вставки в журнал по коммитам
+     */
+    private static final String LOCK_SQL = "select pg_advisory_xact_lock(hashtext('change_log'))";
+    /**
+     * максимальное количество записей на странице журнала
+     */
+    public static final int MAX_CHANGES_LIMIT = 1000;
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLogService.class);
+
+    private final ChangeLogRepository changeLogRepository;
+    private final JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Конструктор для инициализации сервиса журнала изменений.
+     *
+     * @param changeLogRepository репозиторий журнала изменений
+     * @param dataSource          источник данных; запись идет через соединение текущей транзакции
+     */
+    @Autowired
+    public ChangeLogService(ChangeLogRepository changeLogRepository, DataSource dataSource) {
+        this.changeLogRepository = changeLogRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Запоминает изменение до коммита текущей транзакции. Повторные изменения одной сущности
+     * в транзакции дают одну запись; удаление заменяет предыдущую операцию.
+     *
+     * @param event событие изменения
+     * @throws IllegalStateException если событие опубликовано вне транзакции
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Изменение должно публиковаться внутри транзакции: " + event);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, EntityChangedEvent> pending =
+                (Map<String, EntityChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<String, EntityChangedEvent> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(new ArrayList<>(changes.values()));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogService.this);
+                }
+            });
+            pending = changes;
+        }
+        String key = event.entityType() + ":" + event.entityId();
+        if (event.operation() == ChangeOperation.DELETE) {
+            pending.put(key, event);
+        } else {
+            pending.putIfAbsent(key, event);
+        }
+    }
+
+    /**
+     * Получает записи журнала, следующие за заданным номером.
+     * Номера выдаются в порядке коммитов, поэтому видимые записи всегда образуют непрерывный префикс
+     * журнала и клиент, продвинувшийся до последней полученной записи, не пропустит более ранних.
+     * Журнал читается с основной базы, так как реплика может отставать от уже выданной клиенту позиции.
+     *
+     * @param since номер последней полученной записи (0 - с начала журнала)
+     * @param limit максимальное количество записей
+     * @return страница журнала и номер для следующего запроса
+     * @throws ChangeValidationException если since отрицательный или limit вне допустимого диапазона
+     */
+    public ChangePageDTO getChanges(long since, int limit) {
+        logger.info("Получение изменений после {}, limit: {}", since, limit);
+        if (since < 0) {
+            throw new ChangeValidationException("Параметр since не может быть отрицательным");
+        }
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            throw new ChangeValidationException("Параметр limit должен быть от 1 до " + MAX_CHANGES_LIMIT);
+        }
+        List<ChangeView> rows;
+        try (PrimaryReads.Scope ignored = PrimaryReads.require()) {
+            rows = changeLogRepository.findBySeqGreaterThanOrderBySeqAsc(since, Limit.of(limit + 1));
+        }
+        boolean hasMore = rows.size() > limit;
+        List<ChangeView> changes = hasMore ? rows.subList(0, limit) : rows;
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).seq();
+        return new ChangePageDTO(changes, nextSince, hasMore);
+    }
+
+    /**
+     * Получает номер последней записи журнала. Все записи с номерами не больше возвращенного уже закоммичены,
+     * поэтому данные, прочитанные после вызова, учитывают их все, а более поздние изменения можно получить
+     * через {@link #getChanges} с этим номером.
+     *
+     * @return номер записи (0, если журнал пуст)
+     */
+    public long getLastSeq() {
+        try (PrimaryReads.Scope ignored = PrimaryReads.require()) {
+            return changeLogRepository.findLastSeq();
+        }
+    }
+
+    /**
+     * Сначала выполняет отложенные Hibernate изменения: их DELETE/UPDATE могут ждать блокировок строк,
+     * и это ожидание не должно приходиться на время, когда транзакция держит блокировку журнала.
+     * Затем в PostgreSQL берется блокировка журнала до конца транзакции, и номера записей выдаются
+     * по одной транзакции за раз в порядке коммитов. В остальных базах (тесты) вставки не упорядочиваются.
+     */
+    private void write(List<EntityChangedEvent> changes) {
+        entityManager.flush();
+        if (isPostgreSQL()) {
+            jdbcTemplate.execute(LOCK_SQL);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes, changes.size(), (statement, change) -> {
+            statement.setString(1, change.entityType().name());
+            statement.setLong(2, change.entityId());
+            statement.setString(3, change.operation().name());
+        });
+        logger.debug("Записано изменений в журнал: {}", changes.size());
+    }
+
+    private boolean isPostgreSQL() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
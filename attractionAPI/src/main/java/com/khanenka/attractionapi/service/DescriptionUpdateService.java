@@ -0,0 +1,334 @@
+package com.khanenka.attractionapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.khanenka.attractionapi.config.CacheConfig;
+import com.khanenka.attractionapi.config.MetricsConfig;
+import com.khanenka.attractionapi.entity.dto.DescriptionUpdateView;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.entity.enums.DescriptionUpdateStatus;
+import com.khanenka.attractionapi.exception.AttractionValidationException;
+import com.khanenka.attractionapi.exception.DescriptionQueueFullException;
+import com.khanenka.attractionapi.exception.DescriptionUpdateNotFoundException;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сервис асинхронного обновления описаний достопримечательностей.
+ * Принятое обновление попадает в таблицу ожидающих записей по идентификатору достопримечательности:
+ * повторные обновления той же достопримечательности до записи объединяются, побеждает обновление,
+ * сделанное по более новой версии (без версии - как по самой старой), а при равных версиях - принятое позже.
+ * Поэтому серия правок одного описания дает одну запись в базу.
+ * Единственный поток записи периодически забирает ожидающие обновления пакетами по batch-size
+ * и записывает каждый пакет одной транзакцией, по одному UPDATE описания с проверкой версии
+ * на достопримечательность, без загрузки сущностей.
+ * <p>
+ * Число ожидающих достопримечательностей ограничено max-pending: место в очереди резервируется
+ * счетчиком до приема обновления. При заполнении новые достопримечательности отклоняются
+ * с {@link DescriptionQueueFullException} (503), а правки уже ожидающих продолжают приниматься,
+ * так как не увеличивают очередь.
+ * Состояние каждого принятого обновления хранится ticket-ttl после последнего изменения.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.99, 0.999}, histogram = true)
+public class DescriptionUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DescriptionUpdateService.class);
+
+    private final AttractionRepository attractionRepository;
+    private final AttractionService attractionService;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPending;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Map<Long, PendingDescription> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<String, DescriptionUpdateView> tickets;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "description-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Конструктор для инициализации сервиса асинхронных обновлений.
+     *
+     * @param attractionRepository репозиторий достопримечательностей
+     * @param attractionService    сервис достопримечательностей, публикующий изменения в журнал
+     * @param cacheManager         менеджер кэшей чтения достопримечательностей
+     * @param transactionManager   менеджер транзакций записи пакетов
+     * @param maxPending           максимальное число достопримечательностей, ожидающих записи
+     * @param batchSize            максимальное число достопримечательностей в одной транзакции
+     * @param flushInterval        пауза между проходами потока записи
+     * @param ticketTtl            время хранения состояния обновления после последнего изменения
+     * @param meterRegistry        реестр метрик для публикации длины очереди
+     */
+    @Autowired
+    public DescriptionUpdateService(AttractionRepository attractionRepository,
+                                    AttractionService attractionService,
+                                    CacheManager cacheManager,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${attractions.description-updates.max-pending:10000}") int maxPending,
+                                    @Value("${attractions.description-updates.batch-size:200}") int batchSize,
+                                    @Value("${attractions.description-updates.flush-interval:50ms}") Duration flushInterval,
+                                    @Value("${attractions.description-updates.ticket-ttl:10m}") Duration ticketTtl,
+                                    MeterRegistry meterRegistry) {
+        this.attractionRepository = attractionRepository;
+        this.attractionService = attractionService;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.tickets = Caffeine.newBuilder().expireAfterWrite(ticketTtl).build();
+        Gauge.builder("attractions.description.updates.pending", pendingCount, AtomicInteger::get)
+                .description("Достопримечательности, ожидающие записи нового описания")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запускает поток записи.
+     */
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushSafely,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Останавливает поток записи и записывает оставшиеся обновления.
+     *
+     * @throws InterruptedException если ожидание остановки потока прервано
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Принимает обновление описания для записи в фоне.
+     * Существование достопримечательности и версия проверяются при записи (состояния NOT_FOUND и CONFLICT).
+     *
+     * @param idAttraction    идентификатор достопримечательности
+     * @param description     новое описание
+     * @param expectedVersion версия, которую видел клиент (null - без проверки версии)
+     * @return состояние принятого обновления (PENDING)
+     * @throws AttractionValidationException  если описание null или пустое
+     * @throws DescriptionQueueFullException если очередь заполнена, а достопримечательность в ней не ожидает
+     */
+    public DescriptionUpdateView submit(Long idAttraction, String description, Long expectedVersion) {
+        if (description == null || description.isEmpty()) {
+            logger.error("Описание не может быть null или пустым");
+            throw new AttractionValidationException("Описание не может быть null или пустым");
+        }
+        String ticket = UUID.randomUUID().toString();
+        PendingDescription update = new PendingDescription(
+                description, expectedVersion, sequence.incrementAndGet(), ticket, List.of());
+        DescriptionUpdateView accepted = new DescriptionUpdateView(
+                ticket, idAttraction, DescriptionUpdateStatus.PENDING, null, null);
+        tickets.put(ticket, accepted);
+        if (pending.computeIfPresent(idAttraction, (id, current) -> current.coalesce(update)) == null) {
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                tickets.invalidate(ticket);
+                logger.warn("Очередь обновлений описаний заполнена, отклонено обновление id: {}", idAttraction);
+                throw new DescriptionQueueFullException("Очередь обновлений описаний заполнена, повторите запрос позже");
+            }
+            if (pending.merge(idAttraction, update, PendingDescription::coalesce) != update) {
+                // другой поток успел добавить эту достопримечательность, зарезервированное место не нужно
+                pendingCount.decrementAndGet();
+            }
+        }
+        logger.info("Принято обновление описания id: {}, версия: {}, ticket: {}", idAttraction, expectedVersion, ticket);
+        return accepted;
+    }
+
+    /**
+     * Получает состояние принятого обновления.
+     *
+     * @param ticket идентификатор обновления
+     * @return состояние обновления
+     * @throws DescriptionUpdateNotFoundException если обновление неизвестно или его состояние уже удалено
+     */
+    public DescriptionUpdateView getStatus(String ticket) {
+        DescriptionUpdateView view = tickets.getIfPresent(ticket);
+        if (view == null) {
+            throw new DescriptionUpdateNotFoundException("Обновление описания не найдено: " + ticket);
+        }
+        return view;
+    }
+
+    /**
+     * Записывает все ожидающие обновления пакетами по batch-size.
+     * Обновление, принятое во время записи пакета, попадает в один из следующих пакетов.
+     */
+    public void flush() {
+        while (!pending.isEmpty()) {
+            Map<Long, PendingDescription> batch = new LinkedHashMap<>();
+            Iterator<Long> ids = pending.keySet().iterator();
+            while (ids.hasNext() && batch.size() < batchSize) {
+                Long id = ids.next();
+                PendingDescription update = pending.remove(id);
+                if (update != null) {
+                    pendingCount.decrementAndGet();
+                    batch.put(id, update);
+                }
+            }
+            write(batch);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Ошибка записи обновлений описаний", e);
+        }
+    }
+
+    private void write(Map<Long, PendingDescription> batch) {
+        try {
+            Map<Long, WriteResult> results = transactionTemplate.execute(status -> apply(batch));
+            complete(batch, results);
+        } catch (RuntimeException e) {
+            logger.warn("Пакет из {} обновлений описаний не записан, запись по одному: {}", batch.size(), e.getMessage());
+            for (Map.Entry<Long, PendingDescription> entry : batch.entrySet()) {
+                Map<Long, PendingDescription> single = Map.of(entry.getKey(), entry.getValue());
+                try {
+                    complete(single, transactionTemplate.execute(status -> apply(single)));
+                } catch (RuntimeException ex) {
+                    logger.error("Обновление описания id: {} не записано", entry.getKey(), ex);
+                    finish(entry.getValue(), entry.getKey(), DescriptionUpdateStatus.FAILED, null, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private Map<Long, WriteResult> apply(Map<Long, PendingDescription> batch) {
+        Instant updatedAt = Instant.now();
+        Map<Long, WriteResult> results = new HashMap<>();
+        for (Map.Entry<Long, PendingDescription> entry : batch.entrySet()) {
+            Long id = entry.getKey();
+            PendingDescription update = entry.getValue();
+            int updated = attractionRepository.updateDescription(id, update.description(), update.version(), updatedAt);
+            if (updated == 0) {
+                Optional<Long> currentVersion = attractionRepository.findVersionById(id);
+                results.put(id, currentVersion
+                        .map(version -> new WriteResult(DescriptionUpdateStatus.CONFLICT, version))
+                        .orElseGet(() -> new WriteResult(DescriptionUpdateStatus.NOT_FOUND, null)));
+                continue;
+            }
+            long version = update.version() != null
+                    ? update.version() + 1
+                    : attractionRepository.findVersionById(id).orElseThrow();
+            attractionService.publishChange(id, ChangeOperation.UPDATE);
+            results.put(id, new WriteResult(DescriptionUpdateStatus.APPLIED, version));
+        }
+        return results;
+    }
+
+    private void complete(Map<Long, PendingDescription> batch, Map<Long, WriteResult> results) {
+        org.springframework.cache.Cache byId = cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID);
+        org.springframework.cache.Cache byLocation = cacheManager.getCache(CacheConfig.ATTRACTIONS_BY_LOCATION);
+        int applied = 0;
+        for (Map.Entry<Long, PendingDescription> entry : batch.entrySet()) {
+            Long id = entry.getKey();
+            WriteResult result = results.get(id);
+            switch (result.status()) {
+                case NOT_FOUND -> finish(entry.getValue(), id, result.status(), null,
+                        "Не найдена достопримечательность с id: " + id);
+                case CONFLICT -> finish(entry.getValue(), id, result.status(), result.version(),
+                        "Достопримечательность с id: " + id + " изменена, текущая версия: " + result.version());
+                default -> {
+                    applied++;
+                    if (byId != null) {
+                        byId.evict(id);
+                    }
+                    finish(entry.getValue(), id, result.status(), result.version(), null);
+                }
+            }
+        }
+        if (byLocation != null && applied > 0) {
+            byLocation.clear();
+        }
+        logger.info("Записано обновлений описаний: {} из {}", applied, batch.size());
+    }
+
+    private void finish(PendingDescription update, Long id, DescriptionUpdateStatus status, Long version, String message) {
+        tickets.put(update.ticket(), new DescriptionUpdateView(update.ticket(), id, status, version, message));
+        for (String superseded : update.supersededTickets()) {
+            tickets.put(superseded, new DescriptionUpdateView(
+                    superseded, id, DescriptionUpdateStatus.SUPERSEDED, version, null));
+        }
+    }
+
+    /**
+     * Результат записи обновления одной достопримечательности.
+     *
+     * @param status  APPLIED, CONFLICT или NOT_FOUND
+     * @param version новая версия (APPLIED) или текущая версия (CONFLICT)
+     */
+    private record WriteResult(DescriptionUpdateStatus status, Long version) {
+    }
+
+    /**
+     * Ожидающее обновление описания одной достопримечательности.
+     *
+     * @param description       новое описание
+     * @param version           версия, по которой сделано обновление (null - без проверки версии)
+     * @param sequence          номер приема
+     * @param ticket            идентификатор победившего обновления
+     * @param supersededTickets идентификаторы замененных обновлений
+     */
+    private record PendingDescription(String description, Long version, long sequence, String ticket,
+                                      List<String> supersededTickets) {
+
+        PendingDescription coalesce(PendingDescription other) {
+            PendingDescription winner = isNewerThan(other) ? this : other;
+            PendingDescription loser = winner == this ? other : this;
+            List<String> superseded = new ArrayList<>(supersededTickets);
+            superseded.addAll(other.supersededTickets);
+            superseded.add(loser.ticket);
+            return new PendingDescription(winner.description, winner.version, winner.sequence, winner.ticket, superseded);
+        }
+
+        private boolean isNewerThan(PendingDescription other) {
+            long rank = version != null ? version : -1;
+            long otherRank = other.version != null ? other.version : -1;
+            return rank != otherRank ? rank > otherRank : sequence > other.sequence;
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package com.khanenka.attractionapi.service;
 
+import com.khanenka.attractionapi.config.CacheConfig;
+import com.khanenka.attractionapi.config.MetricsConfig;
 import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.dto.EntityChangedEvent;
 import com.khanenka.attractionapi.entity.dto.LocationDTO;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.exception.LocationConflictException;
 import com.khanenka.attractionapi.exception.LocationNotFoundException;
 import com.khanenka.attractionapi.exception.LocationValidationException;
 import com.khanenka.attractionapi.repository.LocationRepository;
+import com.khanenka.attractionapi.utility.GeoDistance;
 import com.khanenka.attractionapi.utility.ModelMapper;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 /**
@@ -18,19 +31,23 @@ import java.util.Optional;
  * Предоставляет методы для добавления и обновления информации о локациях.
  */
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, percentiles = {0.5, 0.99, 0.999}, histogram = true)
 public class LocationService {
 
     private LocationRepository locationRepository;
+    private ApplicationEventPublisher eventPublisher;
     private static final Logger logger = LoggerFactory.getLogger(LocationService.class);
 
     /**
      * Конструктор для инициализации сервиса с репозиторием локаций.
      *
      * @param locationRepository Репозиторий для работы с локациями.
+     * @param eventPublisher     Публикатор событий изменения для журнала изменений.
      */
     @Autowired
-    public LocationService(LocationRepository locationRepository) {
+    public LocationService(LocationRepository locationRepository, ApplicationEventPublisher eventPublisher) {
         this.locationRepository = locationRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -38,8 +55,11 @@ public class LocationService {
      *
      * @param locationDTO Данные локации для добавления.
      * @return Добавленная локация.
-     * @throws LocationValidationException Если население локации отрицательное.
+     * @throws LocationValidationException Если население локации отрицательное или координаты некорректны.
      */
+    @Transactional
+    @CacheEvict(value = CacheConfig.ATTRACTIONS_BY_LOCATION, key = "#locationDTO.nameLocation",
+            condition = "#locationDTO.nameLocation != null")
     public Location addLocation(LocationDTO locationDTO) {
         logger.info("Adding location with name: {}", locationDTO);
         if (locationDTO.getPopulationLocation() < 0) {
@@ -47,38 +67,62 @@ public class LocationService {
                     locationDTO.getPopulationLocation());
             throw new LocationValidationException("Population cannot be negative.");
         }
+        if (!GeoDistance.isValid(locationDTO.getLatitude(), locationDTO.getLongitude())) {
+            logger.error("Failed to add location. Invalid coordinates: {}, {}",
+                    locationDTO.getLatitude(), locationDTO.getLongitude());
+            throw new LocationValidationException("Latitude and longitude must be set together and be in range.");
+        }
         Location location = ModelMapper.INSTANCE.dtoToLocationEntity(locationDTO);
         Location savedLocation = locationRepository.save(location);
+        publishChange(savedLocation.getIdLocation(), ChangeOperation.CREATE);
         logger.info("Location added successfully: {}", savedLocation);
         return savedLocation;
     }
 
     /**
-     * Обновляет информацию о локации по данному идентификатору.
+     * Обновляет информацию о локации по данному идентификатору одним UPDATE без чтения сущности перед записью.
+     * Если передана ожидаемая версия, локация обновляется только при ее совпадении с текущей.
+     * Обновленная локация читается после UPDATE в той же транзакции.
      *
-     * @param id         Уникальный идентификатор локации.
-     * @param population Новое население локации.
-     * @param hasMetro   Новое состояние наличия метро в локации.
-     * @return Обновленная локация.
+     * @param id              Уникальный идентификатор локации.
+     * @param population      Новое население локации.
+     * @param hasMetro        Новое состояние наличия метро в локации.
+     * @param expectedVersion Версия, которую видел клиент (null - без проверки версии).
+     * @return Обновленная локация с новой версией.
      * @throws LocationValidationException Если население локации отрицательное.
      * @throws LocationNotFoundException   Если локация с заданным идентификатором не найдена.
+     * @throws LocationConflictException   Если локация изменена после чтения клиентом.
      */
-    public Optional<Location> updateLocation(Long id, Long population, boolean hasMetro) {
-        logger.info("Updating location with id: {}", id);
-        Optional<Location> locationById = locationRepository.findById(id);
-        if (locationById.isPresent()) {
-            Location location = locationById.get();
-            if (population < 0) {
-                logger.error("Failed to update location id {}. Population cannot be negative: {}", id, population);
-                throw new LocationValidationException("Population cannot be negative.");
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.ATTRACTION_BY_ID, allEntries = true),
+            @CacheEvict(value = CacheConfig.ATTRACTIONS_BY_LOCATION, allEntries = true)
+    })
+    public Location updateLocation(Long id, Long population, boolean hasMetro, Long expectedVersion) {
+        logger.info("Updating location with id: {}, version: {}", id, expectedVersion);
+        if (population == null || population < 0) {
+            logger.error("Failed to update location id {}. Population cannot be negative: {}", id, population);
+            throw new LocationValidationException("Population cannot be negative.");
+        }
+        int updated = locationRepository.updatePopulationAndMetro(id, population, hasMetro, expectedVersion, Instant.now());
+        if (updated == 0) {
+            Optional<Long> currentVersion = locationRepository.findVersionById(id);
+            if (currentVersion.isEmpty()) {
+                logger.warn("Location not found with id: {}", id);
+                throw new LocationNotFoundException(id);
             }
-            location.setPopulationLocation(population);
-            location.setHasMetro(hasMetro);
-            Location updatedLocation = locationRepository.save(location);
-            logger.info("Location updated successfully: {}", updatedLocation);
-            return Optional.of(updatedLocation);
+            logger.warn("Version conflict for location id {}: expected {}, current {}",
+                    id, expectedVersion, currentVersion.get());
+            throw new LocationConflictException("Location " + id + " was modified, current version: "
+                    + currentVersion.get());
         }
-        logger.warn("Location not found with id: {}", id);
-        throw new LocationNotFoundException(id);
+        Location location = locationRepository.findById(id).orElseThrow();
+        publishChange(id, ChangeOperation.UPDATE);
+        logger.info("Location {} updated successfully, version: {}", id, location.getVersion());
+        return location;
+    }
+
+    private void publishChange(Long idLocation, ChangeOperation operation) {
+        eventPublisher.publishEvent(new EntityChangedEvent(ChangeEntityType.LOCATION, idLocation, operation));
     }
 }
@@ -0,0 +1,698 @@
+package com.khanenka.attractionapi.utility;
+
+import com.khanenka.attractionapi.entity.dto.AttractionCatalogueRow;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.LocationView;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.dto.ServiceView;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.repository.AttractionQuery;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Класс AttractionCatalogue - неизменяемый снимок каталога достопримечательностей в памяти.
+ * Данные хранятся по колонкам в массивах примитивов: идентификаторы и версии в long[], даты в int[]
+ * (день от эпохи), типы - ординалы в byte[]. Локации и имена услуг вынесены в словари, строки
+ * ссылаются на них индексами, поэтому одинаковые имена хранятся один раз. Услуги всех достопримечательностей
+ * лежат подряд, упорядоченные по идентификатору, а serviceStart хранит начало услуг каждой строки.
+ * <p>
+ * Для каждого поля сортировки заранее построена перестановка строк в порядке (ключ ASC NULLS LAST, id ASC)
+ * по всему каталогу и отдельно по каждому типу; порядок DESC - та же перестановка в обратную сторону,
+ * что совпадает с порядком запросов {@code AttractionRepositoryImpl}. Строки сравниваются по кодам
+ * символов, поэтому порядок по имени и описанию совпадает с базой только для правил сравнения строк
+ * по кодам символов ({@link #isCodePointCollation}); порядок языковых правил PostgreSQL (libc, ICU)
+ * в памяти не воспроизводится.
+ * <p>
+ * Изменения применяются копированием: {@link #withReplaced} строит новый снимок, в котором измененные
+ * строки заменены, а перестановки получены слиянием старого порядка с отсортированными новыми строками.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public final class AttractionCatalogue {
+
+    private static final Set<String> CODE_POINT_COLLATIONS = Set.of("C", "POSIX", "ucs_basic");
+    private static final AttractionType[] TYPES = AttractionType.values();
+    private static final AttractionSortField[] SORT_FIELDS = AttractionSortField.values();
+    private static final byte NO_TYPE = -1;
+    private static final byte NO_METRO = -1;
+    private static final int NO_LOCATION = -1;
+    private static final int NO_NAME = -1;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+
+    private final int size;
+    private final long[] ids;
+    private final String[] names;
+    private final String[] descriptions;
+    private final int[] creationDays;
+    private final byte[] types;
+    private final long[] versions;
+    private final long[] updatedAt;
+    private final int[] locations;
+
+    private final long[] locationIds;
+    private final String[] locationNames;
+    private final long[] populations;
+    private final byte[] hasMetro;
+    private final long[] locationVersions;
+    private final long[] locationUpdatedAt;
+
+    private final int[] serviceStart;
+    private final long[] serviceIds;
+    private final int[] serviceNames;
+    private final String[] serviceDescriptions;
+    private final String[] serviceNameDictionary;
+    private final Map<String, Integer> serviceNameIndex;
+
+    private final int[][] sorted;
+    private final int[][][] sortedByType;
+
+    private AttractionCatalogue(Builder builder, int[][] keptOrder, int firstNew) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.names = builder.names;
+        this.descriptions = builder.descriptions;
+        this.creationDays = builder.creationDays;
+        this.types = builder.types;
+        this.versions = builder.versions;
+        this.updatedAt = builder.updatedAt;
+        this.locations = builder.locations;
+        int locationCount = builder.locationIndex.size();
+        this.locationIds = Arrays.copyOf(builder.locationIds, locationCount);
+        this.locationNames = Arrays.copyOf(builder.locationNames, locationCount);
+        this.populations = Arrays.copyOf(builder.populations, locationCount);
+        this.hasMetro = Arrays.copyOf(builder.hasMetro, locationCount);
+        this.locationVersions = Arrays.copyOf(builder.locationVersions, locationCount);
+        this.locationUpdatedAt = Arrays.copyOf(builder.locationUpdatedAt, locationCount);
+        this.serviceStart = builder.serviceStart;
+        this.serviceStart[size] = builder.serviceCount;
+        this.serviceIds = builder.serviceIds;
+        this.serviceNames = builder.serviceNames;
+        this.serviceDescriptions = builder.serviceDescriptions;
+        this.serviceNameDictionary = builder.serviceNameDictionary.toArray(new String[0]);
+        this.serviceNameIndex = builder.serviceNameIndex;
+
+        this.sorted = new int[SORT_FIELDS.length][];
+        this.sortedByType = new int[TYPES.length][SORT_FIELDS.length][];
+        int[] typeCounts = new int[TYPES.length];
+        for (int row = 0; row < size; row++) {
+            if (types[row] != NO_TYPE) {
+                typeCounts[types[row]]++;
+            }
+        }
+        for (AttractionSortField field : SORT_FIELDS) {
+            int[] fresh = new int[size - firstNew];
+            for (int row = firstNew; row < size; row++) {
+                fresh[row - firstNew] = row;
+            }
+            sort(fresh, field);
+            int[] order = merge(keptOrder[field.ordinal()], fresh, field);
+            sorted[field.ordinal()] = order;
+            int[][] byType = new int[TYPES.length][];
+            int[] filled = new int[TYPES.length];
+            for (int type = 0; type < TYPES.length; type++) {
+                byType[type] = new int[typeCounts[type]];
+            }
+            for (int row : order) {
+                if (types[row] != NO_TYPE) {
+                    byType[types[row]][filled[types[row]]++] = row;
+                }
+            }
+            for (int type = 0; type < TYPES.length; type++) {
+                sortedByType[type][field.ordinal()] = byType[type];
+            }
+        }
+    }
+
+    /**
+     * Строит каталог из строк достопримечательностей и их услуг.
+     *
+     * @param rows     строки каталога с различными идентификаторами
+     * @param services услуги этих достопримечательностей
+     * @return снимок каталога
+     */
+    public static AttractionCatalogue of(List<AttractionCatalogueRow> rows, List<ServiceRow> services) {
+        Builder builder = new Builder(rows.size(), services.size());
+        Map<Long, List<ServiceRow>> servicesByAttraction = groupByAttraction(services);
+        for (AttractionCatalogueRow row : rows) {
+            builder.addRow(row, servicesByAttraction.getOrDefault(row.idAttraction(), List.of()));
+        }
+        return new AttractionCatalogue(builder, new int[SORT_FIELDS.length][0], 0);
+    }
+
+    /**
+     * Проверяет, что все правила сравнения строк базы сравнивают строки по кодам символов,
+     * то есть сортируют по имени и описанию так же, как каталог.
+     *
+     * @param collations правила сравнения строк столбцов имени и описания в PostgreSQL
+     * @return true, если список не пуст и все правила - "C", "POSIX" или "ucs_basic"
+     */
+    public static boolean isCodePointCollation(Collection<String> collations) {
+        return !collations.isEmpty() && CODE_POINT_COLLATIONS.containsAll(collations);
+    }
+
+    /**
+     * Строит новый снимок, в котором переданные достопримечательности заменены актуальными строками.
+     * Достопримечательности из changedIds, для которых строки не переданы, считаются удаленными.
+     *
+     * @param changedIds идентификаторы измененных достопримечательностей
+     * @param rows       актуальные строки измененных достопримечательностей (могут включать и другие)
+     * @param services   услуги достопримечательностей из rows
+     * @return новый снимок каталога
+     */
+    public AttractionCatalogue withReplaced(Collection<Long> changedIds, List<AttractionCatalogueRow> rows,
+                                            List<ServiceRow> services) {
+        Map<Long, AttractionCatalogueRow> distinct = new LinkedHashMap<>();
+        for (AttractionCatalogueRow row : rows) {
+            distinct.put(row.idAttraction(), row);
+        }
+        Set<Long> replaced = new HashSet<>(changedIds);
+        replaced.addAll(distinct.keySet());
+        int kept = 0;
+        int keptServices = 0;
+        for (int row = 0; row < size; row++) {
+            if (!replaced.contains(ids[row])) {
+                kept++;
+                keptServices += serviceStart[row + 1] - serviceStart[row];
+            }
+        }
+        Builder builder = new Builder(kept + distinct.size(), keptServices + services.size());
+        for (AttractionCatalogueRow row : distinct.values()) {
+            builder.addLocation(row);
+        }
+        int[] remap = new int[size];
+        for (int row = 0; row < size; row++) {
+            remap[row] = replaced.contains(ids[row]) ? -1 : builder.copyRow(this, row);
+        }
+        Map<Long, List<ServiceRow>> servicesByAttraction = groupByAttraction(services);
+        for (AttractionCatalogueRow row : distinct.values()) {
+            builder.addRow(row, servicesByAttraction.getOrDefault(row.idAttraction(), List.of()));
+        }
+        int[][] keptOrder = new int[SORT_FIELDS.length][];
+        for (AttractionSortField field : SORT_FIELDS) {
+            int[] order = new int[kept];
+            int count = 0;
+            for (int row : sorted[field.ordinal()]) {
+                if (remap[row] >= 0) {
+                    order[count++] = remap[row];
+                }
+            }
+            keptOrder[field.ordinal()] = order;
+        }
+        return new AttractionCatalogue(builder, keptOrder, kept);
+    }
+
+    /**
+     * Возвращает количество достопримечательностей в каталоге.
+     *
+     * @return количество достопримечательностей
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Находит достопримечательности, удовлетворяющие условиям выборки, в порядке сортировки условий.
+     *
+     * @param query условия фильтрации и сортировки
+     * @return модели чтения достопримечательностей
+     */
+    public List<AttractionView> find(AttractionQuery query) {
+        int[] rows = select(query);
+        List<AttractionView> views = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            views.add(view(row));
+        }
+        return views;
+    }
+
+    /**
+     * Находит страницу достопримечательностей, следующих за курсором в порядке сортировки условий,
+     * так же, как {@code AttractionRepositoryCustom#findRowPageByQuery}.
+     *
+     * @param query условия фильтрации и сортировки
+     * @param after курсор последней выданной записи (null - первая страница)
+     * @param limit максимальное количество записей
+     * @return модели чтения достопримечательностей
+     */
+    public List<AttractionView> findPage(AttractionQuery query, AttractionCursor after, int limit) {
+        int[] rows = select(query);
+        int from = 0;
+        if (after != null) {
+            int direction = query.getDirection() == Sort.Direction.DESC ? -1 : 1;
+            int to = rows.length;
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (direction * compareToCursor(query.getSortField(), rows[middle], after) > 0) {
+                    to = middle;
+                } else {
+                    from = middle + 1;
+                }
+            }
+        }
+        int end = (int) Math.min(rows.length, (long) from + limit);
+        List<AttractionView> views = new ArrayList<>(end - from);
+        for (int position = from; position < end; position++) {
+            views.add(view(rows[position]));
+        }
+        return views;
+    }
+
+    /**
+     * Возвращает строки каталога в порядке хранения, например для записи в файл снимка.
+     *
+     * @return строки достопримечательностей вместе с локациями
+     */
+    public List<AttractionCatalogueRow> rows() {
+        List<AttractionCatalogueRow> rows = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            int location = locations[row];
+            boolean hasLocation = location != NO_LOCATION;
+            rows.add(new AttractionCatalogueRow(ids[row], names[row],
+                    creationDays[row] == NO_DAY ? null : LocalDate.ofEpochDay(creationDays[row]),
+                    descriptions[row],
+                    types[row] == NO_TYPE ? null : TYPES[types[row]],
+                    versions[row],
+                    toInstant(updatedAt[row]),
+                    hasLocation ? locationIds[location] : null,
+                    hasLocation ? locationNames[location] : null,
+                    !hasLocation || populations[location] == NO_VALUE ? null : populations[location],
+                    !hasLocation || hasMetro[location] == NO_METRO ? null : hasMetro[location] == 1,
+                    hasLocation ? locationVersions[location] : null,
+                    hasLocation ? toInstant(locationUpdatedAt[location]) : null));
+        }
+        return rows;
+    }
+
+    /**
+     * Возвращает строки услуг каталога в порядке хранения, например для записи в файл снимка.
+     *
+     * @return строки услуг
+     */
+    public List<ServiceRow> serviceRows() {
+        List<ServiceRow> services = new ArrayList<>(serviceStart[size]);
+        for (int row = 0; row < size; row++) {
+            for (int service = serviceStart[row]; service < serviceStart[row + 1]; service++) {
+                services.add(new ServiceRow(ids[row], serviceIds[service],
+                        serviceNameDictionary[serviceNames[service]], serviceDescriptions[service]));
+            }
+        }
+        return services;
+    }
+
+    /**
+     * Вычисляет агрегированную версию достопримечательностей, удовлетворяющих условиям выборки,
+     * так же, как {@code AttractionRepositoryCustom#findVersionByQuery}.
+     *
+     * @param query условия фильтрации
+     * @return количество, суммы идентификаторов и версий, время последнего изменения
+     */
+    public AttractionsVersion version(AttractionQuery query) {
+        int[] rows = select(query);
+        long idSum = 0;
+        long versionSum = 0;
+        long latest = NO_VALUE;
+        long locationVersionSum = 0;
+        boolean anyLocation = false;
+        long locationLatest = NO_VALUE;
+        for (int row : rows) {
+            idSum += ids[row];
+            versionSum += versions[row];
+            latest = Math.max(latest, updatedAt[row]);
+            int location = locations[row];
+            if (location != NO_LOCATION) {
+                anyLocation = true;
+                locationVersionSum += locationVersions[location];
+                locationLatest = Math.max(locationLatest, locationUpdatedAt[location]);
+            }
+        }
+        boolean empty = rows.length == 0;
+        return new AttractionsVersion((long) rows.length,
+                empty ? null : idSum,
+                empty ? null : versionSum,
+                toInstant(latest),
+                anyLocation ? locationVersionSum : null,
+                toInstant(locationLatest));
+    }
+
+    private int[] select(AttractionQuery query) {
+        int field = query.getSortField().ordinal();
+        int[] order = query.getType() == null ? sorted[field] : sortedByType[query.getType().ordinal()][field];
+        boolean descending = query.getDirection() == Sort.Direction.DESC;
+        boolean[] locationMatches = null;
+        if (query.getLocationName() != null) {
+            locationMatches = new boolean[locationIds.length];
+            for (int location = 0; location < locationIds.length; location++) {
+                locationMatches[location] = query.getLocationName().equals(locationNames[location]);
+            }
+        }
+        int serviceName = NO_NAME;
+        if (query.getServiceName() != null) {
+            Integer index = serviceNameIndex.get(query.getServiceName());
+            if (index == null) {
+                return new int[0];
+            }
+            serviceName = index;
+        }
+        int dateFrom = query.getDateFrom() == null ? NO_DAY : (int) query.getDateFrom().toEpochDay();
+        int dateTo = query.getDateTo() == null ? Integer.MAX_VALUE : (int) query.getDateTo().toEpochDay();
+        boolean dateFilter = query.getDateFrom() != null || query.getDateTo() != null;
+
+        int[] result = new int[order.length];
+        int count = 0;
+        for (int position = 0; position < order.length; position++) {
+            int row = descending ? order[order.length - 1 - position] : order[position];
+            if (dateFilter && (creationDays[row] == NO_DAY || creationDays[row] < dateFrom
+                    || creationDays[row] > dateTo)) {
+                continue;
+            }
+            if (locationMatches != null && (locations[row] == NO_LOCATION || !locationMatches[locations[row]])) {
+                continue;
+            }
+            if (serviceName != NO_NAME && !hasService(row, serviceName)) {
+                continue;
+            }
+            result[count++] = row;
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private boolean hasService(int row, int serviceName) {
+        for (int service = serviceStart[row]; service < serviceStart[row + 1]; service++) {
+            if (serviceNames[service] == serviceName) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AttractionView view(int row) {
+        int location = locations[row];
+        LocationView locationView = location == NO_LOCATION ? null : new LocationView(
+                locationIds[location],
+                locationNames[location],
+                populations[location] == NO_VALUE ? null : populations[location],
+                hasMetro[location] == NO_METRO ? null : hasMetro[location] == 1);
+        List<ServiceView> services = new ArrayList<>(serviceStart[row + 1] - serviceStart[row]);
+        for (int service = serviceStart[row]; service < serviceStart[row + 1]; service++) {
+            services.add(new ServiceView(serviceIds[service], serviceNameDictionary[serviceNames[service]],
+                    serviceDescriptions[service]));
+        }
+        return new AttractionView(ids[row], names[row],
+                creationDays[row] == NO_DAY ? null : LocalDate.ofEpochDay(creationDays[row]),
+                descriptions[row],
+                types[row] == NO_TYPE ? null : TYPES[types[row]],
+                locationView,
+                List.copyOf(services));
+    }
+
+    private int compare(AttractionSortField field, int left, int right) {
+        int result = switch (field) {
+            case ID -> 0;
+            case NAME -> compareNullsLast(names[left], names[right]);
+            case DESCRIPTION -> compareNullsLast(descriptions[left], descriptions[right]);
+            case DATE -> compareNullsLast(creationDays[left], creationDays[right], NO_DAY);
+            case LOCATION -> compareNullsLast(locationId(left), locationId(right));
+            case SERVICE -> compareNullsLast(minServiceId(left), minServiceId(right));
+        };
+        return result != 0 ? result : Long.compare(ids[left], ids[right]);
+    }
+
+    private int compareToCursor(AttractionSortField field, int row, AttractionCursor cursor) {
+        Object key = cursor.getLastKey();
+        int result = switch (field) {
+            case ID -> 0;
+            case NAME -> compareNullsLast(names[row], (String) key);
+            case DESCRIPTION -> compareNullsLast(descriptions[row], (String) key);
+            case DATE -> compareNullsLast(creationDays[row],
+                    key == null ? NO_DAY : (int) ((LocalDate) key).toEpochDay(), NO_DAY);
+            case LOCATION -> compareNullsLast(locationId(row), key == null ? NO_VALUE : (Long) key);
+            case SERVICE -> compareNullsLast(minServiceId(row), key == null ? NO_VALUE : (Long) key);
+        };
+        return result != 0 ? result : Long.compare(ids[row], cursor.getLastId());
+    }
+
+    private long locationId(int row) {
+        return locations[row] == NO_LOCATION ? NO_VALUE : locationIds[locations[row]];
+    }
+
+    private long minServiceId(int row) {
+        return serviceStart[row] == serviceStart[row + 1] ? NO_VALUE : serviceIds[serviceStart[row]];
+    }
+
+    private static int compareNullsLast(String left, String right) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : 1) : -1;
+        }
+        return compareCodePoints(left, right);
+    }
+
+    /**
+     * Сравнивает строки по кодам символов Unicode, что совпадает с побайтовым сравнением UTF-8.
+     * {@link String#compareTo} сравнивает UTF-16 и ставит символы вне BMP перед символами U+E000-U+FFFF.
+     */
+    private static int compareCodePoints(String left, String right) {
+        int length = Math.min(left.length(), right.length());
+        for (int i = 0; i < length; i++) {
+            char leftChar = left.charAt(i);
+            char rightChar = right.charAt(i);
+            if (leftChar != rightChar) {
+                return Character.isSurrogate(leftChar) || Character.isSurrogate(rightChar)
+                        ? Integer.compare(left.codePointAt(i), right.codePointAt(i))
+                        : leftChar - rightChar;
+            }
+        }
+        return left.length() - right.length();
+    }
+
+    private static int compareNullsLast(int left, int right, int none) {
+        if (left == none || right == none) {
+            return left == none ? (right == none ? 0 : 1) : -1;
+        }
+        return Integer.compare(left, right);
+    }
+
+    private static int compareNullsLast(long left, long right) {
+        if (left == NO_VALUE || right == NO_VALUE) {
+            return left == NO_VALUE ? (right == NO_VALUE ? 0 : 1) : -1;
+        }
+        return Long.compare(left, right);
+    }
+
+    /**
+     * Стабильная сортировка слиянием массива номеров строк без упаковки в Integer.
+     */
+    private void sort(int[] rows, AttractionSortField field) {
+        if (rows.length < 2) {
+            return;
+        }
+        int[] buffer = new int[rows.length];
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int from = 0; from < rows.length - width; from += 2 * width) {
+                int middle = from + width;
+                int to = Math.min(from + 2 * width, rows.length);
+                int left = from;
+                int right = middle;
+                int out = from;
+                while (left < middle && right < to) {
+                    buffer[out++] = compare(field, rows[left], rows[right]) <= 0 ? rows[left++] : rows[right++];
+                }
+                while (left < middle) {
+                    buffer[out++] = rows[left++];
+                }
+                while (right < to) {
+                    buffer[out++] = rows[right++];
+                }
+                System.arraycopy(buffer, from, rows, from, to - from);
+            }
+        }
+    }
+
+    private int[] merge(int[] first, int[] second, AttractionSortField field) {
+        if (second.length == 0) {
+            return first;
+        }
+        int[] result = new int[first.length + second.length];
+        int left = 0;
+        int right = 0;
+        int out = 0;
+        while (left < first.length && right < second.length) {
+            result[out++] = compare(field, first[left], second[right]) <= 0 ? first[left++] : second[right++];
+        }
+        System.arraycopy(first, left, result, out, first.length - left);
+        System.arraycopy(second, right, result, out + first.length - left, second.length - right);
+        return result;
+    }
+
+    private static Map<Long, List<ServiceRow>> groupByAttraction(List<ServiceRow> services) {
+        Map<Long, List<ServiceRow>> grouped = new HashMap<>();
+        for (ServiceRow service : services) {
+            grouped.computeIfAbsent(service.idAttraction(), id -> new ArrayList<>()).add(service);
+        }
+        for (List<ServiceRow> group : grouped.values()) {
+            group.sort((left, right) -> Long.compare(left.idService(), right.idService()));
+        }
+        return grouped;
+    }
+
+    private static long toMicros(Instant instant) {
+        return instant == null ? NO_VALUE : ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static Instant toInstant(long micros) {
+        return micros == NO_VALUE ? null : Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Заполняет колонки нового снимка строка за строкой.
+     */
+    private static final class Builder {
+        private int size;
+        private final long[] ids;
+        private final String[] names;
+        private final String[] descriptions;
+        private final int[] creationDays;
+        private final byte[] types;
+        private final long[] versions;
+        private final long[] updatedAt;
+        private final int[] locations;
+
+        private final Map<Long, Integer> locationIndex = new HashMap<>();
+        private final long[] locationIds;
+        private final String[] locationNames;
+        private final long[] populations;
+        private final byte[] hasMetro;
+        private final long[] locationVersions;
+        private final long[] locationUpdatedAt;
+        private final Map<String, String> locationNamePool = new HashMap<>();
+
+        private int serviceCount;
+        private final int[] serviceStart;
+        private final long[] serviceIds;
+        private final int[] serviceNames;
+        private final String[] serviceDescriptions;
+        private final List<String> serviceNameDictionary = new ArrayList<>();
+        private final Map<String, Integer> serviceNameIndex = new HashMap<>();
+
+        private Builder(int rows, int services) {
+            ids = new long[rows];
+            names = new String[rows];
+            descriptions = new String[rows];
+            creationDays = new int[rows];
+            types = new byte[rows];
+            versions = new long[rows];
+            updatedAt = new long[rows];
+            locations = new int[rows];
+            locationIds = new long[rows];
+            locationNames = new String[rows];
+            populations = new long[rows];
+            hasMetro = new byte[rows];
+            locationVersions = new long[rows];
+            locationUpdatedAt = new long[rows];
+            serviceStart = new int[rows + 1];
+            serviceIds = new long[services];
+            serviceNames = new int[services];
+            serviceDescriptions = new String[services];
+        }
+
+        private int addLocation(AttractionCatalogueRow row) {
+            if (row.idLocation() == null) {
+                return NO_LOCATION;
+            }
+            return addLocation(row.idLocation(), row.nameLocation(),
+                    row.populationLocation() == null ? NO_VALUE : row.populationLocation(),
+                    row.hasMetro() == null ? NO_METRO : (byte) (row.hasMetro() ? 1 : 0),
+                    row.locationVersion() == null ? 0 : row.locationVersion(),
+                    toMicros(row.locationUpdatedAt()));
+        }
+
+        private int addLocation(long id, String name, long population, byte metro, long version, long changedAt) {
+            Integer existing = locationIndex.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            int index = locationIndex.size();
+            locationIndex.put(id, index);
+            locationIds[index] = id;
+            locationNames[index] = name == null ? null : locationNamePool.computeIfAbsent(name, key -> key);
+            populations[index] = population;
+            hasMetro[index] = metro;
+            locationVersions[index] = version;
+            locationUpdatedAt[index] = changedAt;
+            return index;
+        }
+
+        private void addRow(AttractionCatalogueRow row, List<ServiceRow> services) {
+            int index = startRow(row.idAttraction(), row.name(), row.description(),
+                    row.creationDate() == null ? NO_DAY : (int) row.creationDate().toEpochDay(),
+                    row.type() == null ? NO_TYPE : (byte) row.type().ordinal(),
+                    row.version() == null ? 0 : row.version(),
+                    toMicros(row.updatedAt()),
+                    addLocation(row));
+            for (ServiceRow service : services) {
+                addService(service.idService(), service.name(), service.description());
+            }
+            size = index + 1;
+        }
+
+        private int copyRow(AttractionCatalogue source, int row) {
+            int location = source.locations[row];
+            int copiedLocation = location == NO_LOCATION ? NO_LOCATION : addLocation(
+                    source.locationIds[location], source.locationNames[location], source.populations[location],
+                    source.hasMetro[location], source.locationVersions[location], source.locationUpdatedAt[location]);
+            int index = startRow(source.ids[row], source.names[row], source.descriptions[row],
+                    source.creationDays[row], source.types[row], source.versions[row], source.updatedAt[row],
+                    copiedLocation);
+            for (int service = source.serviceStart[row]; service < source.serviceStart[row + 1]; service++) {
+                addService(source.serviceIds[service], source.serviceNameDictionary[source.serviceNames[service]],
+                        source.serviceDescriptions[service]);
+            }
+            size = index + 1;
+            return index;
+        }
+
+        private int startRow(long id, String name, String description, int day, byte type,
+                             long version, long changedAt, int location) {
+            int index = size;
+            ids[index] = id;
+            names[index] = name;
+            descriptions[index] = description;
+            creationDays[index] = day;
+            types[index] = type;
+            versions[index] = version;
+            updatedAt[index] = changedAt;
+            locations[index] = location;
+            serviceStart[index] = serviceCount;
+            return index;
+        }
+
+        private void addService(long id, String name, String description) {
+            Integer nameIndex = serviceNameIndex.get(name);
+            if (nameIndex == null) {
+                nameIndex = serviceNameDictionary.size();
+                serviceNameDictionary.add(name);
+                serviceNameIndex.put(name, nameIndex);
+            }
+            serviceIds[serviceCount] = id;
+            serviceNames[serviceCount] = nameIndex;
+            serviceDescriptions[serviceCount] = description;
+            serviceCount++;
+        }
+    }
+}
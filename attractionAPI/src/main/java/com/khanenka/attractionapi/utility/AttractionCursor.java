@@ -0,0 +1,135 @@
+package com.khanenka.attractionapi.utility;
+
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.ServiceView;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.exception.AttractionValidationException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Класс AttractionCursor - позиция последней выданной записи при постраничной выборке
+ * со свойствами <b>sortField</b>,<b>lastKey</b>,<b>lastId</b>.
+ * Клиенту передается в виде непрозрачной строки (base64url).
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class AttractionCursor {
+    private static final String SEPARATOR = "|";
+    private static final String NULL_KEY = "~";
+    private static final String VALUE_KEY = "=";
+
+    /**
+     * Поле сортировки, для которого выдан курсор
+     */
+    private final AttractionSortField sortField;
+    /**
+     * Значение ключа сортировки последней записи (String, Long, LocalDate или null)
+     */
+    private final Object lastKey;
+    /**
+     * Идентификатор последней записи
+     */
+    private final Long lastId;
+
+    /**
+     * @param sortField поле сортировки
+     * @param lastKey   значение ключа сортировки последней записи
+     * @param lastId    идентификатор последней записи
+     */
+    public AttractionCursor(AttractionSortField sortField, Object lastKey, Long lastId) {
+        this.sortField = sortField;
+        this.lastKey = lastKey;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Строит курсор, указывающий на переданную достопримечательность.
+     *
+     * @param sortField  поле сортировки страницы
+     * @param attraction последняя достопримечательность страницы
+     * @return курсор для запроса следующей страницы
+     */
+    public static AttractionCursor after(AttractionSortField sortField, AttractionView attraction) {
+        return new AttractionCursor(sortField, keyOf(sortField, attraction), attraction.idAttraction());
+    }
+
+    /**
+     * Кодирует курсор в непрозрачную строку.
+     *
+     * @return строка курсора
+     */
+    public String encode() {
+        String key = lastKey == null ? NULL_KEY : VALUE_KEY + lastKey;
+        String raw = sortField.getParam() + SEPARATOR + lastId + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует строку курсора.
+     *
+     * @param token     строка курсора, полученная от клиента
+     * @param sortField поле сортировки текущего запроса
+     * @return курсор
+     * @throws AttractionValidationException если курсор поврежден или выдан для другой сортировки
+     */
+    public static AttractionCursor decode(String token, AttractionSortField sortField) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            if (parts.length != 3 || !sortField.getParam().equals(parts[0])) {
+                throw new AttractionValidationException("Курсор не соответствует параметру sortBy: " + sortField.getParam());
+            }
+            Long lastId = Long.valueOf(parts[1]);
+            Object lastKey = NULL_KEY.equals(parts[2]) ? null : parseKey(sortField, parts[2].substring(VALUE_KEY.length()));
+            return new AttractionCursor(sortField, lastKey, lastId);
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new AttractionValidationException("Некорректный курсор: " + token);
+        }
+    }
+
+    private static Object parseKey(AttractionSortField sortField, String value) {
+        switch (sortField) {
+            case LOCATION:
+            case SERVICE:
+            case ID:
+                return Long.valueOf(value);
+            case DATE:
+                return LocalDate.parse(value);
+            default:
+                return value;
+        }
+    }
+
+    private static Object keyOf(AttractionSortField sortField, AttractionView attraction) {
+        switch (sortField) {
+            case NAME:
+                return attraction.name();
+            case DESCRIPTION:
+                return attraction.description();
+            case DATE:
+                return attraction.creationDate();
+            case LOCATION:
+                return attraction.location() == null ? null : attraction.location().idLocation();
+            case SERVICE:
+                return attraction.services() == null ? null : attraction.services().stream()
+                        .map(ServiceView::idService)
+                        .filter(Objects::nonNull)
+                        .min(Long::compare)
+                        .orElse(null);
+            default:
+                return attraction.idAttraction();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.khanenka.attractionapi.utility;
+
+import com.khanenka.attractionapi.entity.dto.AttractionCatalogueRow;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Класс CatalogueSnapshotFile - двоичный файл снимка каталога достопримечательностей, локаций и услуг
+ * со свойствами <b>takenAt</b>,<b>changeSeq</b>,<b>rows</b>,<b>services</b>.
+ * <p>
+ * Формат: сигнатура, версия формата, момент снимка, номер последней учтенной записи журнала изменений,
+ * строки достопримечательностей вместе с локациями,
+ * строки услуг и контрольная сумма CRC32 всего предшествующего содержимого. Числа записываются
+ * в порядке big-endian, строки - длиной и байтами UTF-8, null - отдельным признаком.
+ * Файл записывается во временный файл рядом и атомарно переименовывается, поэтому читатель
+ * никогда не видит недописанный снимок; при чтении файл отображается в память целиком.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public final class CatalogueSnapshotFile {
+
+    /**
+     * сигнатура файла снимка ("ATRS")
+     */
+    public static final int MAGIC = 0x41545253;
+    /**
+     * версия формата; увеличивается при любом несовместимом изменении
+     */
+    public static final int FORMAT_VERSION = 2;
+    private static final int NULL_LENGTH = -1;
+    private static final byte NULL_FLAG = 0;
+    private static final byte VALUE_FLAG = 1;
+    private static final byte NO_METRO = -1;
+
+    private final Instant takenAt;
+    private final long changeSeq;
+    private final List<AttractionCatalogueRow> rows;
+    private final List<ServiceRow> services;
+
+    /**
+     * Конструктор снимка.
+     *
+     * @param takenAt   момент чтения данных из базы
+     * @param changeSeq номер последней записи журнала изменений, учтенной в снимке
+     * @param rows      строки достопримечательностей вместе с локациями
+     * @param services  строки услуг
+     */
+    public CatalogueSnapshotFile(Instant takenAt, long changeSeq, List<AttractionCatalogueRow> rows,
+                                 List<ServiceRow> services) {
+        this.takenAt = takenAt;
+        this.changeSeq = changeSeq;
+        this.rows = rows;
+        this.services = services;
+    }
+
+    /**
+     * Возвращает момент чтения данных снимка из базы.
+     *
+     * @return момент снимка
+     */
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * Возвращает номер последней записи журнала изменений, учтенной в снимке:
+     * изменения с большими номерами нужно применить к снимку, чтобы он стал актуальным.
+     *
+     * @return номер записи журнала изменений
+     */
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    /**
+     * Возвращает строки достопримечательностей снимка.
+     *
+     * @return строки достопримечательностей вместе с локациями
+     */
+    public List<AttractionCatalogueRow> getRows() {
+        return rows;
+    }
+
+    /**
+     * Возвращает строки услуг снимка.
+     *
+     * @return строки услуг
+     */
+    public List<ServiceRow> getServices() {
+        return services;
+    }
+
+    /**
+     * Записывает снимок в файл, атомарно заменяя предыдущий.
+     *
+     * @param path путь к файлу снимка
+     * @throws IOException если файл не удалось записать
+     */
+    public void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temporary)) {
+                CRC32 checksum = new CRC32();
+                DataOutputStream out = new DataOutputStream(
+                        new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), checksum));
+                writeContent(out);
+                out.flush();
+                new DataOutputStream(file).writeLong(checksum.getValue());
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Отображает файл снимка в память и читает его.
+     *
+     * @param path путь к файлу снимка
+     * @return прочитанный снимок
+     * @throws IOException если файл не удалось прочитать, он поврежден или записан в другой версии формата
+     */
+    public static CatalogueSnapshotFile read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE || size < Long.BYTES) {
+                throw new IOException("Некорректный размер файла снимка: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int contentLength = (int) size - Long.BYTES;
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.slice(0, contentLength));
+            if (checksum.getValue() != buffer.getLong(contentLength)) {
+                throw new IOException("Контрольная сумма файла снимка не совпадает: " + path);
+            }
+            return readContent(buffer.slice(0, contentLength));
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Файл снимка поврежден: " + path, e);
+        }
+    }
+
+    private void writeContent(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeInstant(out, takenAt);
+        out.writeLong(changeSeq);
+        out.writeInt(rows.size());
+        for (AttractionCatalogueRow row : rows) {
+            out.writeLong(row.idAttraction());
+            writeString(out, row.name());
+            writeNullable(out, row.creationDate() == null ? null : row.creationDate().toEpochDay());
+            writeString(out, row.description());
+            writeString(out, row.type() == null ? null : row.type().name());
+            writeNullable(out, row.version());
+            writeInstant(out, row.updatedAt());
+            writeNullable(out, row.idLocation());
+            writeString(out, row.nameLocation());
+            writeNullable(out, row.populationLocation());
+            out.writeByte(row.hasMetro() == null ? NO_METRO : row.hasMetro() ? 1 : 0);
+            writeNullable(out, row.locationVersion());
+            writeInstant(out, row.locationUpdatedAt());
+        }
+        out.writeInt(services.size());
+        for (ServiceRow service : services) {
+            out.writeLong(service.idAttraction());
+            out.writeLong(service.idService());
+            writeString(out, service.name());
+            writeString(out, service.description());
+        }
+    }
+
+    private static CatalogueSnapshotFile readContent(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Файл не является снимком каталога");
+        }
+        int formatVersion = in.getInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Неподдерживаемая версия формата снимка: " + formatVersion);
+        }
+        Instant takenAt = readInstant(in);
+        long changeSeq = in.getLong();
+        int rowCount = in.getInt();
+        List<AttractionCatalogueRow> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            long idAttraction = in.getLong();
+            String name = readString(in);
+            Long creationDay = readNullable(in);
+            String description = readString(in);
+            String type = readString(in);
+            Long version = readNullable(in);
+            Instant updatedAt = readInstant(in);
+            Long idLocation = readNullable(in);
+            String nameLocation = readString(in);
+            Long populationLocation = readNullable(in);
+            byte hasMetro = in.get();
+            Long locationVersion = readNullable(in);
+            Instant locationUpdatedAt = readInstant(in);
+            rows.add(new AttractionCatalogueRow(idAttraction, name,
+                    creationDay == null ? null : LocalDate.ofEpochDay(creationDay), description,
+                    type == null ? null : AttractionType.valueOf(type), version, updatedAt,
+                    idLocation, nameLocation, populationLocation, hasMetro == NO_METRO ? null : hasMetro == 1,
+                    locationVersion, locationUpdatedAt));
+        }
+        int serviceCount = in.getInt();
+        List<ServiceRow> services = new ArrayList<>(serviceCount);
+        for (int i = 0; i < serviceCount; i++) {
+            services.add(new ServiceRow(in.getLong(), in.getLong(), readString(in), readString(in)));
+        }
+        if (in.hasRemaining()) {
+            throw new IOException("Лишние данные в конце файла снимка");
+        }
+        return new CatalogueSnapshotFile(takenAt, changeSeq, rows, services);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullable(DataOutputStream out, Long value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_FLAG);
+            return;
+        }
+        out.writeByte(VALUE_FLAG);
+        out.writeLong(value);
+    }
+
+    private static Long readNullable(ByteBuffer in) {
+        return in.get() == NULL_FLAG ? null : in.getLong();
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_FLAG);
+            return;
+        }
+        out.writeByte(VALUE_FLAG);
+        out.writeLong(value.getEpochSecond());
+        out.writeInt(value.getNano());
+    }
+
+    private static Instant readInstant(ByteBuffer in) {
+        return in.get() == NULL_FLAG ? null : Instant.ofEpochSecond(in.getLong(), in.getInt());
+    }
+}
@@ -0,0 +1,77 @@
+package com.khanenka.attractionapi.utility;
+
+/**
+ * Класс GeoDistance - расчет расстояний между точками на поверхности Земли.
+ * Радиус Земли совпадает с earth() расширения PostgreSQL earthdistance,
+ * поэтому расстояния в базе и в памяти совпадают.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public final class GeoDistance {
+    /**
+     * Радиус Земли в метрах
+     */
+    public static final double EARTH_RADIUS_METERS = 6378168;
+
+    private GeoDistance() {
+    }
+
+    /**
+     * Проверяет, что координаты либо обе отсутствуют, либо обе заданы и лежат в допустимых пределах.
+     *
+     * @param latitude  широта в градусах
+     * @param longitude долгота в градусах
+     * @return true, если координаты допустимы
+     */
+    public static boolean isValid(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return latitude == null && longitude == null;
+        }
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * Вычисляет расстояние по дуге большого круга (формула гаверсинусов).
+     *
+     * @param latitude1  широта первой точки в градусах
+     * @param longitude1 долгота первой точки в градусах
+     * @param latitude2  широта второй точки в градусах
+     * @param longitude2 долгота второй точки в градусах
+     * @return расстояние в метрах
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLat = Math.toRadians(latitude2 - latitude1);
+        double dLon = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Вычисляет границы прямоугольника широт и долгот, содержащего круг заданного радиуса.
+     * Если круг касается полюса или пересекает 180-й меридиан, долгота не ограничивается.
+     *
+     * @param latitude     широта центра в градусах
+     * @param longitude    долгота центра в градусах
+     * @param radiusMeters радиус в метрах
+     * @return массив {minLatitude, maxLatitude, minLongitude, maxLongitude}
+     */
+    public static double[] boundingBox(double latitude, double longitude, double radiusMeters) {
+        double dLat = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        double minLat = latitude - dLat;
+        double maxLat = latitude + dLat;
+        if (minLat <= -90 || maxLat >= 90) {
+            return new double[]{Math.max(minLat, -90), Math.min(maxLat, 90), -180, 180};
+        }
+        double dLon = Math.toDegrees(Math.asin(Math.min(1, Math.sin(radiusMeters / EARTH_RADIUS_METERS)
+                / Math.cos(Math.toRadians(latitude)))));
+        double minLon = longitude - dLon;
+        double maxLon = longitude + dLon;
+        if (minLon < -180 || maxLon > 180) {
+            return new double[]{minLat, maxLat, -180, 180};
+        }
+        return new double[]{minLat, maxLat, minLon, maxLon};
+    }
+}
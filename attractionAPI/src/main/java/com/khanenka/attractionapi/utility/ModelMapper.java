@@ -2,15 +2,27 @@ package com.khanenka.attractionapi.utility;
 
 import com.khanenka.attractionapi.entity.Attraction;
 import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.Service;
 import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
 import com.khanenka.attractionapi.entity.dto.LocationDTO;
+import com.khanenka.attractionapi.entity.dto.LocationView;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.dto.ServiceView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
- * Interface  ModelMapper с методами <b>entityToAttractionDto</b>,
- * <b>dtoToAttractionEntity</b>,<b>dtoToLocationEntity</b>
+ * Interface  ModelMapper с методами <b>entityToAttractionDto</b>,<b>entityToDetachedAttractionDto</b>,
+ * <b>dtoToAttractionEntity</b>,<b>dtoToLocationEntity</b>,<b>entityToAttractionView</b>,
+ * <b>serviceRowToServiceView</b>,<b>rowToAttractionView</b>,<b>rowsToAttractionViews</b>
  *
  * @author Khanenka
  * *
@@ -30,6 +42,32 @@ public interface ModelMapper {
      */
     @Mapping(source = "idAttraction", target = "idAttraction")
     AttractionDTO entityToAttractionDto(Attraction attraction);
+    /**
+     * конвертирует attraction в attractionDTO, не связанный с сущностями из контекста персистентности:
+     * локация и услуги копируются без обратных ссылок, список услуг неизменяемый.
+     * Используется для значений, которые хранятся в кэше.
+     *
+     * @param attraction конвертируем attraction
+     * @return AttractionDTO
+     */
+    default AttractionDTO entityToDetachedAttractionDto(Attraction attraction) {
+        AttractionDTO attractionDTO = entityToAttractionDto(attraction);
+        Location location = attraction.getLocation();
+        if (location != null) {
+            attractionDTO.setLocation(new Location(location.getIdLocation(), location.getNameLocation(),
+                    location.getPopulationLocation(), location.getHasMetro(), null,
+                    location.getLatitude(), location.getLongitude(), location.getVersion(), location.getUpdatedAt()));
+        }
+        List<Service> services = new ArrayList<>();
+        if (attraction.getServices() != null) {
+            for (Service service : attraction.getServices()) {
+                services.add(new Service(service.getIdService(), service.getName(), service.getDescription(), null));
+            }
+        }
+        attractionDTO.setServices(List.copyOf(services));
+        return attractionDTO;
+    }
+
     /**
      * конвертирует  attractionDTO в attraction .
      *
@@ -37,6 +75,8 @@ public interface ModelMapper {
      * @return AttractionDTO
      */
     @Mapping(source = "idAttraction", target = "idAttraction")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     Attraction dtoToAttractionEntity(AttractionDTO attractionDTO);
     /**
      * конвертирует  locationDTO в location .
@@ -45,5 +85,59 @@ public interface ModelMapper {
      * @return AttractionDTO
      */
     @Mapping(source = "idLocation", target = "idLocation")
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     Location dtoToLocationEntity(LocationDTO locationDTO);
+
+    /**
+     * конвертирует attraction в неизменяемую модель чтения.
+     *
+     * @param attraction конвертируем attraction
+     * @return AttractionView
+     */
+    AttractionView entityToAttractionView(Attraction attraction);
+
+    /**
+     * конвертирует строку выборки услуги в модель чтения.
+     *
+     * @param serviceRow конвертируем serviceRow
+     * @return ServiceView
+     */
+    ServiceView serviceRowToServiceView(ServiceRow serviceRow);
+
+    /**
+     * собирает модель чтения достопримечательности из плоской строки выборки и ее услуг.
+     *
+     * @param row      строка выборки достопримечательности
+     * @param services услуги достопримечательности
+     * @return AttractionView
+     */
+    default AttractionView rowToAttractionView(AttractionRow row, List<ServiceView> services) {
+        LocationView location = row.idLocation() == null
+                ? null
+                : new LocationView(row.idLocation(), row.nameLocation(), row.populationLocation(), row.hasMetro());
+        return new AttractionView(row.idAttraction(), row.name(), row.creationDate(), row.description(),
+                row.type(), location, services);
+    }
+
+    /**
+     * собирает модели чтения из строк выборки достопримечательностей и услуг, сохраняя порядок строк.
+     *
+     * @param rows        строки выборки достопримечательностей
+     * @param serviceRows строки выборки услуг этих достопримечательностей
+     * @return список AttractionView
+     */
+    default List<AttractionView> rowsToAttractionViews(List<AttractionRow> rows, List<ServiceRow> serviceRows) {
+        Map<Long, List<ServiceView>> servicesByAttraction = new HashMap<>();
+        for (ServiceRow serviceRow : serviceRows) {
+            servicesByAttraction.computeIfAbsent(serviceRow.idAttraction(), id -> new ArrayList<>())
+                    .add(serviceRowToServiceView(serviceRow));
+        }
+        List<AttractionView> views = new ArrayList<>(rows.size());
+        for (AttractionRow row : rows) {
+            views.add(rowToAttractionView(row,
+                    List.copyOf(servicesByAttraction.getOrDefault(row.idAttraction(), List.of()))));
+        }
+        return views;
+    }
 }
@@ -0,0 +1,54 @@
+package com.khanenka.attractionapi.utility;
+
+/**
+ * Класс VersionTag - представление версии строки (поле {@code @Version}) в заголовках ETag и If-Match.
+ * Версия передается как строгий ETag в кавычках, например {@code "3"}. If-Match сравнивается строго
+ * (RFC 9110, 13.1.1), поэтому слабая форма {@code W/"3"} не принимается.
+ *
+ * @author Khanenka
+ * @version 1.0
+ */
+public final class VersionTag {
+
+    private VersionTag() {
+    }
+
+    /**
+     * Формирует значение ETag для версии.
+     *
+     * @param version версия строки
+     * @return версия в кавычках
+     */
+    public static String format(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Разбирает значение заголовка If-Match.
+     *
+     * @param ifMatch значение заголовка (null - заголовок не передан)
+     * @return ожидаемая версия или null, если заголовок не передан или равен "*"
+     * @throws IllegalArgumentException если значение не является версией или является слабым ETag
+     */
+    public static Long parse(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new IllegalArgumentException("Слабый ETag не допускается в If-Match: " + ifMatch);
+        }
+        if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            long version = Long.parseLong(tag);
+            if (version < 0) {
+                throw new IllegalArgumentException("Некорректная версия в If-Match: " + ifMatch);
+            }
+            return version;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректная версия в If-Match: " + ifMatch, e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.khanenka.attractionapi.config;
+
+import io.micrometer.common.KeyValues;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AttractionRequestObservationConventionTest {
+
+    private final AttractionRequestObservationConvention convention = new AttractionRequestObservationConvention();
+
+    @Test
+    void testTagsKnownSortByAndType() {
+        KeyValues keyValues = keyValues("sortBy", "date", "type", "PARK");
+        assertEquals("date", value(keyValues, "sortBy"));
+        assertEquals("PARK", value(keyValues, "type"));
+    }
+
+    @Test
+    void testTagsMissingParametersAsNone() {
+        KeyValues keyValues = keyValues();
+        assertEquals("none", value(keyValues, "sortBy"));
+        assertEquals("none", value(keyValues, "type"));
+    }
+
+    @Test
+    void testTagsUnknownValuesAsInvalid() {
+        KeyValues keyValues = keyValues("sortBy", "population' OR 1=1", "type", "ZOO");
+        assertEquals("invalid", value(keyValues, "sortBy"));
+        assertEquals("invalid", value(keyValues, "type"));
+    }
+
+    private KeyValues keyValues(String... params) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/attractions");
+        for (int i = 0; i < params.length; i += 2) {
+            request.addParameter(params[i], params[i + 1]);
+        }
+        return convention.getLowCardinalityKeyValues(
+                new ServerRequestObservationContext(request, new MockHttpServletResponse()));
+    }
+
+    private static String value(KeyValues keyValues, String key) {
+        return keyValues.stream()
+                .filter(keyValue -> keyValue.getKey().equals(key))
+                .findFirst()
+                .orElseThrow()
+                .getValue();
+    }
+}
@@ -0,0 +1,62 @@
+package com.khanenka.attractionapi.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private CacheConfig cacheConfig;
+    private Cache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cacheConfig = new CacheConfig();
+        cache = cacheConfig.cacheManager("maximumSize=10", "maximumSize=10", Duration.ofMillis(200))
+                .getCache(CacheConfig.ATTRACTION_BY_ID);
+        cache.put(1L, "старое");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cacheConfig.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testEvict_InsideTransaction_AppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(1L);
+        assertNotNull(cache.get(1L));
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testEvict_WithoutTransaction_AppliedImmediately() {
+        cache.evict(1L);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testEvict_RepeatedAfterDelay_RemovesValuePutByStaleRead() throws InterruptedException {
+        cache.evict(1L);
+        cache.put(1L, "прочитано до коммита");
+        assertNotNull(cache.get(1L));
+
+        Thread.sleep(600);
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,116 @@
+package com.khanenka.attractionapi.config;
+
+import com.khanenka.attractionapi.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DatabaseGateAspectTest {
+
+    private DatabaseGateAspect gate;
+    private ProceedingJoinPoint joinPoint;
+
+    @BeforeEach
+    public void setUp() throws Throwable {
+        gate = new DatabaseGateAspect(1, Duration.ZERO, new SimpleMeterRegistry());
+        joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(mock(Signature.class));
+        when(joinPoint.proceed()).thenReturn("result");
+    }
+
+    @Test
+    void testLimit_ReleasesPermitAfterCall() throws Throwable {
+        assertEquals("result", gate.limit(joinPoint));
+        assertEquals("result", gate.limit(joinPoint));
+    }
+
+    @Test
+    void testLimit_FailsFastWhenAllPermitsAreTaken() throws Throwable {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ProceedingJoinPoint slowCall = mock(ProceedingJoinPoint.class);
+        when(slowCall.proceed()).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return "slow";
+        });
+        CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return gate.limit(slowCall);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        assertThrows(DatabaseBusyException.class, () -> gate.limit(joinPoint));
+
+        release.countDown();
+        assertEquals("slow", running.get(5, TimeUnit.SECONDS));
+        assertEquals("result", gate.limit(joinPoint));
+    }
+
+    @Test
+    void testLimit_NestedCallsShareOnePermit() throws Throwable {
+        ProceedingJoinPoint outer = mock(ProceedingJoinPoint.class);
+        when(outer.proceed()).thenAnswer(invocation -> gate.limit(joinPoint));
+
+        assertEquals("result", gate.limit(outer));
+        assertEquals("result", gate.limit(joinPoint));
+        verify(joinPoint, times(2)).proceed();
+    }
+
+    @Test
+    void testLimit_TakesPermitBeforeTransactionBegins() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DatabaseGateAspect orderedGate = new DatabaseGateAspect(1, Duration.ZERO, registry);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            assertEquals(0.0, registry.get("attractions.db.gate.available").gauge().value());
+            return new SimpleTransactionStatus();
+        });
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TransactionalWriter());
+        factory.addAspect(orderedGate);
+        factory.addAdvice(new TransactionInterceptor((TransactionManager) transactionManager,
+                new AnnotationTransactionAttributeSource()));
+        TransactionalWriter writer = factory.getProxy();
+
+        assertEquals("written", writer.write());
+        verify(transactionManager).getTransaction(any());
+        assertEquals(1.0, registry.get("attractions.db.gate.available").gauge().value());
+    }
+
+    @Test
+    void testGate_OrderedBeforeTransactionInterceptor() {
+        assertTrue(OrderUtils.getOrder(DatabaseGateAspect.class, Ordered.LOWEST_PRECEDENCE) < Ordered.LOWEST_PRECEDENCE);
+    }
+
+    /**
+     * Сервис с транзакционным методом для проверки порядка аспекта и транзакции.
+     */
+    public static class TransactionalWriter {
+        @Transactional
+        public String write() {
+            return "written";
+        }
+    }
+}
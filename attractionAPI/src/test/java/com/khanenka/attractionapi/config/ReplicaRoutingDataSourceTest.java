@@ -0,0 +1,108 @@
+package com.khanenka.attractionapi.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "select lag_seconds from replication_status";
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private DataSource replicaDataSource;
+    private DataSource primaryDataSource;
+
+    @BeforeEach
+    public void setUp() {
+        primaryDataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1", "sa", "");
+        replicaDataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1", "sa", "");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        primary.execute("create table node (name varchar(20))");
+        primary.update("insert into node values ('primary')");
+        replica.execute("create table node (name varchar(20))");
+        replica.update("insert into node values ('replica')");
+        replica.execute("create table replication_status (lag_seconds double)");
+        replica.update("insert into replication_status values (0.5)");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        primary.execute("drop all objects");
+        replica.execute("drop all objects");
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToReplica() {
+        ReplicaRoutingDataSource routing = routing(Map.of("replica-0", replicaDataSource));
+        routing.checkReplicas();
+
+        assertEquals(List.of("replica-0"), routing.getHealthyReplicas());
+        assertEquals("replica", currentNode(routing, true));
+        assertEquals("primary", currentNode(routing, false));
+    }
+
+    @Test
+    void testPrimaryReadsOverrideReplica() {
+        ReplicaRoutingDataSource routing = routing(Map.of("replica-0", replicaDataSource));
+        routing.checkReplicas();
+
+        try (PrimaryReads.Scope ignored = PrimaryReads.require()) {
+            assertEquals("primary", currentNode(routing, true));
+        }
+        assertEquals("replica", currentNode(routing, true));
+    }
+
+    @Test
+    void testLaggingReplicaIsExcluded() {
+        ReplicaRoutingDataSource routing = routing(Map.of("replica-0", replicaDataSource));
+        replica.update("update replication_status set lag_seconds = 60");
+        routing.checkReplicas();
+
+        assertTrue(routing.getHealthyReplicas().isEmpty());
+        assertEquals("primary", currentNode(routing, true));
+    }
+
+    @Test
+    void testUnreachableReplicaFallsBackToPrimary() {
+        ReplicaRoutingDataSource routing = routing(Map.of("replica-0",
+                new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/missing", "sa", "")));
+        routing.checkReplicas();
+
+        assertTrue(routing.getHealthyReplicas().isEmpty());
+        assertEquals("primary", currentNode(routing, true));
+    }
+
+    @Test
+    void testUncheckedReplicaIsNotUsed() {
+        ReplicaRoutingDataSource routing = routing(Map.of("replica-0", replicaDataSource));
+
+        assertEquals("primary", currentNode(routing, true));
+    }
+
+    private ReplicaRoutingDataSource routing(Map<String, DataSource> replicas) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, Duration.ofSeconds(5), Duration.ofSeconds(1),
+                LAG_QUERY);
+    }
+
+    private static String currentNode(ReplicaRoutingDataSource routing, boolean readOnly) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+}
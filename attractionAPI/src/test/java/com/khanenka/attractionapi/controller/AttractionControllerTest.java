@@ -1,9 +1,28 @@
 package com.khanenka.attractionapi.controller;
 
 import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.dto.AttractionBatchDTO;
 import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionFilter;
+import com.khanenka.attractionapi.entity.dto.AttractionImportReportDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionNearbyHit;
+import com.khanenka.attractionapi.entity.dto.AttractionImportResultDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionPageDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionSearchHit;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.DescriptionUpdateView;
 import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.entity.enums.DescriptionUpdateStatus;
+import com.khanenka.attractionapi.exception.AttractionConflictException;
+import com.khanenka.attractionapi.exception.AttractionNotFoundException;
+import com.khanenka.attractionapi.exception.AttractionValidationException;
+import com.khanenka.attractionapi.exception.DescriptionUpdateNotFoundException;
+import com.khanenka.attractionapi.service.AttractionBatchService;
+import com.khanenka.attractionapi.service.AttractionExportService;
+import com.khanenka.attractionapi.service.AttractionImportService;
 import com.khanenka.attractionapi.service.AttractionService;
+import com.khanenka.attractionapi.service.DescriptionUpdateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -11,23 +30,46 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class AttractionControllerTest {
 
+    private static final AttractionsVersion VERSION = new AttractionsVersion(
+            1L, 3L, 2L, Instant.parse("2024-05-01T10:15:30Z"), 1L, Instant.parse("2024-04-01T08:00:00Z"));
+
     private MockMvc mockMvc;
     @Mock
     private AttractionService attractionService;
+    @Mock
+    private AttractionBatchService attractionBatchService;
+    @Mock
+    private AttractionImportService attractionImportService;
+    @Mock
+    private AttractionExportService attractionExportService;
+    @Mock
+    private DescriptionUpdateService descriptionUpdateService;
     @InjectMocks
     private AttractionController attractionController;
 
@@ -35,16 +77,18 @@ public class AttractionControllerTest {
     public void setUp() {
         MockitoAnnotations.openMocks(this);
         mockMvc = MockMvcBuilders.standaloneSetup(attractionController).build();
+        when(attractionService.getAttractionsVersion(any())).thenReturn(VERSION);
+        when(attractionService.getAttractionsByLocationVersion(any())).thenReturn(VERSION);
     }
 
     @Test
     void testAddAttraction() throws Exception {
         AttractionDTO attractionDTO = new AttractionDTO(
-                3L, "w", "12.01.2022", "ndescriptio1n",
-                AttractionType.PALACE, null, null);
+                3L, "w", LocalDate.of(2022, 1, 12), "ndescriptio1n",
+                AttractionType.PALACE, null, null, null, null);
         Attraction attraction = new Attraction(
-                3L, "w", "12.01.2022", "ndescriptio1n",
-                AttractionType.PALACE, null, null);
+                3L, "w", LocalDate.of(2022, 1, 12), "ndescriptio1n",
+                AttractionType.PALACE, null, null, null, null, null, null);
 
         when(attractionService.saveAttraction(attractionDTO)).thenReturn(attraction);
 
@@ -70,41 +114,236 @@ public class AttractionControllerTest {
 
     @Test
     void testGetAttractions() throws Exception {
-        List<Attraction> attractions = Collections.singletonList(new Attraction(/* инициализация */));
+        List<AttractionView> attractions = Collections.singletonList(new AttractionView(
+                null, null, null, null, null, null, List.of()));
 
-        when(attractionService.getAttractions(null, "name")).thenReturn(attractions);
+        when(attractionService.getAttractions(new AttractionFilter())).thenReturn(attractions);
 
         mockMvc.perform(get("/attractions"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].name").value(attractions.get(0).getName()));
+                .andExpect(jsonPath("$[0].name").value(attractions.get(0).name()));
+    }
+
+    @Test
+    void testGetAttractionsWithFilters() throws Exception {
+        List<AttractionView> attractions = Collections.singletonList(new AttractionView(
+                3L, "w", LocalDate.of(2022, 1, 12), "ndescriptio1n",
+                AttractionType.PALACE, null, List.of()));
+        AttractionFilter filter = new AttractionFilter(AttractionType.PALACE, "date", "desc", "Minsk", null,
+                LocalDate.of(2020, 1, 1), LocalDate.of(2023, 12, 31));
+
+        when(attractionService.getAttractions(filter)).thenReturn(attractions);
+
+        mockMvc.perform(get("/attractions")
+                        .param("type", "PALACE")
+                        .param("sortBy", "date")
+                        .param("direction", "desc")
+                        .param("location", "Minsk")
+                        .param("dateFrom", "2020-01-01")
+                        .param("dateTo", "2023-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("w"))
+                .andExpect(jsonPath("$[0].creationDate").value("12.01.2022"));
+    }
+
+    @Test
+    void testGetAttractionsPage() throws Exception {
+        List<AttractionView> attractions = Collections.singletonList(new AttractionView(
+                3L, "w", LocalDate.of(2022, 1, 12), "ndescriptio1n",
+                AttractionType.PALACE, null, List.of()));
+
+        when(attractionService.getAttractionsPage(new AttractionFilter(AttractionType.PALACE, "name"), null, 1))
+                .thenReturn(new AttractionPageDTO(attractions, "next"));
+
+        mockMvc.perform(get("/attractions")
+                        .param("type", "PALACE")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("w"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void testGetAttractionsPageInvalidCursor() throws Exception {
+        when(attractionService.getAttractionsPage(new AttractionFilter(), "broken", 10))
+                .thenThrow(new AttractionValidationException("Некорректный курсор: broken"));
+
+        mockMvc.perform(get("/attractions")
+                        .param("cursor", "broken")
+                        .param("limit", "10"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void testGetAttractionsByLocation() throws Exception {
-        List<Attraction> attractions = Collections.singletonList(new Attraction(
-                3L, "w", "12.01.2022", "ndescriptio1n",
-                AttractionType.PALACE, null, null));
+        List<AttractionView> attractions = Collections.singletonList(new AttractionView(
+                3L, "w", LocalDate.of(2022, 1, 12), "ndescriptio1n",
+                AttractionType.PALACE, null, List.of()));
         String locationName = "SomeLocation";
 
         when(attractionService.findAllAttractionByLocationName(locationName)).thenReturn(attractions);
 
         mockMvc.perform(get("/attractions/{locationName}", locationName))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].name").value(attractions.get(0).getName()));
+                .andExpect(jsonPath("$[0].name").value(attractions.get(0).name()));
+    }
+
+    @Test
+    void testGetAttractionsByLocation_SetsETagWithoutLastModified() throws Exception {
+        when(attractionService.findAllAttractionByLocationName("Minsk")).thenReturn(List.of());
+
+        mockMvc.perform(get("/attractions/{locationName}", "Minsk"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + VERSION.etag("Minsk") + "\""))
+                .andExpect(header().doesNotExist("Last-Modified"));
+    }
+
+    @Test
+    void testGetAttractionsByLocation_NamesOfCatalogueQueriesNotShadowed() throws Exception {
+        for (String locationName : List.of("search", "nearby", "export", "batch", "description-updates")) {
+            when(attractionService.findAllAttractionByLocationName(locationName)).thenReturn(List.of());
+
+            mockMvc.perform(get("/attractions/{locationName}", locationName))
+                    .andExpect(status().isOk());
+            verify(attractionService).findAllAttractionByLocationName(locationName);
+        }
+    }
+
+    @Test
+    void testGetAttractionsByLocation_NotModifiedWithoutLoadingRows() throws Exception {
+        mockMvc.perform(get("/attractions/{locationName}", "Minsk")
+                        .header("If-None-Match", "\"" + VERSION.etag("Minsk") + "\""))
+                .andExpect(status().isNotModified());
+        verify(attractionService, never()).findAllAttractionByLocationName(any());
+    }
+
+    @Test
+    void testGetAttractions_IfModifiedSinceIgnored() throws Exception {
+        when(attractionService.getAttractions(any())).thenReturn(List.of());
+
+        mockMvc.perform(get("/attractions")
+                        .param("type", "PARK")
+                        .header("If-Modified-Since", "Wed, 01 May 2024 10:15:30 GMT"))
+                .andExpect(status().isOk());
+        verify(attractionService).getAttractions(any());
+    }
+
+    @Test
+    void testGetAttractions_ETagDependsOnSort() throws Exception {
+        AttractionFilter byName = new AttractionFilter(AttractionType.PARK, "name");
+        AttractionFilter byDate = new AttractionFilter(AttractionType.PARK, "date");
+        when(attractionService.getAttractions(byDate)).thenReturn(List.of());
+
+        mockMvc.perform(get("/attractions")
+                        .param("type", "PARK")
+                        .param("sortBy", "date")
+                        .header("If-None-Match", "\"" + VERSION.etag(byName.toString()) + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + VERSION.etag(byDate.toString()) + "\""));
+    }
+
+    @Test
+    void testGetAttractionsByIds() throws Exception {
+        AttractionDTO found = new AttractionDTO(
+                3L, "w", LocalDate.of(2022, 1, 12), "d", AttractionType.PALACE, null, null, null, null);
+        when(attractionBatchService.getAttractionsByIds(List.of(3L, 7L)))
+                .thenReturn(new AttractionBatchDTO(List.of(found), List.of(7L)));
+
+        mockMvc.perform(get("/attractions/catalogue/batch").param("ids", "3,7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("attractions[0].idAttraction").value(3))
+                .andExpect(jsonPath("missing[0]").value(7));
+    }
+
+    @Test
+    void testSearchAttractions() throws Exception {
+        when(attractionService.searchAttractions("замок", AttractionType.PALACE, "Несвиж", 0, 20)).thenReturn(List.of(
+                new AttractionSearchHit(1L, "Несвижский замок", "Замок XVI века", AttractionType.PALACE,
+                        5L, "Несвиж", 0.6f)));
+
+        mockMvc.perform(get("/attractions/catalogue/search")
+                        .param("q", "замок")
+                        .param("type", "PALACE")
+                        .param("location", "Несвиж"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Несвижский замок"))
+                .andExpect(jsonPath("$[0].nameLocation").value("Несвиж"));
+    }
+
+    @Test
+    void testGetNearbyAttractions() throws Exception {
+        when(attractionService.findNearbyAttractions(53.9, 27.56, 5000.0, AttractionType.MUSEUM, 20)).thenReturn(List.of(
+                new AttractionNearbyHit(1L, "Красная церковь", AttractionType.MUSEUM, 53.8964, 27.5476,
+                        5L, "Minsk", 870.5)));
+
+        mockMvc.perform(get("/attractions/catalogue/nearby")
+                        .param("lat", "53.9")
+                        .param("lon", "27.56")
+                        .param("radius", "5000")
+                        .param("type", "MUSEUM"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Красная церковь"))
+                .andExpect(jsonPath("$[0].distance").value(870.5));
     }
 
     @Test
     public void testUpdateShortDescription() throws Exception {
         Long id = 1L;
         String description = "New description";
-        Attraction attraction = new Attraction(/* инициализация */);
-        when(attractionService.updateAttraction(id, description)).thenReturn(Optional.of(attraction));
+        Attraction updated = new Attraction();
+        updated.setIdAttraction(id);
+        updated.setDescription(description);
+        updated.setVersion(4L);
+        when(attractionService.updateAttraction(id, description, null)).thenReturn(updated);
+
+        mockMvc.perform(put("/attractions/{id}/description", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(description))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("idAttraction").value(1))
+                .andExpect(jsonPath("description").value(description));
+    }
+
+    @Test
+    public void testUpdateShortDescription_IfMatch() throws Exception {
+        Long id = 1L;
+        String description = "New description";
+        Attraction updated = new Attraction();
+        updated.setIdAttraction(id);
+        updated.setVersion(4L);
+        when(attractionService.updateAttraction(id, description, 3L)).thenReturn(updated);
 
         mockMvc.perform(put("/attractions/{id}/description", id)
+                        .header("If-Match", "\"3\"")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(description))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("name").value(attraction.getName()));
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    public void testUpdateShortDescription_VersionConflict() throws Exception {
+        Long id = 1L;
+        String description = "New description";
+        when(attractionService.updateAttraction(id, description, 3L))
+                .thenThrow(new AttractionConflictException("изменена"));
+
+        mockMvc.perform(put("/attractions/{id}/description", id)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(description))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void testUpdateShortDescription_InvalidIfMatch() throws Exception {
+        mockMvc.perform(put("/attractions/{id}/description", 1L)
+                        .header("If-Match", "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("New description"))
+                .andExpect(status().isBadRequest());
+        verify(attractionService, never()).updateAttraction(any(), any(), any());
     }
 
     @Test
@@ -112,11 +351,48 @@ public class AttractionControllerTest {
         Long id = 1L;
         String description = "New description";
 
-        when(attractionService.updateAttraction(id, description)).thenReturn(Optional.empty());
+        when(attractionService.updateAttraction(id, description, null))
+                .thenThrow(new AttractionNotFoundException("Достопримечательность не найдена с id: 1"));
+
+        mockMvc.perform(put("/attractions/{id}/description", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(description))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testUpdateShortDescriptionAsync() throws Exception {
+        Long id = 1L;
+        String description = "New description";
+        when(descriptionUpdateService.submit(id, description, null)).thenReturn(
+                new DescriptionUpdateView("t-1", id, DescriptionUpdateStatus.PENDING, null, null));
 
         mockMvc.perform(put("/attractions/{id}/description", id)
+                        .header("Prefer", "respond-async")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(description))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/attractions/description-updates/t-1"))
+                .andExpect(jsonPath("status").value("PENDING"));
+        verify(attractionService, never()).updateAttraction(any(), any(), any());
+    }
+
+    @Test
+    public void testGetDescriptionUpdate() throws Exception {
+        when(descriptionUpdateService.getStatus("t-1")).thenReturn(
+                new DescriptionUpdateView("t-1", 1L, DescriptionUpdateStatus.APPLIED, 4L, null));
+
+        mockMvc.perform(get("/attractions/description-updates/{ticket}", "t-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("status").value("APPLIED"))
+                .andExpect(jsonPath("version").value(4));
+    }
+
+    @Test
+    public void testGetDescriptionUpdateNotFound() throws Exception {
+        when(descriptionUpdateService.getStatus("t-1")).thenThrow(new DescriptionUpdateNotFoundException("нет"));
+
+        mockMvc.perform(get("/attractions/description-updates/{ticket}", "t-1"))
                 .andExpect(status().isNotFound());
     }
 
@@ -129,4 +405,39 @@ public class AttractionControllerTest {
         mockMvc.perform(delete("/attractions/{id}", id))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    public void testImportAttractions() throws Exception {
+        AttractionImportReportDTO report = new AttractionImportReportDTO(1, 1, List.of(
+                new AttractionImportResultDTO(0, 10L, null),
+                new AttractionImportResultDTO(1, null, "Имя и описание не могут быть null")));
+
+        when(attractionImportService.importAttractions(any())).thenReturn(report);
+
+        mockMvc.perform(post("/attractions/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"w\",\"description\":\"d\"}\n{\"description\":\"d\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("imported").value(1))
+                .andExpect(jsonPath("results[0].idAttraction").value(10))
+                .andExpect(jsonPath("results[1].error").value("Имя и описание не могут быть null"));
+    }
+
+    @Test
+    public void testExportAttractions() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"idAttraction\":1}\n{\"idAttraction\":3}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(attractionExportService).exportAttractions(eq(AttractionType.PARK), any());
+
+        MvcResult result = mockMvc.perform(get("/attractions/catalogue/export").param("type", "PARK"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"idAttraction\":1}\n{\"idAttraction\":3}\n"));
+    }
 }
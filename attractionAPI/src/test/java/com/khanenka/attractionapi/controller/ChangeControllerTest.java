@@ -0,0 +1,62 @@
+package com.khanenka.attractionapi.controller;
+
+import com.khanenka.attractionapi.entity.dto.ChangePageDTO;
+import com.khanenka.attractionapi.entity.dto.ChangeView;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.exception.ChangeValidationException;
+import com.khanenka.attractionapi.service.ChangeLogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ChangeControllerTest {
+
+    private MockMvc mockMvc;
+    @Mock
+    private ChangeLogService changeLogService;
+    @InjectMocks
+    private ChangeController changeController;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(changeController).build();
+    }
+
+    @Test
+    void testGetChanges() throws Exception {
+        ChangePageDTO page = new ChangePageDTO(List.of(
+                new ChangeView(42L, ChangeEntityType.ATTRACTION, 7L, ChangeOperation.DELETE,
+                        Instant.parse("2024-05-01T10:15:30Z"))), 42L, true);
+        when(changeLogService.getChanges(41L, 1)).thenReturn(page);
+
+        mockMvc.perform(get("/changes").param("since", "41").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("changes[0].seq").value(42))
+                .andExpect(jsonPath("changes[0].entityType").value("ATTRACTION"))
+                .andExpect(jsonPath("changes[0].operation").value("DELETE"))
+                .andExpect(jsonPath("nextSince").value(42))
+                .andExpect(jsonPath("hasMore").value(true));
+    }
+
+    @Test
+    void testGetChanges_InvalidLimit() throws Exception {
+        when(changeLogService.getChanges(0L, 5000)).thenThrow(new ChangeValidationException("Параметр limit должен быть от 1 до 1000"));
+
+        mockMvc.perform(get("/changes").param("limit", "5000"))
+                .andExpect(status().isBadRequest());
+    }
+}
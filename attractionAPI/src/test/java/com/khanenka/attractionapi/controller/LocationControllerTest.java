@@ -3,6 +3,9 @@ package com.khanenka.attractionapi.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.khanenka.attractionapi.entity.Location;
 import com.khanenka.attractionapi.entity.dto.LocationDTO;
+import com.khanenka.attractionapi.exception.LocationConflictException;
+import com.khanenka.attractionapi.exception.LocationNotFoundException;
+import com.khanenka.attractionapi.exception.LocationValidationException;
 import com.khanenka.attractionapi.service.LocationService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +16,6 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
-import java.util.Optional;
-
 import static org.mockito.Mockito.*;
 
 class LocationControllerTest {
@@ -36,9 +37,9 @@ class LocationControllerTest {
     void testAddLocation() {
         LocationDTO locationDTO = new LocationDTO(
                 1L, "Minsk", 2000000L,
-                true, null);
+                true, null, null, null);
         Location location = new Location(1L, "Minsk",
-                2000000L, true, null);
+                2000000L, true, null, null, null, null, null);
         when(locationService.addLocation(any(LocationDTO.class))).thenReturn(location);
         ResponseEntity<Location> response = locationController.addLocation(locationDTO);
         Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
@@ -51,24 +52,52 @@ class LocationControllerTest {
         Long id = 1L;
         Long population = 100000L;
         boolean hasMetro = true;
-        Location location = new Location(
-                1L, "Minsk", 2000000L, true, null);
-        when(locationService.updateLocation(id, population, hasMetro)).thenReturn(Optional.of(location));
-        ResponseEntity<Location> response = locationController.updateLocation(id, population, hasMetro);
+        Location updated = new Location(id, "Minsk", population, hasMetro, null, null, null, 1L, null);
+        when(locationService.updateLocation(id, population, hasMetro, null)).thenReturn(updated);
+        ResponseEntity<Location> response = locationController.updateLocation(id, population, hasMetro, null);
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
-        Assertions.assertEquals(location, response.getBody());
-        verify(locationService, times(1)).updateLocation(id, population, hasMetro);
+        Assertions.assertEquals(updated, response.getBody());
+        Assertions.assertEquals("\"1\"", response.getHeaders().getETag());
+        verify(locationService, times(1)).updateLocation(id, population, hasMetro, null);
+    }
+
+    @Test
+    void testUpdateLocation_IfMatch() {
+        Long id = 1L;
+        Long population = 100000L;
+        when(locationService.updateLocation(id, population, true, 5L))
+                .thenReturn(new Location(id, "Minsk", population, true, null, null, null, 6L, null));
+        ResponseEntity<Location> response = locationController.updateLocation(id, population, true, "\"5\"");
+        Assertions.assertEquals("\"6\"", response.getHeaders().getETag());
+        verify(locationService, times(1)).updateLocation(id, population, true, 5L);
+    }
+
+    @Test
+    void testUpdateLocation_InvalidIfMatch() {
+        Assertions.assertThrows(LocationValidationException.class,
+                () -> locationController.updateLocation(1L, 1000L, true, "latest"));
+        verifyNoInteractions(locationService);
+    }
+
+    @Test
+    void testUpdateLocation_WeakIfMatchRejected() {
+        Assertions.assertThrows(LocationValidationException.class,
+                () -> locationController.updateLocation(1L, 1000L, true, "W/\"5\""));
+        verifyNoInteractions(locationService);
     }
 
     @Test
     void updateLocation_ShouldReturnNotFound() {
-        Long id = 999L;
-        Long population = 1000L;
-        boolean hasMetro = true;
-        when(locationService.updateLocation(id, population, hasMetro)).thenReturn(Optional.empty());
-        ResponseEntity<Location> response = locationController.updateLocation(id, population, hasMetro);
+        ResponseEntity<String> response = locationController.handleLocationNotFoundException(
+                new LocationNotFoundException(999L));
         Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        Assertions.assertNull(response.getBody());
-        verify(locationService, times(1)).updateLocation(id, population, hasMetro);
+        Assertions.assertEquals("Location not found with id: 999", response.getBody());
+    }
+
+    @Test
+    void updateLocation_ShouldReturnConflict() {
+        ResponseEntity<String> response = locationController.handleLocationConflictException(
+                new LocationConflictException("Location 1 was modified, current version: 7"));
+        Assertions.assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
     }
-}
\ No newline at end of file
+}
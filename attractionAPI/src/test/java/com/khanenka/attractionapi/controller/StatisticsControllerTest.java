@@ -0,0 +1,53 @@
+package com.khanenka.attractionapi.controller;
+
+import com.khanenka.attractionapi.entity.dto.AttractionStatisticsDTO;
+import com.khanenka.attractionapi.entity.dto.LocationTypeCount;
+import com.khanenka.attractionapi.entity.dto.StatisticsCount;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.service.AttractionStatisticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StatisticsControllerTest {
+
+    private MockMvc mockMvc;
+    @Mock
+    private AttractionStatisticsService attractionStatisticsService;
+    @InjectMocks
+    private StatisticsController statisticsController;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(statisticsController).build();
+    }
+
+    @Test
+    void testGetStatistics() throws Exception {
+        when(attractionStatisticsService.getStatistics()).thenReturn(new AttractionStatisticsDTO(3, 4,
+                List.of(new StatisticsCount("PARK", 3, 4)),
+                List.of(new StatisticsCount("true", 3, 4)),
+                List.of(new StatisticsCount("OVER_1M", 3, 4)),
+                List.of(new LocationTypeCount(1L, "Minsk", AttractionType.PARK, 3, 4))));
+
+        mockMvc.perform(get("/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("attractions").value(3))
+                .andExpect(jsonPath("byType[0].key").value("PARK"))
+                .andExpect(jsonPath("byPopulation[0].key").value("OVER_1M"))
+                .andExpect(jsonPath("byLocation[0].nameLocation").value("Minsk"))
+                .andExpect(jsonPath("byLocation[0].services").value(4));
+    }
+}
@@ -0,0 +1,299 @@
+package com.khanenka.attractionapi.repository;
+
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.Service;
+import com.khanenka.attractionapi.entity.dto.AttractionCatalogueRow;
+import com.khanenka.attractionapi.entity.dto.AttractionNearbyHit;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.utility.AttractionCatalogue;
+import com.khanenka.attractionapi.utility.AttractionCursor;
+import com.khanenka.attractionapi.utility.ModelMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AttractionRepositoryTest {
+
+    private static final int ATTRACTIONS = 5;
+    private static final int SERVICES_PER_ATTRACTION = 2;
+
+    @Autowired
+    private AttractionRepository attractionRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private Location minsk;
+
+    @BeforeEach
+    public void setUp() {
+        minsk = testEntityManager.persist(new Location(null, "Minsk", 2000000L, true, null, null, null, null, null));
+        for (int i = 0; i < ATTRACTIONS; i++) {
+            Attraction attraction = testEntityManager.persist(new Attraction(
+                    null, "Достопримечательность " + i, LocalDate.of(1970, 10, 10), "Описание",
+                    AttractionType.PARK, minsk, new ArrayList<>(), null, null, null, null));
+            for (int j = 0; j < SERVICES_PER_ATTRACTION; j++) {
+                testEntityManager.persist(new Service(null, "Услуга " + j, "Описание", attraction));
+            }
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindByLocationName_LoadsLocationAndServicesInOneStatement() {
+        List<Attraction> attractions = attractionRepository.findByLocation_NameLocation("Minsk");
+        touchGraph(attractions);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindRowsByQuery_SelectsRowsAndServicesInTwoStatements() {
+        AttractionQuery query = new AttractionQuery(
+                AttractionType.PARK, AttractionSortField.NAME, Sort.Direction.ASC, "Minsk", null);
+        List<AttractionRow> rows = attractionRepository.findRowsByQuery(query);
+        List<ServiceRow> services = attractionRepository.findServiceRowsByQuery(query);
+        assertEquals(ATTRACTIONS, rows.size());
+        assertEquals("Minsk", rows.get(0).nameLocation());
+        assertEquals(ATTRACTIONS * SERVICES_PER_ATTRACTION, services.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindRowPageByQuery_SelectsPageInOneStatement() {
+        List<AttractionRow> rows = attractionRepository.findRowPageByQuery(new AttractionQuery(
+                AttractionType.PARK, AttractionSortField.SERVICE, Sort.Direction.DESC, null, null), null, 3);
+        assertEquals(3, rows.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindRowsByLocationName_DoesNotLoadEntities() {
+        List<AttractionRow> rows = attractionRepository.findRowsByLocationName("Minsk");
+        List<ServiceRow> services = attractionRepository.findServiceRowsByLocationName("Minsk");
+        assertEquals(ATTRACTIONS, rows.size());
+        assertEquals(ATTRACTIONS * SERVICES_PER_ATTRACTION, services.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindVersionByQuery_AggregatesInOneStatementAndChangesOnUpdate() {
+        AttractionQuery query = new AttractionQuery(null, AttractionSortField.ID, Sort.Direction.ASC, "Minsk", null);
+        AttractionsVersion before = attractionRepository.findVersionByQuery(query);
+        assertEquals(ATTRACTIONS, before.count());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        Attraction attraction = attractionRepository.findAll().get(0);
+        attraction.setDescription("Новое описание");
+        testEntityManager.flush();
+
+        AttractionsVersion after = attractionRepository.findVersionByQuery(query);
+        assertEquals(before.versionSum() + 1, after.versionSum());
+        assertNotEquals(before.etag("Minsk"), after.etag("Minsk"));
+    }
+
+    @Test
+    void testFindRowPageByQuery_FiltersByDateRangeAndSeeksByDate() {
+        minsk = testEntityManager.getEntityManager().getReference(Location.class, minsk.getIdLocation());
+        persistOn("Ратуша", minsk, LocalDate.of(1600, 5, 1));
+        persistOn("Костел", minsk, LocalDate.of(1910, 9, 20));
+        persistOn("Вокзал", minsk, LocalDate.of(1945, 1, 15));
+        persistOn("Стадион", minsk, LocalDate.of(2018, 3, 3));
+        testEntityManager.flush();
+
+        AttractionQuery query = new AttractionQuery(AttractionType.MUSEUM, AttractionSortField.DATE,
+                Sort.Direction.DESC, null, null, LocalDate.of(1900, 1, 1), LocalDate.of(2000, 1, 1));
+        List<AttractionRow> first = attractionRepository.findRowPageByQuery(query, null, 1);
+        assertEquals(List.of("Вокзал"), first.stream().map(AttractionRow::name).toList());
+
+        AttractionCursor cursor = AttractionCursor.decode(
+                AttractionCursor.after(AttractionSortField.DATE,
+                        ModelMapper.INSTANCE.rowToAttractionView(first.get(0), List.of())).encode(),
+                AttractionSortField.DATE);
+        List<AttractionRow> second = attractionRepository.findRowPageByQuery(query, cursor, 10);
+        assertEquals(List.of("Костел"), second.stream().map(AttractionRow::name).toList());
+    }
+
+    @Test
+    void testFindNearby_FallbackOrdersByDistanceWithinRadius() {
+        minsk = testEntityManager.getEntityManager().getReference(Location.class, minsk.getIdLocation());
+        persistAt("Красная церковь", AttractionType.MUSEUM, minsk, 53.8964, 27.5476);
+        persistAt("Троицкое предместье", AttractionType.PARK, minsk, 53.9084, 27.5553);
+        persistAt("Мирский замок", AttractionType.PALACE, minsk, 53.4513, 26.4730);
+        testEntityManager.flush();
+
+        List<AttractionNearbyHit> nearby = attractionRepository.findNearby(53.9006, 27.5590, 5000.0, null, 10);
+        assertEquals(List.of("Красная церковь", "Троицкое предместье"),
+                nearby.stream().map(AttractionNearbyHit::name).toList());
+        assertEquals(850, nearby.get(0).distance(), 100);
+
+        List<AttractionNearbyHit> parks = attractionRepository.findNearby(53.9006, 27.5590, 5000.0, AttractionType.PARK, 10);
+        assertEquals(List.of("Троицкое предместье"), parks.stream().map(AttractionNearbyHit::name).toList());
+
+        List<AttractionNearbyHit> nearest = attractionRepository.findNearby(53.9006, 27.5590, null, null, 3);
+        assertEquals("Мирский замок", nearest.get(2).name());
+    }
+
+    @Test
+    void testUpdateDescription_SingleStatementChecksVersion() {
+        Long id = attractionRepository.findAll().get(0).getIdAttraction();
+        testEntityManager.clear();
+        statistics.clear();
+
+        int updated = attractionRepository.updateDescription(id, "Новое описание", 0L, Instant.now());
+        int stale = attractionRepository.updateDescription(id, "Устаревшее описание", 0L, Instant.now());
+
+        assertEquals(1, updated);
+        assertEquals(0, stale);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        Attraction attraction = testEntityManager.find(Attraction.class, id);
+        assertEquals("Новое описание", attraction.getDescription());
+        assertEquals(1L, attraction.getVersion());
+        assertEquals(Optional.of(1L), attractionRepository.findVersionById(id));
+    }
+
+    @Test
+    void testCatalogue_MatchesDatabaseOrderAndFilters() {
+        persistOn("Без локации", null, null);
+        persistOn("Андреевская церковь", minsk, LocalDate.of(1800, 1, 1));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        AttractionCatalogue catalogue = loadCatalogue();
+
+        for (AttractionSortField sortField : AttractionSortField.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                assertCatalogueMatches(catalogue, new AttractionQuery(null, sortField, direction, null, null));
+                assertCatalogueMatches(catalogue, new AttractionQuery(AttractionType.MUSEUM, sortField, direction, null, null));
+            }
+        }
+        assertCatalogueMatches(catalogue, new AttractionQuery(null, AttractionSortField.NAME, Sort.Direction.ASC, "Minsk", "Услуга 1"));
+        assertCatalogueMatches(catalogue, new AttractionQuery(null, AttractionSortField.DATE, Sort.Direction.DESC, null, null,
+                LocalDate.of(1700, 1, 1), LocalDate.of(1900, 1, 1)));
+    }
+
+    @Test
+    void testCatalogue_WithReplacedAppliesUpdatesInsertsAndDeletes() {
+        AttractionCatalogue catalogue = loadCatalogue();
+        List<Attraction> attractions = attractionRepository.findAll();
+        Attraction deleted = attractions.get(0);
+        Attraction renamed = attractions.get(1);
+        renamed.setName("Аа");
+        attractionRepository.delete(deleted);
+        persistOn("Новая", minsk, LocalDate.of(2000, 1, 1));
+        testEntityManager.flush();
+        Long created = attractionRepository.findAll().stream()
+                .filter(attraction -> "Новая".equals(attraction.getName()))
+                .findFirst().orElseThrow().getIdAttraction();
+        testEntityManager.clear();
+
+        Set<Long> changed = Set.of(deleted.getIdAttraction(), renamed.getIdAttraction(), created);
+        List<AttractionCatalogueRow> rows = attractionRepository.findCatalogueRowsByIds(changed);
+        List<ServiceRow> services = attractionRepository.findServiceRowsByAttractionIds(changed);
+        AttractionCatalogue refreshed = catalogue.withReplaced(changed, rows, services);
+
+        assertEquals(ATTRACTIONS, refreshed.size());
+        assertEquals(ATTRACTIONS, catalogue.size());
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            assertCatalogueMatches(refreshed, new AttractionQuery(null, AttractionSortField.NAME, direction, null, null));
+            assertCatalogueMatches(refreshed, new AttractionQuery(AttractionType.MUSEUM, AttractionSortField.DATE, direction, null, null));
+        }
+    }
+
+    @Test
+    void testCatalogue_OrdersNamesByCodePoint() {
+        List<AttractionCatalogueRow> rows = List.of(
+                catalogueRow(1L, "\uD83C\uDFF0 Замок"),
+                catalogueRow(2L, "\uFFFD"),
+                catalogueRow(3L, "ёлка"),
+                catalogueRow(4L, "Елка"),
+                catalogueRow(5L, "жук"));
+        AttractionQuery byName = new AttractionQuery(null, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+
+        List<Long> codePoints = AttractionCatalogue.of(rows, List.of()).find(byName).stream()
+                .map(AttractionView::idAttraction).toList();
+
+        assertEquals(List.of(4L, 5L, 3L, 2L, 1L), codePoints);
+        assertTrue(AttractionCatalogue.isCodePointCollation(List.of("C", "POSIX")));
+        assertFalse(AttractionCatalogue.isCodePointCollation(List.of("C", "ru_RU.UTF-8")));
+        assertFalse(AttractionCatalogue.isCodePointCollation(List.of()));
+    }
+
+    private static AttractionCatalogueRow catalogueRow(Long id, String name) {
+        return new AttractionCatalogueRow(id, name, null, null, null, 0L, null, null, null, null, null, null, null);
+    }
+
+    private AttractionCatalogue loadCatalogue() {
+        try (Stream<AttractionCatalogueRow> rows = attractionRepository.streamCatalogueRows();
+             Stream<ServiceRow> services = attractionRepository.streamServiceRows()) {
+            return AttractionCatalogue.of(rows.toList(), services.toList());
+        }
+    }
+
+    private void assertCatalogueMatches(AttractionCatalogue catalogue, AttractionQuery query) {
+        List<AttractionView> expected = ModelMapper.INSTANCE.rowsToAttractionViews(
+                attractionRepository.findRowsByQuery(query), attractionRepository.findServiceRowsByQuery(query));
+        assertEquals(expected, catalogue.find(query), query.toString());
+        AttractionsVersion expectedVersion = attractionRepository.findVersionByQuery(query);
+        AttractionsVersion version = catalogue.version(query);
+        assertEquals(expectedVersion.count(), version.count());
+        assertEquals(expectedVersion.idSum(), version.idSum());
+        assertEquals(expectedVersion.versionSum(), version.versionSum());
+        assertEquals(expectedVersion.locationVersionSum(), version.locationVersionSum());
+    }
+
+    private void persistAt(String name, AttractionType type, Location location, double latitude, double longitude) {
+        testEntityManager.persist(new Attraction(null, name, LocalDate.of(1970, 10, 10), "Описание", type, location,
+                new ArrayList<>(), latitude, longitude, null, null));
+    }
+
+    private void persistOn(String name, Location location, LocalDate creationDate) {
+        testEntityManager.persist(new Attraction(null, name, creationDate, "Описание", AttractionType.MUSEUM, location,
+                new ArrayList<>(), null, null, null, null));
+    }
+
+    private void touchGraph(List<Attraction> attractions) {
+        assertEquals(ATTRACTIONS, attractions.size());
+        for (Attraction attraction : attractions) {
+            assertEquals("Minsk", attraction.getLocation().getNameLocation());
+            assertEquals(SERVICES_PER_ATTRACTION, attraction.getServices().size());
+        }
+    }
+}
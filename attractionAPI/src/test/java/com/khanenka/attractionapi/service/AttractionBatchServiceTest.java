@@ -0,0 +1,118 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.config.CacheConfig;
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.Service;
+import com.khanenka.attractionapi.entity.dto.AttractionBatchDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.exception.AttractionValidationException;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AttractionBatchServiceTest {
+
+    @Mock
+    private AttractionRepository attractionRepository;
+    private ConcurrentMapCacheManager cacheManager;
+    private AttractionBatchService attractionBatchService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.ATTRACTION_BY_ID);
+        attractionBatchService = new AttractionBatchService(attractionRepository, cacheManager);
+    }
+
+    @Test
+    void testGetAttractionsByIds_PreservesOrderAndReportsMissing() {
+        when(attractionRepository.findByIdAttractionIn(List.of(3L, 1L, 2L)))
+                .thenReturn(List.of(attraction(1L), attraction(3L)));
+
+        AttractionBatchDTO batch = attractionBatchService.getAttractionsByIds(List.of(3L, 1L, 2L, 3L));
+
+        assertEquals(List.of(3L, 1L), batch.getAttractions().stream().map(AttractionDTO::getIdAttraction).toList());
+        assertEquals(List.of(2L), batch.getMissing());
+        verify(attractionRepository, times(1)).findByIdAttractionIn(any());
+    }
+
+    @Test
+    void testGetAttractionsByIds_ServesCachedIdsWithoutQuery() {
+        AttractionDTO cached = new AttractionDTO();
+        cached.setIdAttraction(1L);
+        cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID).put(1L, cached);
+        when(attractionRepository.findByIdAttractionIn(List.of(2L))).thenReturn(List.of(attraction(2L)));
+
+        AttractionBatchDTO batch = attractionBatchService.getAttractionsByIds(List.of(1L, 2L));
+
+        assertSame(cached, batch.getAttractions().get(0));
+        assertEquals(2L, batch.getAttractions().get(1).getIdAttraction());
+        assertNotNull(cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID).get(2L));
+
+        attractionBatchService.getAttractionsByIds(List.of(1L, 2L));
+        verify(attractionRepository, times(1)).findByIdAttractionIn(any());
+    }
+
+    @Test
+    void testGetAttractionsByIds_CachesCopiesDetachedFromEntities() {
+        Attraction attraction = attraction(1L);
+        Location location = new Location(5L, "Минск", 2000000L, true, new ArrayList<>(List.of(attraction)),
+                null, null, 0L, null);
+        attraction.setLocation(location);
+        attraction.getServices().add(new Service(7L, "Экскурсия", "Обзорная", attraction));
+        when(attractionRepository.findByIdAttractionIn(List.of(1L))).thenReturn(List.of(attraction));
+
+        attractionBatchService.getAttractionsByIds(List.of(1L));
+
+        AttractionDTO cached = cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID).get(1L, AttractionDTO.class);
+        assertNotSame(location, cached.getLocation());
+        assertEquals("Минск", cached.getLocation().getNameLocation());
+        assertNull(cached.getLocation().getAttractions());
+        assertNotSame(attraction.getServices().get(0), cached.getServices().get(0));
+        assertNull(cached.getServices().get(0).getAttraction());
+    }
+
+    @Test
+    void testGetAttractionsByIds_QueriesInChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, AttractionBatchService.IN_CHUNK_SIZE + 1).boxed().toList();
+        when(attractionRepository.findByIdAttractionIn(any())).thenReturn(List.of());
+
+        AttractionBatchDTO batch = attractionBatchService.getAttractionsByIds(ids);
+
+        assertEquals(ids, batch.getMissing());
+        verify(attractionRepository).findByIdAttractionIn(ids.subList(0, AttractionBatchService.IN_CHUNK_SIZE));
+        verify(attractionRepository).findByIdAttractionIn(List.of(AttractionBatchService.IN_CHUNK_SIZE + 1L));
+    }
+
+    @Test
+    void testGetAttractionsByIds_InvalidIds_ThrowsException() {
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 0; id <= AttractionBatchService.MAX_IDS; id++) {
+            tooMany.add(id);
+        }
+        assertThrows(AttractionValidationException.class, () -> attractionBatchService.getAttractionsByIds(List.of()));
+        assertThrows(AttractionValidationException.class, () -> attractionBatchService.getAttractionsByIds(tooMany));
+        assertThrows(AttractionValidationException.class,
+                () -> attractionBatchService.getAttractionsByIds(Arrays.asList(1L, null)));
+        verifyNoInteractions(attractionRepository);
+    }
+
+    private static Attraction attraction(Long id) {
+        return new Attraction(id, "Место " + id, LocalDate.of(2020, 1, 1), "Описание",
+                AttractionType.PARK, null, new ArrayList<>(), null, null, 0L, null);
+    }
+}
@@ -0,0 +1,95 @@
+package com.khanenka.attractionapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.Service;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "attractions.export.chunk-size=2"
+})
+@Import(AttractionExportService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class AttractionExportServiceTest {
+
+    @Autowired
+    private AttractionExportService attractionExportService;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        Location location = testEntityManager.persist(new Location(null, "Minsk", 2000000L, true, null, null, null, null, null));
+        AttractionType[] types = {AttractionType.PARK, AttractionType.MUSEUM, AttractionType.PARK};
+        for (int i = 0; i < types.length; i++) {
+            Attraction attraction = testEntityManager.persist(new Attraction(
+                    null, "Место " + i, LocalDate.of(2020, 1, 1), "Описание " + i, types[i], location, null, null, null, null, null));
+            testEntityManager.persist(new Service(null, "Услуга " + i, "Описание", attraction));
+            ids.add(attraction.getIdAttraction());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void testExportAttractions_WritesOneObjectPerLineAcrossChunks() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = attractionExportService.exportAttractions(null, out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertEquals(3, exported);
+        assertTrue(body.endsWith("\n"));
+        List<JsonNode> lines = readLines(body);
+        assertEquals(ids, lines.stream().map(line -> line.get("idAttraction").asLong()).toList());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals("Minsk", lines.get(i).get("location").get("nameLocation").asText());
+            assertEquals("Услуга " + i, lines.get(i).get("services").get(0).get("name").asText());
+        }
+    }
+
+    @Test
+    void testExportAttractions_FiltersByType() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = attractionExportService.exportAttractions(AttractionType.MUSEUM, out);
+
+        List<JsonNode> lines = readLines(out.toString(StandardCharsets.UTF_8));
+        assertEquals(1, exported);
+        assertEquals(ids.get(1), lines.get(0).get("idAttraction").asLong());
+        assertEquals("MUSEUM", lines.get(0).get("type").asText());
+    }
+
+    private List<JsonNode> readLines(String body) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
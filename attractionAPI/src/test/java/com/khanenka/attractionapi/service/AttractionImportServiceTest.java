@@ -0,0 +1,93 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.dto.AttractionImportReportDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionImportResultDTO;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import com.khanenka.attractionapi.repository.LocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "attractions.import.batch-size=2"
+})
+@Import({AttractionImportService.class, AttractionService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AttractionImportServiceTest {
+
+    @Autowired
+    private AttractionImportService attractionImportService;
+    @Autowired
+    private AttractionRepository attractionRepository;
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Test
+    void testImportNdjson_SavesValidItemsAndReportsInvalid() throws IOException {
+        Location location = locationRepository.save(new Location(null, "Grodno", 360000L, false, null, null, null, null, null));
+        String body = "{\"name\":\"Замок\",\"description\":\"Старый\",\"type\":\"PALACE\","
+                + "\"location\":{\"idLocation\":" + location.getIdLocation() + "},"
+                + "\"services\":[{\"idService\":7,\"name\":\"Экскурсия\",\"description\":\"Час\"}]}\n"
+                + "{\"name\":\"Парк\",\"description\":\"Зеленый\",\"type\":\"PARK\"}\n"
+                + "{\"description\":\"Без имени\",\"type\":\"PARK\"}\n"
+                + "{\"name\":\"Музей\",\"description\":\"Новый\",\"type\":\"MUSEUM\"}\n";
+
+        AttractionImportReportDTO report = attractionImportService.importAttractions(stream(body));
+
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(List.of(0, 1, 2, 3), report.getResults().stream().map(AttractionImportResultDTO::getIndex).toList());
+        assertEquals("Имя и описание не могут быть null", report.getResults().get(2).getError());
+        Long castleId = report.getResults().get(0).getIdAttraction();
+        assertNotNull(castleId);
+        assertEquals(location.getIdLocation(), attractionRepository.findRowsByLocationName("Grodno").get(0).idLocation());
+        assertEquals(1, attractionRepository.findServiceRowsByAttractionIds(List.of(castleId)).size());
+    }
+
+    @Test
+    void testImportArray_IsolatesItemRejectedByDatabase() throws IOException {
+        String body = "[{\"name\":\"Театр\",\"description\":\"Драма\",\"type\":\"PARK\"},"
+                + "{\"name\":\"Собор\",\"description\":\"Нет локации\",\"type\":\"MUSEUM\",\"location\":{\"idLocation\":999999}}]";
+
+        AttractionImportReportDTO report = attractionImportService.importAttractions(stream(body));
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertNotNull(report.getResults().get(0).getIdAttraction());
+        assertNull(report.getResults().get(1).getIdAttraction());
+        assertNotNull(report.getResults().get(1).getError());
+        assertTrue(attractionRepository.existsById(report.getResults().get(0).getIdAttraction()));
+    }
+
+    @Test
+    void testImport_MalformedJsonKeepsItemsReadBeforeIt() throws IOException {
+        String body = "{\"name\":\"Фонтан\",\"description\":\"У вокзала\",\"type\":\"PARK\"}\n{\"name\":";
+
+        AttractionImportReportDTO report = attractionImportService.importAttractions(stream(body));
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertTrue(report.getResults().get(1).getError().startsWith("Некорректный JSON"));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
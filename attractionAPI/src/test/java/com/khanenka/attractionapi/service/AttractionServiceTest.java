@@ -1,18 +1,46 @@
 package com.khanenka.attractionapi.service;
 
+import com.khanenka.attractionapi.config.CacheConfig;
 import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.Service;
 import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionFilter;
+import com.khanenka.attractionapi.entity.dto.AttractionPageDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionRow;
+import com.khanenka.attractionapi.entity.dto.AttractionSearchHit;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.AttractionStatsDelta;
+import com.khanenka.attractionapi.entity.dto.AttractionsVersion;
+import com.khanenka.attractionapi.entity.dto.EntityChangedEvent;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
 import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.exception.AttractionConflictException;
 import com.khanenka.attractionapi.exception.AttractionNotFoundException;
 import com.khanenka.attractionapi.exception.AttractionValidationException;
+import com.khanenka.attractionapi.repository.AttractionQuery;
 import com.khanenka.attractionapi.repository.AttractionRepository;
+import com.khanenka.attractionapi.repository.LocationRepository;
+import com.khanenka.attractionapi.repository.LocationTypeStatsRepository;
+import com.khanenka.attractionapi.utility.AttractionCursor;
 import com.khanenka.attractionapi.utility.ModelMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -27,7 +55,19 @@ class AttractionServiceTest {
     @Mock
     private AttractionRepository attractionRepository;
     @Mock
+    private LocationRepository locationRepository;
+    @Mock
+    private LocationTypeStatsRepository locationTypeStatsRepository;
+    @Mock
     ModelMapper modelMapper;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private AttractionReadModel readModel;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private CatalogueSnapshotService snapshotService;
     @InjectMocks
     private AttractionService attractionService;
     private String messageException = "Достопримечательность не найдена с id: {}";
@@ -40,15 +80,18 @@ class AttractionServiceTest {
     @Test
     void testSaveAttraction() {
         AttractionDTO attractionDTO = new AttractionDTO(
-                1L, "Якуб Колас", "10.10.1970", "Основан в 1970",
-                AttractionType.PARK, null, null);
+                1L, "Якуб Колас", LocalDate.of(1970, 10, 10), "Основан в 1970",
+                AttractionType.PARK, null, null, null, null);
         Attraction attraction = new Attraction(
-                1L, "Якуб Колас", "10.10.1970", "Основан в 1970",
-                AttractionType.PARK, null, null);
+                1L, "Якуб Колас", LocalDate.of(1970, 10, 10), "Основан в 1970",
+                AttractionType.PARK, null, null, null, null, null, null);
         when(modelMapper.dtoToAttractionEntity(attractionDTO)).thenReturn(attraction);
         when(attractionRepository.save(any(Attraction.class))).thenReturn(attraction);
         Attraction savedAttraction = attractionService.saveAttraction(attractionDTO);
         assertNotNull(savedAttraction);
+        verify(attractionRepository, times(1)).save(any(Attraction.class));
+        verify(locationTypeStatsRepository).increment(
+                List.of(new AttractionStatsDelta(null, AttractionType.PARK, 1, 0)));
     }
 
     @Test
@@ -61,6 +104,37 @@ class AttractionServiceTest {
                 "Expected saveAttraction to throw, but it didn't"
         );
         assertEquals("Имя и описание не могут быть null", thrown.getMessage());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testToNewAttraction_LinksServicesAndLocationReference() {
+        Location location = new Location(5L, "Minsk", 2000000L, true, null, null, null, null, null);
+        Location reference = new Location(5L, null, null, null, null, null, null, null, null);
+        Service service = new Service(9L, "Экскурсия", "Час", null);
+        AttractionDTO attractionDTO = new AttractionDTO(
+                1L, "Якуб Колас", LocalDate.of(1970, 10, 10), "Основан в 1970",
+                AttractionType.PARK, location, new ArrayList<>(List.of(service)), null, null);
+        when(locationRepository.getReferenceById(5L)).thenReturn(reference);
+
+        Attraction attraction = attractionService.toNewAttraction(attractionDTO);
+
+        assertNull(attraction.getIdAttraction());
+        assertSame(reference, attraction.getLocation());
+        assertNull(attraction.getServices().get(0).getIdService());
+        assertSame(attraction, attraction.getServices().get(0).getAttraction());
+    }
+
+    @Test
+    void testToNewAttraction_LocationWithoutId_ThrowsException() {
+        AttractionDTO attractionDTO = new AttractionDTO(
+                null, "Якуб Колас", LocalDate.of(1970, 10, 10), "Основан в 1970",
+                AttractionType.PARK, new Location(null, "Minsk", 2000000L, true, null, null, null, null, null), null, null, null);
+        AttractionValidationException thrown = assertThrows(
+                AttractionValidationException.class,
+                () -> attractionService.toNewAttraction(attractionDTO));
+        assertEquals("Локация должна быть задана идентификатором", thrown.getMessage());
+        verify(locationRepository, never()).getReferenceById(any());
     }
 
     @Test
@@ -86,106 +160,451 @@ class AttractionServiceTest {
     @Test
     void testGetAttractions_SortedById() {
         AttractionType type = AttractionType.PARK;
-        List<Attraction> attractions = new ArrayList<>();
-        when(attractionRepository.findAllByTypeOrderByIdAttraction(type)).thenReturn(attractions);
-        List<Attraction> result = attractionService.getAttractions(type, "id");
-        assertEquals(attractions, result);
-        verify(attractionRepository).findAllByTypeOrderByIdAttraction(type);
+        AttractionQuery query = new AttractionQuery(type, AttractionSortField.ID, Sort.Direction.ASC, null, null);
+        when(attractionRepository.findRowsByQuery(query)).thenReturn(new ArrayList<>());
+        List<AttractionView> result = attractionService.getAttractions(new AttractionFilter(type, "id"));
+        assertTrue(result.isEmpty());
+        verify(attractionRepository).findRowsByQuery(query);
+        verify(attractionRepository, never()).findServiceRowsByQuery(query);
     }
 
     @Test
     void testGetAttractions_SortedByName() {
         AttractionType type = AttractionType.PARK;
-        List<Attraction> attractions = new ArrayList<>();
-        when(attractionRepository.findAllByTypeOrderByName(type)).thenReturn(attractions);
-        List<Attraction> result = attractionService.getAttractions(type, "name");
-        assertEquals(attractions, result);
-        verify(attractionRepository).findAllByTypeOrderByName(type);
+        AttractionQuery query = new AttractionQuery(type, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        when(attractionRepository.findRowsByQuery(query)).thenReturn(new ArrayList<>());
+        List<AttractionView> result = attractionService.getAttractions(new AttractionFilter(type, "name"));
+        assertTrue(result.isEmpty());
+        verify(attractionRepository).findRowsByQuery(query);
+        verify(attractionRepository, never()).findServiceRowsByQuery(query);
     }
 
     @Test
     void testGetAttractions_SortedByDescription() {
         AttractionType type = AttractionType.PARK;
-        List<Attraction> attractions = new ArrayList<>();
-        when(attractionRepository.findAllByTypeOrderByDescription(type)).thenReturn(attractions);
-        List<Attraction> result = attractionService.getAttractions(type, "description");
-        assertEquals(attractions, result);
-        verify(attractionRepository).findAllByTypeOrderByDescription(type);
+        AttractionQuery query = new AttractionQuery(type, AttractionSortField.DESCRIPTION, Sort.Direction.ASC, null, null);
+        when(attractionRepository.findRowsByQuery(query)).thenReturn(new ArrayList<>());
+        List<AttractionView> result = attractionService.getAttractions(new AttractionFilter(type, "description"));
+        assertTrue(result.isEmpty());
+        verify(attractionRepository).findRowsByQuery(query);
+        verify(attractionRepository, never()).findServiceRowsByQuery(query);
     }
 
     @Test
     void testGetAttractions_SortedByDate() {
         AttractionType type = AttractionType.PARK;
-        List<Attraction> attractions = new ArrayList<>();
-        when(attractionRepository.findAllByTypeOrderByCreationDate(type)).thenReturn(attractions);
-        List<Attraction> result = attractionService.getAttractions(type, "date");
-        assertEquals(attractions, result);
-        verify(attractionRepository).findAllByTypeOrderByCreationDate(type);
+        AttractionQuery query = new AttractionQuery(type, AttractionSortField.DATE, Sort.Direction.ASC, null, null);
+        when(attractionRepository.findRowsByQuery(query)).thenReturn(new ArrayList<>());
+        List<AttractionView> result = attractionService.getAttractions(new AttractionFilter(type, "date"));
+        assertTrue(result.isEmpty());
+        verify(attractionRepository).findRowsByQuery(query);
+        verify(attractionRepository, never()).findServiceRowsByQuery(query);
     }
 
     @Test
     void testGetAttractions_SortedByLocation() {
         AttractionType type = AttractionType.PARK;
-        List<Attraction> attractions = new ArrayList<>();
-        when(attractionRepository.findAllByTypeOrderByLocation(type)).thenReturn(attractions);
-        List<Attraction> result = attractionService.getAttractions(type, "location");
-        assertEquals(attractions, result);
-        verify(attractionRepository).findAllByTypeOrderByLocation(type);
+        AttractionQuery query = new AttractionQuery(type, AttractionSortField.LOCATION, Sort.Direction.ASC, null, null);
+        when(attractionRepository.findRowsByQuery(query)).thenReturn(new ArrayList<>());
+        List<AttractionView> result = attractionService.getAttractions(new AttractionFilter(type, "location"));
+        assertTrue(result.isEmpty());
+        verify(attractionRepository).findRowsByQuery(query);
+        verify(attractionRepository, never()).findServiceRowsByQuery(query);
     }
 
     @Test
     void testGetAttractions_SortedByService() {
         AttractionType type = AttractionType.PARK;
-        List<Attraction> attractions = new ArrayList<>();
-        when(attractionRepository.findAllByTypeOrderByServices(type)).thenReturn(attractions);
-        List<Attraction> result = attractionService.getAttractions(type, "service");
-        assertEquals(attractions, result);
-        verify(attractionRepository).findAllByTypeOrderByServices(type);
+        AttractionQuery query = new AttractionQuery(type, AttractionSortField.SERVICE, Sort.Direction.ASC, null, null);
+        when(attractionRepository.findRowsByQuery(query)).thenReturn(new ArrayList<>());
+        List<AttractionView> result = attractionService.getAttractions(new AttractionFilter(type, "service"));
+        assertTrue(result.isEmpty());
+        verify(attractionRepository).findRowsByQuery(query);
+        verify(attractionRepository, never()).findServiceRowsByQuery(query);
+    }
+
+    @Test
+    void testGetAttractions_WithoutTypeAndWithFilters() {
+        AttractionFilter filter = new AttractionFilter(null, "name", "desc", "Minsk", "Экскурсия", null, null);
+        AttractionQuery query = new AttractionQuery(
+                null, AttractionSortField.NAME, Sort.Direction.DESC, "Minsk", "Экскурсия");
+        List<AttractionRow> rows = List.of(
+                new AttractionRow(1L, "Якуб Колас", LocalDate.of(1970, 10, 10), "Основан в 1970",
+                        AttractionType.MUSEUM, 7L, "Minsk", 2000000L, true));
+        when(attractionRepository.findRowsByQuery(query)).thenReturn(rows);
+        when(attractionRepository.findServiceRowsByQuery(query)).thenReturn(List.of(
+                new ServiceRow(1L, 10L, "Экскурсия", "Описание")));
+        List<AttractionView> result = attractionService.getAttractions(filter);
+        assertEquals(1, result.size());
+        assertEquals("Minsk", result.get(0).location().nameLocation());
+        assertEquals("Экскурсия", result.get(0).services().get(0).name());
+    }
+
+    @Test
+    void testGetAttractions_InvalidSortBy_ThrowsException() {
+        AttractionValidationException thrown = assertThrows(AttractionValidationException.class,
+                () -> attractionService.getAttractions(new AttractionFilter(AttractionType.PARK, "rating")));
+        assertEquals("Некорректный параметр sortBy: rating", thrown.getMessage());
+        verifyNoInteractions(attractionRepository);
+    }
+
+    @Test
+    void testGetAttractions_WithDateRange() {
+        AttractionFilter filter = new AttractionFilter(AttractionType.PARK, "date", "asc", null, null,
+                LocalDate.of(1960, 1, 1), LocalDate.of(1980, 12, 31));
+        AttractionQuery query = new AttractionQuery(AttractionType.PARK, AttractionSortField.DATE, Sort.Direction.ASC,
+                null, null, LocalDate.of(1960, 1, 1), LocalDate.of(1980, 12, 31));
+        when(attractionRepository.findRowsByQuery(query)).thenReturn(List.of(
+                new AttractionRow(1L, "Якуб Колас", LocalDate.of(1970, 10, 10), "Основан в 1970",
+                        AttractionType.PARK, null, null, null, null)));
+        List<AttractionView> result = attractionService.getAttractions(filter);
+        assertEquals(LocalDate.of(1970, 10, 10), result.get(0).creationDate());
+    }
+
+    @Test
+    void testGetAttractions_InvertedDateRange_ThrowsException() {
+        AttractionFilter filter = new AttractionFilter(AttractionType.PARK, "date", "asc", null, null,
+                LocalDate.of(1980, 1, 1), LocalDate.of(1970, 1, 1));
+        AttractionValidationException thrown = assertThrows(AttractionValidationException.class,
+                () -> attractionService.getAttractions(filter));
+        assertEquals("Параметр dateFrom не может быть позже dateTo", thrown.getMessage());
+        verifyNoInteractions(attractionRepository);
+    }
+
+    @Test
+    void testGetAttractions_InvalidDirection_ThrowsException() {
+        AttractionFilter filter = new AttractionFilter(AttractionType.PARK, "name", "up", null, null, null, null);
+        assertThrows(AttractionValidationException.class, () -> attractionService.getAttractions(filter));
+        verifyNoInteractions(attractionRepository);
+    }
+
+    @Test
+    void testGetAttractionsPage_ReturnsNextCursor() {
+        AttractionType type = AttractionType.PARK;
+        AttractionQuery query = new AttractionQuery(type, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        List<AttractionRow> rows = List.of(
+                new AttractionRow(1L, "Альфа", LocalDate.of(1970, 10, 10), "Основан в 1970", type, null, null, null, null),
+                new AttractionRow(2L, "Бета", LocalDate.of(1970, 10, 10), "Основан в 1970", type, null, null, null, null),
+                new AttractionRow(3L, "Гамма", LocalDate.of(1970, 10, 10), "Основан в 1970", type, null, null, null, null));
+        when(attractionRepository.findRowPageByQuery(query, null, 3)).thenReturn(rows);
+        when(attractionRepository.findServiceRowsByAttractionIds(List.of(1L, 2L))).thenReturn(List.of());
+        AttractionPageDTO page = attractionService.getAttractionsPage(new AttractionFilter(type, "name"), null, 2);
+        assertEquals(2, page.getContent().size());
+        AttractionCursor next = AttractionCursor.decode(page.getNextCursor(), AttractionSortField.NAME);
+        assertEquals("Бета", next.getLastKey());
+        assertEquals(2L, next.getLastId());
     }
 
+    @Test
+    void testGetAttractionsPage_LastPage() {
+        AttractionType type = AttractionType.PARK;
+        AttractionQuery query = new AttractionQuery(type, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        AttractionCursor after = new AttractionCursor(AttractionSortField.NAME, "Бета", 2L);
+        List<AttractionRow> rows = List.of(
+                new AttractionRow(3L, "Гамма", LocalDate.of(1970, 10, 10), "Основан в 1970", type, null, null, null, null));
+        when(attractionRepository.findRowPageByQuery(query, after, 3)).thenReturn(rows);
+        when(attractionRepository.findServiceRowsByAttractionIds(List.of(3L))).thenReturn(List.of());
+        AttractionPageDTO page = attractionService.getAttractionsPage(new AttractionFilter(type, "name"), after.encode(), 2);
+        assertEquals(1, page.getContent().size());
+        assertEquals(3L, page.getContent().get(0).idAttraction());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetAttractionsPage_CursorForOtherSort_ThrowsException() {
+        String cursor = new AttractionCursor(AttractionSortField.NAME, "Бета", 2L).encode();
+        assertThrows(AttractionValidationException.class,
+                () -> attractionService.getAttractionsPage(new AttractionFilter(AttractionType.PARK, "id"), cursor, 2));
+    }
+
+    @Test
+    void testGetAttractionsPage_InvalidLimit_ThrowsException() {
+        assertThrows(AttractionValidationException.class,
+                () -> attractionService.getAttractionsPage(new AttractionFilter(AttractionType.PARK, "name"), null, 0));
+        verifyNoInteractions(attractionRepository);
+    }
 
     @Test
     void testUpdateAttraction_Success() {
         Long idAttraction = 1L;
         String newDescription = "Updated Description";
-        Attraction attraction = new Attraction();
-        when(attractionRepository.findById(idAttraction)).thenReturn(Optional.of(attraction));
-        when(attractionRepository.save(attraction)).thenReturn(attraction);
-        Optional<Attraction> result = attractionService.updateAttraction(idAttraction, newDescription);
-        assertTrue(result.isPresent());
-        assertEquals(newDescription, result.get().getDescription());
-        verify(attractionRepository).save(attraction);
+        Attraction updated = new Attraction();
+        updated.setIdAttraction(idAttraction);
+        updated.setDescription(newDescription);
+        updated.setVersion(5L);
+        when(attractionRepository.updateDescription(eq(idAttraction), eq(newDescription), isNull(), any())).thenReturn(1);
+        when(attractionRepository.findWithDetailsByIdAttraction(idAttraction)).thenReturn(Optional.of(updated));
+        assertEquals(updated, attractionService.updateAttraction(idAttraction, newDescription, null));
+        InOrder inOrder = inOrder(attractionRepository);
+        inOrder.verify(attractionRepository).updateDescription(eq(idAttraction), eq(newDescription), isNull(), any());
+        inOrder.verify(attractionRepository).findWithDetailsByIdAttraction(idAttraction);
+        verify(attractionRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(
+                new EntityChangedEvent(ChangeEntityType.ATTRACTION, idAttraction, ChangeOperation.UPDATE));
+    }
+
+    @Test
+    void testUpdateAttraction_WithExpectedVersion() {
+        Attraction updated = new Attraction();
+        updated.setVersion(3L);
+        when(attractionRepository.updateDescription(eq(1L), eq("Новое"), eq(2L), any())).thenReturn(1);
+        when(attractionRepository.findWithDetailsByIdAttraction(1L)).thenReturn(Optional.of(updated));
+        assertEquals(3L, attractionService.updateAttraction(1L, "Новое", 2L).getVersion());
+        verify(attractionRepository, never()).findVersionById(1L);
+    }
+
+    @Test
+    void testUpdateAttraction_VersionConflict() {
+        when(attractionRepository.updateDescription(eq(1L), eq("Новое"), eq(2L), any())).thenReturn(0);
+        when(attractionRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+        assertThrows(AttractionConflictException.class, () -> attractionService.updateAttraction(1L, "Новое", 2L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testUpdateAttraction_NotFound() {
+        when(attractionRepository.updateDescription(eq(1L), eq("Новое"), isNull(), any())).thenReturn(0);
+        when(attractionRepository.findVersionById(1L)).thenReturn(Optional.empty());
+        assertThrows(AttractionNotFoundException.class, () -> attractionService.updateAttraction(1L, "Новое", null));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testUpdateAttraction_EmptyDescription() {
+        assertThrows(AttractionValidationException.class, () -> attractionService.updateAttraction(1L, "", null));
+        verifyNoInteractions(attractionRepository);
+    }
+
+    @Test
+    void testDeleteAttraction_NotFound() {
+        when(attractionRepository.findStatsDeltaById(1L)).thenReturn(Optional.empty());
+        assertThrows(AttractionNotFoundException.class, () -> attractionService.deleteAttraction(1L));
+        verify(attractionRepository, never()).deleteById(1L);
+        verifyNoInteractions(locationTypeStatsRepository, eventPublisher);
     }
 
     @Test
     void testDeleteAttraction_AttractionExists() {
         Long attractionId = 1L;
-        when(attractionRepository.existsById(attractionId)).thenReturn(true);
+        when(attractionRepository.findStatsDeltaById(attractionId))
+                .thenReturn(Optional.of(new AttractionStatsDelta(7L, AttractionType.PARK, 1, 3)));
         attractionService.deleteAttraction(attractionId);
         verify(attractionRepository).deleteById(attractionId);
+        verify(locationTypeStatsRepository).increment(
+                List.of(new AttractionStatsDelta(7L, AttractionType.PARK, -1, -3)));
+        verify(eventPublisher).publishEvent(
+                new EntityChangedEvent(ChangeEntityType.ATTRACTION, attractionId, ChangeOperation.DELETE));
     }
 
     @Test
     public void testFindAllAttractionByLocationName_WithAttractions() {
         String locationName = "Paris";
-        List<Attraction> mockAttractions = List.of(new Attraction(
-                1L, "Якуб Колас", "10.10.1970", "Основан в 1970",
-                AttractionType.MUSEUM, null, null), new Attraction(
-                2L, "Янка Купала", "10.10.1970", "Основан в 1970",
-                AttractionType.MUSEUM, null, null));
-        when(attractionRepository.findByLocation_NameLocation(locationName)).thenReturn(mockAttractions);
-        List<Attraction> attractions = attractionService.findAllAttractionByLocationName(locationName);
+        List<AttractionRow> rows = List.of(new AttractionRow(
+                1L, "Якуб Колас", LocalDate.of(1970, 10, 10), "Основан в 1970",
+                AttractionType.MUSEUM, 5L, locationName, 2000000L, true), new AttractionRow(
+                2L, "Янка Купала", LocalDate.of(1970, 10, 10), "Основан в 1970",
+                AttractionType.MUSEUM, 5L, locationName, 2000000L, true));
+        when(attractionRepository.findRowsByLocationName(locationName)).thenReturn(rows);
+        when(attractionRepository.findServiceRowsByLocationName(locationName)).thenReturn(List.of(
+                new ServiceRow(2L, 10L, "Экскурсия", "Описание")));
+        List<AttractionView> attractions = attractionService.findAllAttractionByLocationName(locationName);
         assertEquals(2, attractions.size());
-        assertEquals("Якуб Колас", attractions.get(0).getName());
-        assertEquals("Янка Купала", attractions.get(1).getName());
+        assertEquals("Якуб Колас", attractions.get(0).name());
+        assertEquals("Янка Купала", attractions.get(1).name());
+        assertTrue(attractions.get(0).services().isEmpty());
+        assertEquals("Экскурсия", attractions.get(1).services().get(0).name());
     }
 
     @Test
     public void testFindAllAttractionByLocationName_NoAttractions() {
         String locationName = "Unknown Location";
-        when(attractionRepository.findByLocation_NameLocation(locationName)).thenReturn(Collections.emptyList());
+        when(attractionRepository.findRowsByLocationName(locationName)).thenReturn(Collections.emptyList());
         AttractionNotFoundException exception = assertThrows(AttractionNotFoundException.class,
                 () -> attractionService.findAllAttractionByLocationName(locationName));
         assertEquals("Не найдены достопремичательности для локации: " + locationName, exception.getMessage());
     }
+
+    @Test
+    void testSearchAttractions_PassesOffsetAndTrimmedText() {
+        List<AttractionSearchHit> hits = List.of(new AttractionSearchHit(
+                1L, "Несвижский замок", "Замок XVI века", AttractionType.PALACE, 5L, "Несвиж", 0.6f));
+        when(attractionRepository.searchByText("замок", AttractionType.PALACE, null, 40, 20)).thenReturn(hits);
+        assertEquals(hits, attractionService.searchAttractions("  замок ", AttractionType.PALACE, null, 2, 20));
+    }
+
+    @Test
+    void testSearchAttractions_BlankText_ThrowsException() {
+        AttractionValidationException exception = assertThrows(AttractionValidationException.class,
+                () -> attractionService.searchAttractions(" ", null, null, 0, 20));
+        assertEquals("Строка поиска не может быть пустой", exception.getMessage());
+        verify(attractionRepository, never()).searchByText(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearchAttractions_TooDeepPage_ThrowsException() {
+        assertThrows(AttractionValidationException.class,
+                () -> attractionService.searchAttractions("замок", null, null, 1000, 100));
+        assertThrows(AttractionValidationException.class,
+                () -> attractionService.searchAttractions("замок", null, null, 0, 101));
+    }
+
+    @Test
+    void testFindNearbyAttractions_InvalidPoint_ThrowsException() {
+        assertThrows(AttractionValidationException.class,
+                () -> attractionService.findNearbyAttractions(91, 27.5, null, null, 20));
+        assertThrows(AttractionValidationException.class,
+                () -> attractionService.findNearbyAttractions(53.9, 27.5, -1.0, null, 20));
+        assertThrows(AttractionValidationException.class,
+                () -> attractionService.findNearbyAttractions(53.9, 27.5, 1000.0, null, 0));
+        verify(attractionRepository, never()).findNearby(anyDouble(), anyDouble(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testToNewAttraction_LatitudeWithoutLongitude_ThrowsException() {
+        AttractionDTO attractionDTO = new AttractionDTO(
+                null, "Якуб Колас", LocalDate.of(1970, 10, 10), "Основан в 1970",
+                AttractionType.PARK, null, null, 53.9, null);
+        assertThrows(AttractionValidationException.class, () -> attractionService.toNewAttraction(attractionDTO));
+    }
+
+    @Test
+    void testGetAttractionsByLocationVersion_UsesLocationFilterOnly() {
+        AttractionsVersion version = new AttractionsVersion(2L, 3L, 0L, null, 0L, null);
+        when(attractionRepository.findVersionByQuery(new AttractionQuery(
+                null, AttractionSortField.ID, Sort.Direction.ASC, "Minsk", null))).thenReturn(version);
+        assertSame(version, attractionService.getAttractionsByLocationVersion("Minsk"));
+    }
+
+    @Test
+    void testGetAttractions_ServedFromLoadedReadModel() {
+        AttractionQuery query = new AttractionQuery(AttractionType.PARK, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        AttractionsVersion version = new AttractionsVersion(0L, null, null, null, null, null);
+        when(readModel.isLoaded()).thenReturn(true);
+        when(readModel.sortsLikeDatabase(AttractionSortField.NAME)).thenReturn(true);
+        when(readModel.find(query)).thenReturn(List.of());
+        when(readModel.version(query)).thenReturn(version);
+
+        assertTrue(attractionService.getAttractions(new AttractionFilter(AttractionType.PARK, "name")).isEmpty());
+        assertSame(version, attractionService.getAttractionsVersion(new AttractionFilter(AttractionType.PARK, "name")));
+        verify(attractionRepository, never()).findRowsByQuery(any());
+        verify(attractionRepository, never()).findVersionByQuery(any());
+    }
+
+    @Test
+    void testGetAttractions_NameSortReadFromDatabaseWithoutCollation() {
+        AttractionQuery query = new AttractionQuery(AttractionType.PARK, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        when(readModel.isLoaded()).thenReturn(true);
+        when(readModel.sortsLikeDatabase(AttractionSortField.NAME)).thenReturn(false);
+        when(attractionRepository.findRowsByQuery(query)).thenReturn(List.of());
+
+        assertTrue(attractionService.getAttractions(new AttractionFilter(AttractionType.PARK, "name")).isEmpty());
+        verify(readModel, never()).find(any());
+        verify(attractionRepository).findRowsByQuery(query);
+    }
+
+    @Test
+    void testGetAttractions_FallsBackToSnapshotWhenDatabaseFails() {
+        AttractionQuery query = new AttractionQuery(AttractionType.PARK, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        List<AttractionView> views = List.of();
+        when(attractionRepository.findRowsByQuery(query)).thenThrow(new DataAccessResourceFailureException("down"));
+        when(snapshotService.isLoaded()).thenReturn(true);
+        when(snapshotService.find(query)).thenReturn(views);
+        when(snapshotService.sortsLikeDatabase(AttractionSortField.NAME)).thenReturn(true);
+
+        assertSame(views, attractionService.getAttractions(new AttractionFilter(AttractionType.PARK, "name")));
+    }
+
+    @Test
+    void testGetAttractions_RethrowsDatabaseFailureWithoutSnapshot() {
+        AttractionQuery query = new AttractionQuery(AttractionType.PARK, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        when(attractionRepository.findRowsByQuery(query)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> attractionService.getAttractions(new AttractionFilter(AttractionType.PARK, "name")));
+        verify(snapshotService, never()).find(any());
+    }
+
+    @Test
+    void testGetAttractionsVersion_ServedFromSnapshotWhileWarming() {
+        AttractionQuery query = new AttractionQuery(AttractionType.PARK, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        AttractionsVersion version = new AttractionsVersion(0L, null, null, null, null, null);
+        when(snapshotService.isWarming()).thenReturn(true);
+        when(snapshotService.version(query)).thenReturn(version);
+
+        assertSame(version, attractionService.getAttractionsVersion(new AttractionFilter(AttractionType.PARK, "name")));
+        verify(attractionRepository, never()).findVersionByQuery(any());
+    }
+
+    @Test
+    void testGetAttractionsPage_FallsBackToSnapshotWhenDatabaseFails() {
+        AttractionQuery query = new AttractionQuery(AttractionType.PARK, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        AttractionCursor after = new AttractionCursor(AttractionSortField.NAME, "Альфа", 1L);
+        List<AttractionView> views = List.of(
+                new AttractionView(2L, "Бета", null, null, AttractionType.PARK, null, List.of()),
+                new AttractionView(3L, "Гамма", null, null, AttractionType.PARK, null, List.of()));
+        when(attractionRepository.findRowPageByQuery(query, after, 2))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        when(snapshotService.isLoaded()).thenReturn(true);
+        when(snapshotService.findPage(query, after, 2)).thenReturn(views);
+        when(snapshotService.sortsLikeDatabase(AttractionSortField.NAME)).thenReturn(true);
+
+        AttractionPageDTO page = attractionService.getAttractionsPage(
+                new AttractionFilter(AttractionType.PARK, "name"), after.encode(), 1);
+
+        assertEquals(List.of(views.get(0)), page.getContent());
+        assertEquals(new AttractionCursor(AttractionSortField.NAME, "Бета", 2L),
+                AttractionCursor.decode(page.getNextCursor(), AttractionSortField.NAME));
+    }
+
+    @Test
+    void testGetAttractionsPage_NameSortNotServedFromSnapshotWithOtherOrder() {
+        AttractionQuery query = new AttractionQuery(AttractionType.PARK, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+        when(snapshotService.isWarming()).thenReturn(true);
+        when(snapshotService.sortsLikeDatabase(AttractionSortField.NAME)).thenReturn(false);
+        when(attractionRepository.findRowPageByQuery(query, null, 2)).thenReturn(List.of());
+
+        assertTrue(attractionService.getAttractionsPage(new AttractionFilter(AttractionType.PARK, "name"), null, 1)
+                .getContent().isEmpty());
+
+        when(attractionRepository.findRowPageByQuery(query, null, 2))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        when(snapshotService.isLoaded()).thenReturn(true);
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> attractionService.getAttractionsPage(new AttractionFilter(AttractionType.PARK, "name"), null, 1));
+        verify(snapshotService, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void testFindAllAttractionByLocationName_SnapshotFallbackIsNotCached() {
+        Cache cache = new ConcurrentMapCache(CacheConfig.ATTRACTIONS_BY_LOCATION);
+        AttractionQuery query = new AttractionQuery(null, AttractionSortField.ID, Sort.Direction.ASC, "Minsk", null);
+        List<AttractionView> views = List.of(
+                new AttractionView(1L, "Якуб Колас", null, null, AttractionType.PARK, null, List.of()));
+        when(cacheManager.getCache(CacheConfig.ATTRACTIONS_BY_LOCATION)).thenReturn(cache);
+        when(attractionRepository.findRowsByLocationName("Minsk"))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        when(snapshotService.isLoaded()).thenReturn(true);
+        when(snapshotService.find(query)).thenReturn(views);
+        AttractionsVersion version = new AttractionsVersion(1L, 1L, 0L, null, null, null);
+        when(attractionRepository.findVersionByQuery(query)).thenThrow(new DataAccessResourceFailureException("down"));
+        when(snapshotService.version(query)).thenReturn(version);
+
+        assertSame(views, attractionService.findAllAttractionByLocationName("Minsk"));
+        assertSame(version, attractionService.getAttractionsByLocationVersion("Minsk"));
+        assertNull(cache.get("Minsk"));
+    }
+
+    @Test
+    void testFindAllAttractionByLocationName_CachesDatabaseResult() {
+        Cache cache = new ConcurrentMapCache(CacheConfig.ATTRACTIONS_BY_LOCATION);
+        when(cacheManager.getCache(CacheConfig.ATTRACTIONS_BY_LOCATION)).thenReturn(cache);
+        when(attractionRepository.findRowsByLocationName("Minsk")).thenReturn(List.of(
+                new AttractionRow(1L, "Якуб Колас", null, null, AttractionType.PARK, null, null, null, null)));
+        when(attractionRepository.findServiceRowsByLocationName("Minsk")).thenReturn(List.of());
+
+        List<AttractionView> first = attractionService.findAllAttractionByLocationName("Minsk");
+
+        assertSame(first, attractionService.findAllAttractionByLocationName("Minsk"));
+        verify(attractionRepository, times(1)).findRowsByLocationName("Minsk");
+    }
 }
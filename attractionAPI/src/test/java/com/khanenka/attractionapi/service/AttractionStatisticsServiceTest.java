@@ -0,0 +1,112 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.Service;
+import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.dto.AttractionStatisticsDTO;
+import com.khanenka.attractionapi.entity.dto.LocationTypeCount;
+import com.khanenka.attractionapi.entity.dto.StatisticsCount;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.entity.enums.PopulationBucket;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({AttractionStatisticsService.class, AttractionService.class})
+class AttractionStatisticsServiceTest {
+
+    @Autowired
+    private AttractionStatisticsService attractionStatisticsService;
+    @Autowired
+    private AttractionService attractionService;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Location minsk;
+    private Location grodno;
+
+    @BeforeEach
+    public void setUp() {
+        minsk = testEntityManager.persist(new Location(null, "Minsk", 2000000L, true, null, null, null, null, null));
+        grodno = testEntityManager.persist(new Location(null, "Grodno", 360000L, false, null, null, null, null, null));
+        testEntityManager.flush();
+    }
+
+    @Test
+    void testGetStatistics_CountsMaintainedOnSaveAndDelete() {
+        attractionService.saveAttraction(newAttraction("Ратуша", AttractionType.MUSEUM, minsk, 2));
+        Attraction park = attractionService.saveAttraction(newAttraction("Парк", AttractionType.PARK, minsk, 1));
+        attractionService.saveAttraction(newAttraction("Замок", AttractionType.PALACE, grodno, 3));
+        attractionService.saveAttraction(newAttraction("Музей", AttractionType.MUSEUM, grodno, 0));
+        attractionService.saveAttraction(newAttraction("Без локации", null, null, 0));
+        testEntityManager.flush();
+        attractionService.deleteAttraction(park.getIdAttraction());
+        testEntityManager.flush();
+
+        AttractionStatisticsDTO statistics = attractionStatisticsService.getStatistics();
+
+        assertEquals(4, statistics.getAttractions());
+        assertEquals(5, statistics.getServices());
+        assertEquals(List.of(new StatisticsCount("MUSEUM", 2, 2), new StatisticsCount("PALACE", 1, 3),
+                        new StatisticsCount(null, 1, 0)),
+                sorted(statistics.getByType()));
+        assertEquals(List.of(new StatisticsCount("false", 2, 3), new StatisticsCount("true", 1, 2),
+                        new StatisticsCount(null, 1, 0)),
+                sorted(statistics.getByMetro()));
+        assertEquals(List.of(new StatisticsCount(PopulationBucket.FROM_100K_TO_500K.name(), 2, 3),
+                        new StatisticsCount(PopulationBucket.OVER_1M.name(), 1, 2),
+                        new StatisticsCount(PopulationBucket.UNKNOWN.name(), 1, 0)),
+                sorted(statistics.getByPopulation()));
+        assertEquals(new LocationTypeCount(minsk.getIdLocation(), "Minsk", AttractionType.MUSEUM, 1, 2),
+                statistics.getByLocation().stream()
+                        .filter(count -> minsk.getIdLocation().equals(count.idLocation()))
+                        .findFirst().orElseThrow());
+    }
+
+    @Test
+    void testGetStatistics_ReadsAggregatesInOneStatement() {
+        attractionService.saveAttraction(newAttraction("Ратуша", AttractionType.MUSEUM, minsk, 2));
+        testEntityManager.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        attractionStatisticsService.getStatistics();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private static List<StatisticsCount> sorted(List<StatisticsCount> counts) {
+        List<StatisticsCount> sorted = new ArrayList<>(counts);
+        sorted.sort((a, b) -> a.key() == null ? 1 : b.key() == null ? -1 : a.key().compareTo(b.key()));
+        return sorted;
+    }
+
+    private static AttractionDTO newAttraction(String name, AttractionType type, Location location, int services) {
+        List<Service> serviceList = new ArrayList<>();
+        for (int i = 0; i < services; i++) {
+            serviceList.add(new Service(null, "Услуга " + i, "Описание", null));
+        }
+        return new AttractionDTO(null, name, LocalDate.of(1970, 10, 10), "Описание", type,
+                location, serviceList, null, null);
+    }
+}
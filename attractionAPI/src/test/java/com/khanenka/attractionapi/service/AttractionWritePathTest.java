@@ -0,0 +1,78 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.Service;
+import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@Import(AttractionService.class)
+class AttractionWritePathTest {
+
+    private static final int SERVICES = 3;
+
+    @Autowired
+    private AttractionService attractionService;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private Location location;
+
+    @BeforeEach
+    public void setUp() {
+        location = testEntityManager.persistAndFlush(new Location(null, "Minsk", 2000000L, true, null, null, null, null, null));
+        // первый вызов резервирует блоки идентификаторов в последовательностях
+        attractionService.saveAttraction(newAttraction("Прогрев"));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testSaveAttraction_InsertsAttractionAndBatchedServicesWithOneStatisticsUpsert() {
+        Attraction attraction = attractionService.saveAttraction(newAttraction("Ратуша"));
+        testEntityManager.flush();
+
+        assertEquals(1 + SERVICES, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        // вставка достопримечательности, пакетная вставка услуг и upsert счетчиков location_type_stats
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getFlushCount());
+        testEntityManager.clear();
+        assertEquals(SERVICES, testEntityManager.find(Attraction.class, attraction.getIdAttraction()).getServices().size());
+    }
+
+    private AttractionDTO newAttraction(String name) {
+        List<Service> services = new ArrayList<>();
+        for (int i = 0; i < SERVICES; i++) {
+            services.add(new Service(null, "Услуга " + i, "Описание", null));
+        }
+        return new AttractionDTO(null, name, LocalDate.of(1970, 10, 10), "Описание", AttractionType.PARK,
+                new Location(location.getIdLocation(), null, null, null, null, null, null, null, null), services, null, null);
+    }
+}
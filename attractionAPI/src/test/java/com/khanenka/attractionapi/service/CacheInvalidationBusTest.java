@@ -0,0 +1,91 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.config.CacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTest {
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private AttractionReadModel readModel;
+    private Cache byId;
+    private Cache byLocation;
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ConcurrentMapCacheManager cacheManager =
+                new ConcurrentMapCacheManager(CacheConfig.ATTRACTION_BY_ID, CacheConfig.ATTRACTIONS_BY_LOCATION);
+        byId = cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID);
+        byLocation = cacheManager.getCache(CacheConfig.ATTRACTIONS_BY_LOCATION);
+        byId.put(1L, "first");
+        byId.put(2L, "second");
+        byLocation.put("Minsk", "list");
+        bus = new CacheInvalidationBus(dataSource, new DataSourceProperties(), cacheManager, readModel,
+                "attraction_changes", Duration.ofMillis(100), 2);
+    }
+
+    @Test
+    void testApplyPending_EvictsChangedAttractionsOfOtherNode() {
+        bus.onNotification("other-node;A1,A1");
+        bus.applyPending();
+
+        assertNull(byId.get(1L));
+        assertNotNull(byId.get(2L));
+        assertNull(byLocation.get("Minsk"));
+        verify(readModel).refreshLater(Set.of(1L), Set.of());
+    }
+
+    @Test
+    void testApplyPending_LocationChangeClearsAllAttractions() {
+        bus.onNotification("other-node;L7");
+        bus.applyPending();
+
+        assertNull(byId.get(1L));
+        assertNull(byId.get(2L));
+        verify(readModel).refreshLater(Set.of(), Set.of(7L));
+    }
+
+    @Test
+    void testApplyPending_CoalescesStormIntoFullClear() {
+        bus.onNotification("other-node;A10,A11");
+        bus.onNotification("third-node;A12");
+        bus.applyPending();
+
+        assertNull(byId.get(1L));
+        assertNull(byId.get(2L));
+        verify(readModel, times(1)).refreshLater(Set.of(10L, 11L, 12L), Set.of());
+    }
+
+    @Test
+    void testApplyPending_NothingPending() {
+        bus.onNotification("malformed");
+        bus.applyPending();
+
+        assertNotNull(byId.get(1L));
+        assertNotNull(byLocation.get("Minsk"));
+        verifyNoInteractions(readModel);
+    }
+
+    @Test
+    void testConstructor_RejectsUnsafeChannel() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheInvalidationBus(dataSource,
+                new DataSourceProperties(), new ConcurrentMapCacheManager(), null,
+                "changes; drop table attraction", Duration.ofMillis(100), 10));
+    }
+}
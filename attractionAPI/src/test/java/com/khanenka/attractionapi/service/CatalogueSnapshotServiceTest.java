@@ -0,0 +1,187 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.entity.dto.AttractionCatalogueRow;
+import com.khanenka.attractionapi.entity.dto.AttractionView;
+import com.khanenka.attractionapi.entity.dto.ChangePageDTO;
+import com.khanenka.attractionapi.entity.dto.ChangeView;
+import com.khanenka.attractionapi.entity.dto.ServiceRow;
+import com.khanenka.attractionapi.entity.enums.AttractionSortField;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.repository.AttractionQuery;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import com.khanenka.attractionapi.utility.AttractionCursor;
+import com.khanenka.attractionapi.utility.CatalogueSnapshotFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogueSnapshotServiceTest {
+
+    private static final AttractionQuery QUERY = new AttractionQuery(
+            null, AttractionSortField.NAME, Sort.Direction.ASC, null, null);
+
+    @Mock
+    private AttractionRepository attractionRepository;
+    @Mock
+    private ChangeLogService changeLogService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    private Path directory;
+    private Path path;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        path = directory.resolve("catalogue.snapshot");
+        when(attractionRepository.streamCatalogueRows()).thenAnswer(invocation -> Stream.of(
+                new AttractionCatalogueRow(1L, "Мирский замок", LocalDate.of(1520, 1, 1), "Замок",
+                        AttractionType.PALACE, 2L, Instant.parse("2024-01-01T00:00:00Z"),
+                        5L, "Мир", 2000L, false, 1L, null)));
+        when(attractionRepository.streamServiceRows()).thenAnswer(invocation -> Stream.of(
+                new ServiceRow(1L, 10L, "Экскурсия", "С гидом")));
+        when(changeLogService.getLastSeq()).thenReturn(7L);
+        when(changeLogService.getChanges(anyLong(), anyInt())).thenAnswer(invocation ->
+                new ChangePageDTO(List.of(), invocation.getArgument(0), false));
+    }
+
+    @Test
+    void testStart_ServesSnapshotWrittenByPreviousRunWhileWarming() {
+        create().writeSnapshot();
+
+        CatalogueSnapshotService restarted = create();
+        restarted.start();
+
+        assertTrue(restarted.isWarming());
+        List<AttractionView> views = restarted.find(QUERY);
+        assertEquals(1, views.size());
+        assertEquals("Мирский замок", views.get(0).name());
+        assertEquals("Мир", views.get(0).location().nameLocation());
+        assertEquals("Экскурсия", views.get(0).services().get(0).name());
+        assertEquals(1L, restarted.version(QUERY).count());
+    }
+
+    @Test
+    void testWriteSnapshot_EndsWarming() {
+        CatalogueSnapshotService service = create();
+        service.writeSnapshot();
+
+        assertTrue(service.isLoaded());
+        assertFalse(service.isWarming());
+        assertTrue(Files.exists(path));
+    }
+
+    @Test
+    void testWriteSnapshot_KeepsPreviousSnapshotWhenDatabaseFails() {
+        create().writeSnapshot();
+        CatalogueSnapshotService restarted = create();
+        restarted.start();
+        when(changeLogService.getChanges(anyLong(), anyInt())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        restarted.writeSnapshot();
+
+        assertTrue(restarted.isWarming());
+        assertEquals(1, restarted.find(QUERY).size());
+    }
+
+    @Test
+    void testWriteSnapshot_AppliesChangeLogInsteadOfFullRead() throws Exception {
+        create().writeSnapshot();
+        CatalogueSnapshotService restarted = create();
+        restarted.start();
+        when(changeLogService.getChanges(7L, ChangeLogService.MAX_CHANGES_LIMIT)).thenReturn(new ChangePageDTO(
+                List.of(new ChangeView(8L, ChangeEntityType.ATTRACTION, 2L, ChangeOperation.CREATE, Instant.now())),
+                8L, false));
+        when(attractionRepository.findCatalogueRowsByIds(List.of(2L))).thenReturn(List.of(
+                new AttractionCatalogueRow(2L, "Несвижский замок", LocalDate.of(1583, 1, 1), "Замок",
+                        AttractionType.PALACE, 0L, Instant.parse("2024-01-02T00:00:00Z"),
+                        6L, "Несвиж", 15000L, false, 1L, null)));
+
+        restarted.writeSnapshot();
+
+        assertFalse(restarted.isWarming());
+        assertEquals(List.of("Мирский замок", "Несвижский замок"),
+                restarted.find(QUERY).stream().map(AttractionView::name).toList());
+        verify(attractionRepository, times(1)).streamCatalogueRows();
+        CatalogueSnapshotFile file = CatalogueSnapshotFile.read(path);
+        assertEquals(8L, file.getChangeSeq());
+        assertEquals(2, file.getRows().size());
+        assertEquals(1, file.getServices().size());
+    }
+
+    @Test
+    void testFindPage_ContinuesAfterCursor() {
+        when(attractionRepository.streamCatalogueRows()).thenAnswer(invocation -> Stream.of(
+                new AttractionCatalogueRow(1L, "Мирский замок", null, null, AttractionType.PALACE, 0L, null,
+                        null, null, null, null, null, null),
+                new AttractionCatalogueRow(2L, "Несвижский замок", null, null, AttractionType.PALACE, 0L, null,
+                        null, null, null, null, null, null),
+                new AttractionCatalogueRow(3L, "Брестская крепость", null, null, AttractionType.MUSEUM, 0L, null,
+                        null, null, null, null, null, null)));
+        CatalogueSnapshotService service = create();
+        service.writeSnapshot();
+        AttractionQuery byNameDesc = new AttractionQuery(null, AttractionSortField.NAME, Sort.Direction.DESC, null, null);
+
+        List<AttractionView> page = service.findPage(byNameDesc,
+                new AttractionCursor(AttractionSortField.NAME, "Несвижский замок", 2L), 5);
+
+        assertEquals(List.of(1L, 3L), page.stream().map(AttractionView::idAttraction).toList());
+        assertEquals(List.of(2L), service.findPage(byNameDesc, null, 1).stream()
+                .map(AttractionView::idAttraction).toList());
+    }
+
+    @Test
+    void testStart_IgnoresCorruptFile() throws Exception {
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        CatalogueSnapshotService service = create();
+
+        service.start();
+
+        assertFalse(service.isLoaded());
+        assertThrows(IllegalStateException.class, () -> service.find(QUERY));
+    }
+
+    @Test
+    void testSortsLikeDatabase_KeepsLastKnownCollationWhenDatabaseFails() {
+        CatalogueSnapshotService service = create();
+        assertFalse(service.sortsLikeDatabase(AttractionSortField.NAME));
+        assertTrue(service.sortsLikeDatabase(AttractionSortField.DATE));
+
+        when(attractionRepository.findTextCollations()).thenReturn(List.of("C"));
+        service.writeSnapshot();
+        assertTrue(service.sortsLikeDatabase(AttractionSortField.NAME));
+
+        when(attractionRepository.findTextCollations()).thenThrow(new DataAccessResourceFailureException("down"));
+        service.writeSnapshot();
+        assertTrue(service.sortsLikeDatabase(AttractionSortField.DESCRIPTION));
+
+        CatalogueSnapshotService other = create();
+        doReturn(List.of("ru_RU.UTF-8")).when(attractionRepository).findTextCollations();
+        other.writeSnapshot();
+        assertFalse(other.sortsLikeDatabase(AttractionSortField.NAME));
+    }
+
+    private CatalogueSnapshotService create() {
+        return new CatalogueSnapshotService(attractionRepository, changeLogService, transactionManager, path,
+                Duration.ofMinutes(5), new SimpleMeterRegistry());
+    }
+}
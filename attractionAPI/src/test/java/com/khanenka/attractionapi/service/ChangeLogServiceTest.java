@@ -0,0 +1,167 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.dto.AttractionDTO;
+import com.khanenka.attractionapi.entity.dto.ChangePageDTO;
+import com.khanenka.attractionapi.entity.dto.ChangeView;
+import com.khanenka.attractionapi.entity.dto.LocationDTO;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.exception.AttractionValidationException;
+import com.khanenka.attractionapi.exception.ChangeValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({ChangeLogService.class, AttractionService.class, LocationService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChangeLogServiceTest {
+
+    @Autowired
+    private ChangeLogService changeLogService;
+    @Autowired
+    private AttractionService attractionService;
+    @Autowired
+    private LocationService locationService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSource dataSource;
+    private long since;
+
+    @BeforeEach
+    public void setUp() {
+        since = changeLogService.getChanges(0, 1000).getNextSince();
+    }
+
+    @Test
+    void testGetChanges_ReturnsCommittedMutationsInOrder() {
+        Location location = locationService.addLocation(new LocationDTO(null, "Brest", 340000L, false, null, null, null));
+        Attraction attraction = attractionService.saveAttraction(newAttraction(location));
+        attractionService.updateAttraction(attraction.getIdAttraction(), "Новое описание", null);
+        attractionService.deleteAttraction(attraction.getIdAttraction());
+
+        ChangePageDTO page = changeLogService.getChanges(since, 100);
+
+        assertEquals(List.of(
+                        ChangeEntityType.LOCATION + ":" + location.getIdLocation() + ":" + ChangeOperation.CREATE,
+                        ChangeEntityType.ATTRACTION + ":" + attraction.getIdAttraction() + ":" + ChangeOperation.CREATE,
+                        ChangeEntityType.ATTRACTION + ":" + attraction.getIdAttraction() + ":" + ChangeOperation.UPDATE,
+                        ChangeEntityType.ATTRACTION + ":" + attraction.getIdAttraction() + ":" + ChangeOperation.DELETE),
+                page.getChanges().stream()
+                        .map(change -> change.entityType() + ":" + change.entityId() + ":" + change.operation())
+                        .toList());
+        assertFalse(page.isHasMore());
+        assertEquals(page.getChanges().get(3).seq(), page.getNextSince());
+    }
+
+    @Test
+    void testGetChanges_PagesWithNextSince() {
+        Location location = locationService.addLocation(new LocationDTO(null, "Pinsk", 130000L, false, null, null, null));
+        locationService.updateLocation(location.getIdLocation(), 131000L, false, null);
+        locationService.updateLocation(location.getIdLocation(), 132000L, false, null);
+
+        ChangePageDTO first = changeLogService.getChanges(since, 2);
+        ChangePageDTO second = changeLogService.getChanges(first.getNextSince(), 2);
+
+        assertEquals(2, first.getChanges().size());
+        assertTrue(first.isHasMore());
+        assertEquals(1, second.getChanges().size());
+        assertFalse(second.isHasMore());
+        assertTrue(second.getChanges().get(0).seq() > first.getNextSince());
+    }
+
+    @Test
+    void testGetChanges_CoalescesChangesOfOneTransaction() {
+        Location location = locationService.addLocation(new LocationDTO(null, "Lida", 100000L, false, null, null, null));
+        since = changeLogService.getChanges(since, 1000).getNextSince();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            locationService.updateLocation(location.getIdLocation(), 101000L, true, null);
+            locationService.updateLocation(location.getIdLocation(), 102000L, true, null);
+        });
+
+        List<ChangeView> changes = changeLogService.getChanges(since, 100).getChanges();
+        assertEquals(1, changes.size());
+        assertEquals(ChangeOperation.UPDATE, changes.get(0).operation());
+    }
+
+    @Test
+    void testGetChanges_RolledBackMutationIsNotRecorded() {
+        Location location = locationService.addLocation(new LocationDTO(null, "Orsha", 110000L, false, null, null, null));
+        since = changeLogService.getChanges(since, 1000).getNextSince();
+
+        assertThrows(AttractionValidationException.class, () ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    locationService.updateLocation(location.getIdLocation(), 111000L, true, null);
+                    attractionService.saveAttraction(new AttractionDTO());
+                }));
+
+        assertTrue(changeLogService.getChanges(since, 100).getChanges().isEmpty());
+    }
+
+    @Test
+    void testGetChanges_FlushesPendingChangesBeforeWritingLog() {
+        Location location = locationService.addLocation(new LocationDTO(null, "Polotsk", 82000L, false, null, null, null));
+        Attraction attraction = attractionService.saveAttraction(newAttraction(location));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        AtomicLong remaining = new AtomicLong(-1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            attractionService.deleteAttraction(attraction.getIdAttraction());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    remaining.set(jdbcTemplate.queryForObject("select count(*) from attractions where id_attraction = ?",
+                            Long.class, attraction.getIdAttraction()));
+                }
+            });
+        });
+
+        assertEquals(0, remaining.get());
+    }
+
+    @Test
+    void testGetLastSeq_ReturnsLastEntry() {
+        locationService.addLocation(new LocationDTO(null, "Pinsk", 125000L, false, null, null, null));
+        long last = changeLogService.getChanges(since, 100).getNextSince();
+
+        assertTrue(last > since);
+        assertEquals(last, changeLogService.getLastSeq());
+    }
+
+    @Test
+    void testGetChanges_InvalidLimit_ThrowsException() {
+        assertThrows(ChangeValidationException.class, () -> changeLogService.getChanges(0, 0));
+        assertThrows(ChangeValidationException.class, () -> changeLogService.getChanges(-1, 10));
+    }
+
+    private static AttractionDTO newAttraction(Location location) {
+        AttractionDTO attractionDTO = new AttractionDTO(null, "Крепость", LocalDate.of(1842, 1, 1), "Описание",
+                AttractionType.ARCHAEOLOGICAL_SITE, null, null, null, null);
+        attractionDTO.setLocation(location);
+        return attractionDTO;
+    }
+}
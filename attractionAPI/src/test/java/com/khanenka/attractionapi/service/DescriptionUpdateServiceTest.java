@@ -0,0 +1,198 @@
+package com.khanenka.attractionapi.service;
+
+import com.khanenka.attractionapi.config.CacheConfig;
+import com.khanenka.attractionapi.entity.Attraction;
+import com.khanenka.attractionapi.entity.dto.DescriptionUpdateView;
+import com.khanenka.attractionapi.entity.enums.AttractionType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.entity.enums.DescriptionUpdateStatus;
+import com.khanenka.attractionapi.exception.AttractionValidationException;
+import com.khanenka.attractionapi.exception.DescriptionQueueFullException;
+import com.khanenka.attractionapi.exception.DescriptionUpdateNotFoundException;
+import com.khanenka.attractionapi.repository.AttractionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class DescriptionUpdateServiceTest {
+
+    @Mock
+    private AttractionRepository attractionRepository;
+    @Mock
+    private AttractionService attractionService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private ConcurrentMapCacheManager cacheManager;
+    private DescriptionUpdateService descriptionUpdateService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.ATTRACTION_BY_ID, CacheConfig.ATTRACTIONS_BY_LOCATION);
+        descriptionUpdateService = create(100);
+    }
+
+    @Test
+    void testFlush_CoalescesUpdatesOfOneAttraction() {
+        when(attractionRepository.updateDescription(eq(1L), any(), any(), any())).thenReturn(1);
+        when(attractionRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        DescriptionUpdateView first = descriptionUpdateService.submit(1L, "Первое", null);
+        DescriptionUpdateView second = descriptionUpdateService.submit(1L, "Второе", null);
+        descriptionUpdateService.flush();
+
+        verify(attractionRepository, times(1)).updateDescription(eq(1L), any(), any(), any());
+        verify(attractionRepository).updateDescription(eq(1L), eq("Второе"), isNull(), any());
+        verify(attractionRepository, never()).findAllById(any());
+        verify(attractionService, times(1)).publishChange(1L, ChangeOperation.UPDATE);
+        assertEquals(DescriptionUpdateStatus.SUPERSEDED, descriptionUpdateService.getStatus(first.ticket()).status());
+        DescriptionUpdateView applied = descriptionUpdateService.getStatus(second.ticket());
+        assertEquals(DescriptionUpdateStatus.APPLIED, applied.status());
+        assertEquals(4L, applied.version());
+    }
+
+    @Test
+    void testFlush_CoalescedUpdateWithNewerVersionWins() {
+        when(attractionRepository.updateDescription(eq(1L), any(), any(), any())).thenReturn(1);
+
+        DescriptionUpdateView newer = descriptionUpdateService.submit(1L, "По версии 5", 5L);
+        DescriptionUpdateView stale = descriptionUpdateService.submit(1L, "По версии 4", 4L);
+        descriptionUpdateService.flush();
+
+        verify(attractionRepository, times(1)).updateDescription(eq(1L), any(), any(), any());
+        verify(attractionRepository).updateDescription(eq(1L), eq("По версии 5"), eq(5L), any());
+        verify(attractionRepository, never()).findVersionById(any());
+        assertEquals(DescriptionUpdateStatus.SUPERSEDED, descriptionUpdateService.getStatus(stale.ticket()).status());
+        DescriptionUpdateView applied = descriptionUpdateService.getStatus(newer.ticket());
+        assertEquals(DescriptionUpdateStatus.APPLIED, applied.status());
+        assertEquals(6L, applied.version());
+    }
+
+    @Test
+    void testFlush_EvictsCachedAttraction() {
+        cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID).put(1L, attraction(1L));
+        cacheManager.getCache(CacheConfig.ATTRACTIONS_BY_LOCATION).put("Minsk", List.of());
+        when(attractionRepository.updateDescription(eq(1L), any(), any(), any())).thenReturn(1);
+        when(attractionRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        descriptionUpdateService.submit(1L, "Новое", null);
+        descriptionUpdateService.flush();
+
+        assertNull(cacheManager.getCache(CacheConfig.ATTRACTION_BY_ID).get(1L));
+        assertNull(cacheManager.getCache(CacheConfig.ATTRACTIONS_BY_LOCATION).get("Minsk"));
+    }
+
+    @Test
+    void testFlush_MarksMissingAttractionNotFound() {
+        when(attractionRepository.updateDescription(any(), any(), any(), any())).thenReturn(0);
+        when(attractionRepository.findVersionById(5L)).thenReturn(Optional.empty());
+
+        DescriptionUpdateView accepted = descriptionUpdateService.submit(5L, "Новое", null);
+        descriptionUpdateService.flush();
+
+        assertEquals(DescriptionUpdateStatus.NOT_FOUND, descriptionUpdateService.getStatus(accepted.ticket()).status());
+        verify(attractionService, never()).publishChange(any(), any());
+    }
+
+    @Test
+    void testFlush_MarksStaleVersionConflict() {
+        when(attractionRepository.updateDescription(any(), any(), any(), any())).thenReturn(0);
+        when(attractionRepository.findVersionById(1L)).thenReturn(Optional.of(7L));
+
+        DescriptionUpdateView accepted = descriptionUpdateService.submit(1L, "Новое", 6L);
+        descriptionUpdateService.flush();
+
+        DescriptionUpdateView conflict = descriptionUpdateService.getStatus(accepted.ticket());
+        assertEquals(DescriptionUpdateStatus.CONFLICT, conflict.status());
+        assertEquals(7L, conflict.version());
+        verify(attractionService, never()).publishChange(any(), any());
+    }
+
+    @Test
+    void testSubmit_PendingUntilFlushed() {
+        DescriptionUpdateView accepted = descriptionUpdateService.submit(1L, "Новое", null);
+
+        assertEquals(DescriptionUpdateStatus.PENDING, accepted.status());
+        assertEquals(DescriptionUpdateStatus.PENDING, descriptionUpdateService.getStatus(accepted.ticket()).status());
+        verifyNoInteractions(attractionRepository);
+    }
+
+    @Test
+    void testSubmit_RejectsNewAttractionWhenQueueFull() {
+        descriptionUpdateService = create(1);
+        descriptionUpdateService.submit(1L, "Первое", null);
+
+        assertThrows(DescriptionQueueFullException.class, () -> descriptionUpdateService.submit(2L, "Второе", null));
+        assertDoesNotThrow(() -> descriptionUpdateService.submit(1L, "Третье", null));
+    }
+
+    @Test
+    void testSubmit_ConcurrentSubmitsDoNotExceedMaxPending() throws Exception {
+        descriptionUpdateService = create(10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (long id = 0; id < 100; id++) {
+            long attractionId = id;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    descriptionUpdateService.submit(attractionId, "Новое", null);
+                    accepted.incrementAndGet();
+                } catch (DescriptionQueueFullException ignored) {
+                    // очередь заполнена
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(10, accepted.get());
+    }
+
+    @Test
+    void testSubmit_EmptyDescription() {
+        assertThrows(AttractionValidationException.class, () -> descriptionUpdateService.submit(1L, "", null));
+    }
+
+    @Test
+    void testGetStatus_UnknownTicket() {
+        assertThrows(DescriptionUpdateNotFoundException.class, () -> descriptionUpdateService.getStatus("unknown"));
+    }
+
+    private DescriptionUpdateService create(int maxPending) {
+        return new DescriptionUpdateService(attractionRepository, attractionService, cacheManager, transactionManager,
+                maxPending, 50, Duration.ofMillis(50), Duration.ofMinutes(10), new SimpleMeterRegistry());
+    }
+
+    private static Attraction attraction(Long id) {
+        return new Attraction(id, "Место", LocalDate.of(2020, 1, 1), "Описание",
+                AttractionType.PARK, null, null, null, null, 3L, null);
+    }
+}
@@ -1,7 +1,11 @@
 package com.khanenka.attractionapi.service;
 
 import com.khanenka.attractionapi.entity.Location;
+import com.khanenka.attractionapi.entity.dto.EntityChangedEvent;
 import com.khanenka.attractionapi.entity.dto.LocationDTO;
+import com.khanenka.attractionapi.entity.enums.ChangeEntityType;
+import com.khanenka.attractionapi.entity.enums.ChangeOperation;
+import com.khanenka.attractionapi.exception.LocationConflictException;
 import com.khanenka.attractionapi.exception.LocationNotFoundException;
 import com.khanenka.attractionapi.exception.LocationValidationException;
 import com.khanenka.attractionapi.repository.LocationRepository;
@@ -11,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
@@ -23,6 +28,8 @@ class LocationServiceTest {
     private LocationRepository locationRepository;
     @Mock
     ModelMapper modelMapper;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private LocationService locationService;
 
@@ -33,13 +40,14 @@ class LocationServiceTest {
 
     @Test
     void testAddLocation() {
-        LocationDTO locationDTO = new LocationDTO(1L, "Minsk", 2000000L, true, null);
-        Location location = new Location(1L, "Minsk", 2000000L, true, null);
+        LocationDTO locationDTO = new LocationDTO(1L, "Minsk", 2000000L, true, null, null, null);
+        Location location = new Location(1L, "Minsk", 2000000L, true, null, null, null, null, null);
         when(modelMapper.dtoToLocationEntity(locationDTO)).thenReturn(location);
         when(locationRepository.save(location)).thenReturn(location);
         Location createdLocation = locationService.addLocation(locationDTO);
         assertNotNull(createdLocation);
         verify(locationRepository, times(1)).save(location);
+        verify(eventPublisher).publishEvent(new EntityChangedEvent(ChangeEntityType.LOCATION, 1L, ChangeOperation.CREATE));
     }
 
     @Test
@@ -47,18 +55,21 @@ class LocationServiceTest {
         Long id = 1L;
         Long newPopulation = 2000L;
 
-        when(locationRepository.findById(id)).thenReturn(Optional.empty());
+        when(locationRepository.updatePopulationAndMetro(eq(id), eq(newPopulation), eq(true), isNull(), any()))
+                .thenReturn(0);
+        when(locationRepository.findVersionById(id)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(LocationNotFoundException.class, () -> {
-            locationService.updateLocation(id, newPopulation, true);
+            locationService.updateLocation(id, newPopulation, true, null);
         });
         assertEquals("Location not found with id: " + id, exception.getMessage());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void testAddLocationWithNegativePopulation() {
         LocationDTO locationDTO = new LocationDTO(1L, "Minsk",
-                2000000L, true, null);
+                2000000L, true, null, null, null);
         locationDTO.setPopulationLocation(-1000L);
         Exception exception = assertThrows(LocationValidationException.class, () -> {
             locationService.addLocation(locationDTO);
@@ -71,29 +82,43 @@ class LocationServiceTest {
         Long id = 1L;
         Long newPopulation = 5000L;
         boolean newHasMetro = true;
-        Location existingLocation = new Location();
-        existingLocation.setPopulationLocation(3000L);
-        existingLocation.setHasMetro(false);
-        when(locationRepository.findById(id)).thenReturn(Optional.of(existingLocation));
-        when(locationRepository.save(existingLocation)).thenReturn(existingLocation);
-        Optional<Location> updatedLocation = locationService.updateLocation(id, newPopulation, newHasMetro);
-        assertTrue(updatedLocation.isPresent());
-        assertEquals(newPopulation, updatedLocation.get().getPopulationLocation());
-        assertEquals(newHasMetro, updatedLocation.get().getHasMetro());
-        verify(locationRepository, times(1)).findById(id);
-        verify(locationRepository, times(1)).save(existingLocation);
+        when(locationRepository.updatePopulationAndMetro(eq(id), eq(newPopulation), eq(newHasMetro), isNull(), any()))
+                .thenReturn(1);
+        Location updated = new Location(id, "Minsk", newPopulation, newHasMetro, null, null, null, 4L, null);
+        when(locationRepository.findById(id)).thenReturn(Optional.of(updated));
+        assertEquals(updated, locationService.updateLocation(id, newPopulation, newHasMetro, null));
+        verify(locationRepository, never()).findVersionById(id);
+        verify(locationRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new EntityChangedEvent(ChangeEntityType.LOCATION, id, ChangeOperation.UPDATE));
+    }
+
+    @Test
+    void testUpdateLocationWithExpectedVersion() {
+        Long id = 1L;
+        when(locationRepository.updatePopulationAndMetro(eq(id), eq(5000L), eq(false), eq(2L), any())).thenReturn(1);
+        when(locationRepository.findById(id)).thenReturn(
+                Optional.of(new Location(id, "Minsk", 5000L, false, null, null, null, 3L, null)));
+        assertEquals(3L, locationService.updateLocation(id, 5000L, false, 2L).getVersion());
+        verify(locationRepository, never()).findVersionById(id);
+    }
+
+    @Test
+    void testUpdateLocationVersionConflict() {
+        Long id = 1L;
+        when(locationRepository.updatePopulationAndMetro(eq(id), eq(5000L), eq(false), eq(2L), any())).thenReturn(0);
+        when(locationRepository.findVersionById(id)).thenReturn(Optional.of(3L));
+        assertThrows(LocationConflictException.class, () -> locationService.updateLocation(id, 5000L, false, 2L));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void testUpdateLocationWithNegativePopulation() {
         Long id = 1L;
         Long newPopulation = -2000L;
-        Location location = new Location(
-                1L, "Minsk", 1000000L, true, null);
-        when(locationRepository.findById(id)).thenReturn(Optional.of(location));
         Exception exception = assertThrows(LocationValidationException.class, () -> {
-            locationService.updateLocation(id, newPopulation, true);
+            locationService.updateLocation(id, newPopulation, true, null);
         });
         assertEquals("Population cannot be negative.", exception.getMessage());
+        verifyNoInteractions(locationRepository);
     }
 }